@@ -2,9 +2,18 @@ package com.chess;
 
 import com.chess.engine.board.Board;
 import com.chess.gui.Table;
+import com.chess.uci.UciEngine;
+
+import java.io.IOException;
 
 public class Driver {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+
+        // "uci" runs the engine for a chess gui on standard input and output, so nothing else may be printed
+        if (args.length > 0 && args[0].equals("uci")) {
+            UciEngine.main(args);
+            return;
+        }
 
         Board board = Board.createStandardBoard();
         System.out.println(board);
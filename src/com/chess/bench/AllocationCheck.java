@@ -0,0 +1,92 @@
+package com.chess.bench;
+
+import com.chess.engine.Perft;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.MoveBuffers;
+import com.chess.engine.board.MoveGenerator;
+import com.chess.engine.board.MoveList;
+import com.chess.engine.board.SearchBoard;
+
+import java.lang.management.ManagementFactory;
+
+// allocation regression check for the search board hot path
+// walks the position corpus with make/unmake and the per-ply move lists and fails
+// when generating, making and unmaking moves allocated anything on this thread
+// usage: AllocationCheck [depth] [--rounds n]
+public final class AllocationCheck {
+
+    private static final com.sun.management.ThreadMXBean THREAD_BEAN =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static final int DEFAULT_DEPTH = 3;
+    private static final int DEFAULT_ROUNDS = 5;
+    // rounds that let the jit compile the path before anything is counted
+    private static final int WARMUP_ROUNDS = 20;
+
+    private AllocationCheck() {
+        throw new RuntimeException("Not instantiable");
+    }
+
+    public static void main(String[] args) {
+        int depth = DEFAULT_DEPTH;
+        int rounds = DEFAULT_ROUNDS;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--rounds")) {
+                rounds = Integer.parseInt(args[++i]);
+            } else {
+                depth = Integer.parseInt(args[i]);
+            }
+        }
+
+        // arrays rather than lists, iterating a list allocates an iterator
+        final Board[] boards = BenchmarkPositions.boards().toArray(new Board[0]);
+        final SearchBoard[] searchBoards = new SearchBoard[boards.length];
+        for (int i = 0; i < boards.length; i++) {
+            searchBoards[i] = new SearchBoard(boards[i]);
+        }
+        final int perftDepth = depth;
+        final MoveBuffers moveBuffers = new MoveBuffers(perftDepth);
+        final MoveList moveList = new MoveList();
+
+        boolean passed = check("SearchBoard perft " + perftDepth, rounds, () -> {
+            long positions = 0;
+            for (final SearchBoard board : searchBoards) {
+                positions += Perft.perft(board, perftDepth, moveBuffers);
+            }
+            return positions;
+        });
+        passed &= check("BitBoard.generateLegalMoves", rounds, () -> {
+            long positions = 0;
+            for (final Board board : boards) {
+                MoveGenerator.generateLegalMoves(board.getBitBoard(), moveList);
+                positions++;
+            }
+            return positions;
+        });
+        System.out.println(passed ? "no allocation on the generation path" : "ALLOCATION REGRESSION");
+        System.exit(passed ? 0 : 1);
+    }
+
+    private static boolean check(final String name, final int rounds, final Walk walk) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            walk.run();
+        }
+        final long threadId = Thread.currentThread().getId();
+        final long bytesBefore = THREAD_BEAN.getThreadAllocatedBytes(threadId);
+        long positions = 0;
+        for (int i = 0; i < rounds; i++) {
+            positions += walk.run();
+        }
+        final long bytes = THREAD_BEAN.getThreadAllocatedBytes(threadId) - bytesBefore;
+        final double bytesPerPosition = (double) bytes / positions;
+        final boolean passed = bytes == 0;
+        System.out.println(String.format("%-40s %,14d positions %,12d bytes %10.3f B/position %s",
+                name, positions, bytes, bytesPerPosition, passed ? "ok" : "FAILED"));
+        return passed;
+    }
+
+    // walks some positions and returns how many were generated
+    private interface Walk {
+        long run();
+    }
+}
@@ -0,0 +1,127 @@
+package com.chess.bench;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+// small benchmark harness, one operation measured on the calling thread
+// reports throughput, average time, bytes allocated per operation and the garbage collections during the run
+public final class Benchmark {
+
+    // operations return a value that is folded into a sink, so the jit cannot drop the work
+    public interface Operation {
+        long run(int iteration);
+    }
+
+    private static final int BATCH_SIZE = 16;
+    private static final com.sun.management.ThreadMXBean THREAD_BEAN =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static volatile long sink;
+
+    private final String name;
+    private final Operation operation;
+
+    public Benchmark(final String name, final Operation operation) {
+        this.name = name;
+        this.operation = operation;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public Result run(final long warmupMillis, final long measurementMillis) {
+        measure(warmupMillis);
+        return measure(measurementMillis);
+    }
+
+    private Result measure(final long millis) {
+        final long threadId = Thread.currentThread().getId();
+        final long gcCountBefore = gcCount();
+        final long gcTimeBefore = gcTime();
+        final long bytesBefore = THREAD_BEAN.getThreadAllocatedBytes(threadId);
+        final long start = System.nanoTime();
+        final long deadline = start + millis * 1_000_000L;
+        long operations = 0;
+        long accumulator = 0;
+        long now;
+        do {
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                accumulator += this.operation.run((int) operations++);
+            }
+            now = System.nanoTime();
+        } while (now < deadline);
+        final long bytes = THREAD_BEAN.getThreadAllocatedBytes(threadId) - bytesBefore;
+        sink += accumulator;
+        return new Result(this.name, operations, now - start, bytes,
+                gcCount() - gcCountBefore, gcTime() - gcTimeBefore);
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (final GarbageCollectorMXBean bean : gcBeans()) {
+            count += Math.max(0, bean.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long gcTime() {
+        long time = 0;
+        for (final GarbageCollectorMXBean bean : gcBeans()) {
+            time += Math.max(0, bean.getCollectionTime());
+        }
+        return time;
+    }
+
+    private static List<GarbageCollectorMXBean> gcBeans() {
+        return ManagementFactory.getGarbageCollectorMXBeans();
+    }
+
+    public static String header() {
+        return String.format("%-40s %14s %12s %12s %12s %8s %8s",
+                "benchmark", "ops/s", "ns/op", "B/op", "MB/s alloc", "gc", "gc ms");
+    }
+
+    public static class Result {
+        private final String name;
+        private final long operations;
+        private final long nanos;
+        private final long bytes;
+        private final long gcCount;
+        private final long gcMillis;
+
+        Result(final String name, final long operations, final long nanos, final long bytes,
+               final long gcCount, final long gcMillis) {
+            this.name = name;
+            this.operations = operations;
+            this.nanos = nanos;
+            this.bytes = bytes;
+            this.gcCount = gcCount;
+            this.gcMillis = gcMillis;
+        }
+
+        public double getOperationsPerSecond() {
+            return this.operations * 1e9 / this.nanos;
+        }
+
+        public double getNanosPerOperation() {
+            return (double) this.nanos / this.operations;
+        }
+
+        public double getBytesPerOperation() {
+            return (double) this.bytes / this.operations;
+        }
+
+        public double getAllocationRate() {
+            return this.bytes / (this.nanos / 1e9) / (1024 * 1024);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-40s %,14.0f %,12.1f %,12.1f %,12.1f %8d %8d", this.name,
+                    getOperationsPerSecond(), getNanosPerOperation(), getBytesPerOperation(),
+                    getAllocationRate(), this.gcCount, this.gcMillis);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.chess.bench;
+
+import com.chess.engine.board.Board;
+import com.chess.pgn.FenUtilities;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// fixed corpus of positions, the same for every run so results can be compared between builds
+public final class BenchmarkPositions {
+
+    public static final String[] FENS = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+            "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+            "r1bqkb1r/pppp1ppp/2n2n2/4p2Q/2B1P3/8/PPPP1PPP/RNB1K1NR w KQkq - 4 4",
+            "r1bq1rk1/pp2bppp/2n1pn2/3p4/2PP4/2N1PN2/PP3PPP/R2QKB1R w KQ - 0 8",
+            "2r2rk1/1bqnbppp/p2ppn2/1p6/3NP3/1BN1BP2/PPPQ2PP/2KR3R w - - 0 13",
+            "8/5pk1/6p1/p2P4/P1p2P2/2P3K1/8/8 b - - 0 45",
+            "6k1/5ppp/8/8/8/8/5PPP/3R2K1 b - - 0 1",
+            "r1b1k2r/ppppqppp/2n2n2/2b1p3/2B1P3/2NP1N2/PPP2PPP/R1BQK2R b KQkq - 0 6"
+    };
+
+    private BenchmarkPositions() {
+        throw new RuntimeException("Not instantiable");
+    }
+
+    public static List<Board> boards() {
+        final List<Board> boards = new ArrayList<>();
+        for (final String fen : FENS) {
+            boards.add(FenUtilities.createGameFromFEN(fen));
+        }
+        return boards;
+    }
+}
@@ -0,0 +1,155 @@
+package com.chess.bench;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.chess.engine.board.MoveGenerator;
+import com.chess.engine.board.SearchBoard;
+import com.chess.engine.pieces.Piece;
+import com.chess.engine.player.MoveTransition;
+import com.chess.pgn.FenUtilities;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// benchmarks of the board hot paths on the fixed position corpus
+// usage: BoardBenchmarks [name filter] [--warmup ms] [--time ms]
+public class BoardBenchmarks {
+
+    public static void main(String[] args) {
+        String filter = "";
+        long warmupMillis = 1000;
+        long measurementMillis = 2000;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--warmup":
+                    warmupMillis = Long.parseLong(args[++i]);
+                    break;
+                case "--time":
+                    measurementMillis = Long.parseLong(args[++i]);
+                    break;
+                default:
+                    filter = args[i];
+                    break;
+            }
+        }
+
+        System.out.println(Benchmark.header());
+        for (final Benchmark benchmark : createBenchmarks(BenchmarkPositions.boards())) {
+            if (benchmark.getName().contains(filter)) {
+                System.out.println(benchmark.run(warmupMillis, measurementMillis));
+            }
+        }
+    }
+
+    static List<Benchmark> createBenchmarks(final List<Board> boards) {
+        final List<Benchmark> benchmarks = new ArrayList<>();
+
+        benchmarks.add(new Benchmark("Board.createStandardBoard",
+                iteration -> Board.createStandardBoard().getZobristKey()));
+
+        final List<Piece[]> pieceSets = new ArrayList<>();
+        for (final Board board : boards) {
+            final List<Piece> pieces = new ArrayList<>(board.getWhitePieces());
+            pieces.addAll(board.getBlackPieces());
+            pieceSets.add(pieces.toArray(new Piece[0]));
+        }
+        benchmarks.add(new Benchmark("Board.Builder.build", iteration -> {
+            final Board board = boards.get(iteration % boards.size());
+            final Board.Builder builder = new Board.Builder();
+            for (final Piece piece : pieceSets.get(iteration % boards.size())) {
+                builder.setPiece(piece);
+            }
+            builder.setMoveMaker(board.currentPlayer().getColor());
+            return builder.build().getZobristKey();
+        }));
+
+        // reading and writing positions as text, the fen paths skip the builder
+        final String[] fens = BenchmarkPositions.FENS;
+        benchmarks.add(new Benchmark("FenUtilities.createGameFromFEN",
+                iteration -> FenUtilities.createGameFromFEN(fens[iteration % fens.length]).getZobristKey()));
+        benchmarks.add(new Benchmark("FenUtilities.createSearchBoardFromFEN",
+                iteration -> FenUtilities.createSearchBoardFromFEN(fens[iteration % fens.length]).getZobristKey()));
+        final SearchBoard fenBoard = SearchBoard.createStandardBoard();
+        benchmarks.add(new Benchmark("FenUtilities.setSearchBoardFromFEN", iteration -> {
+            FenUtilities.setSearchBoardFromFEN(fenBoard, fens[iteration % fens.length]);
+            return fenBoard.getZobristKey();
+        }));
+        benchmarks.add(new Benchmark("FenUtilities.createFENFromGame",
+                iteration -> FenUtilities.createFENFromGame(boards.get(iteration % boards.size())).length()));
+        final List<SearchBoard> fenBoards = new ArrayList<>();
+        for (final String fen : fens) {
+            fenBoards.add(FenUtilities.createSearchBoardFromFEN(fen));
+        }
+        benchmarks.add(new Benchmark("FenUtilities.createFENFromSearchBoard", iteration ->
+                FenUtilities.createFENFromGame(fenBoards.get(iteration % fenBoards.size())).length()));
+
+        for (final Piece.PieceType pieceType : Piece.PieceType.values()) {
+            final List<Board> pieceBoards = new ArrayList<>();
+            final List<Piece> pieces = new ArrayList<>();
+            for (final Board board : boards) {
+                for (final Piece piece : board.currentPlayer().getActivePieces()) {
+                    if (piece.getPieceType() == pieceType) {
+                        pieceBoards.add(board);
+                        pieces.add(piece);
+                    }
+                }
+            }
+            final String className = pieces.get(0).getClass().getSimpleName();
+            benchmarks.add(new Benchmark(className + ".findLegalMove", iteration -> {
+                final int index = iteration % pieces.size();
+                return pieces.get(index).findLegalMove(pieceBoards.get(index)).size();
+            }));
+        }
+
+        final List<Board> moveBoards = new ArrayList<>();
+        final List<Move> moves = new ArrayList<>();
+        for (final Board board : boards) {
+            for (final Move move : board.currentPlayer().getLegalMoves()) {
+                moveBoards.add(board);
+                moves.add(move);
+            }
+        }
+        benchmarks.add(new Benchmark("Player.makeMove", iteration -> {
+            final int index = iteration % moves.size();
+            final MoveTransition transition = moveBoards.get(index).currentPlayer().makeMove(moves.get(index));
+            return transition.getMoveStatus().ordinal();
+        }));
+        benchmarks.add(new Benchmark("Move.MoveFactory.createMove", iteration -> {
+            final int index = iteration % moves.size();
+            final Move move = moves.get(index);
+            return Move.MoveFactory.createMove(moveBoards.get(index), move.getCurrentPosition(),
+                    move.getDestinationPosition()).getDestinationPosition();
+        }));
+
+        benchmarks.add(new Benchmark("Player.isCheckMate",
+                iteration -> boards.get(iteration % boards.size()).currentPlayer().isCheckMate() ? 1 : 0));
+        benchmarks.add(new Benchmark("Player.isStalemate",
+                iteration -> boards.get(iteration % boards.size()).currentPlayer().isStalemate() ? 1 : 0));
+
+        // the same work on the mutable search board, for comparison
+        final List<SearchBoard> searchBoards = new ArrayList<>();
+        for (final Board board : boards) {
+            searchBoards.add(new SearchBoard(board));
+        }
+        final int[] moveBuffer = new int[MoveGenerator.MAX_MOVES];
+        benchmarks.add(new Benchmark("SearchBoard.generatePseudoLegalMoves", iteration ->
+                MoveGenerator.generatePseudoLegalMoves(searchBoards.get(iteration % searchBoards.size()),
+                        moveBuffer)));
+        benchmarks.add(new Benchmark("SearchBoard.generateLegalMoves", iteration ->
+                MoveGenerator.generateLegalMoves(searchBoards.get(iteration % searchBoards.size()), moveBuffer)));
+        benchmarks.add(new Benchmark("SearchBoard.makeMove/unmakeMove", iteration -> {
+            final SearchBoard board = searchBoards.get(iteration % searchBoards.size());
+            final int moveCount = MoveGenerator.generatePseudoLegalMoves(board, moveBuffer);
+            long legal = 0;
+            for (int i = 0; i < moveCount; i++) {
+                board.makeMove(moveBuffer[i]);
+                if (!board.isLastMoveIllegal()) {
+                    legal++;
+                }
+                board.unmakeMove();
+            }
+            return legal;
+        }));
+        return benchmarks;
+    }
+}
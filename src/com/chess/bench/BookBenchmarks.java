@@ -0,0 +1,113 @@
+package com.chess.bench;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.MoveEncoding;
+import com.chess.engine.board.MoveList;
+import com.chess.engine.board.SearchBoard;
+import com.chess.engine.book.OpeningBook;
+import com.chess.engine.book.OpeningBookBuilder;
+import com.chess.pgn.PgnGame;
+import com.chess.pgn.PgnUtilities;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// builds an opening book from a pgn file, then times book probes and counts how far the games stay in the book
+// usage: BookBenchmarks <pgn file> [--book file] [--ply n] [--warmup ms] [--time ms]
+public class BookBenchmarks {
+
+    // every copy carries the move stacks of a whole game, so only a sample is kept
+    private static final int MAX_PROBE_POSITIONS = 1024;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("usage: BookBenchmarks <pgn file> [--book file] [--ply n] [--warmup ms] [--time ms]");
+            return;
+        }
+        final Path pgnFile = Paths.get(args[0]);
+        Path bookFile = null;
+        int maxPly = OpeningBookBuilder.DEFAULT_MAX_PLY;
+        long warmupMillis = 1000;
+        long measurementMillis = 2000;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--book":
+                    bookFile = Paths.get(args[++i]);
+                    break;
+                case "--ply":
+                    maxPly = Integer.parseInt(args[++i]);
+                    break;
+                case "--warmup":
+                    warmupMillis = Long.parseLong(args[++i]);
+                    break;
+                case "--time":
+                    measurementMillis = Long.parseLong(args[++i]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        if (bookFile == null) {
+            bookFile = Files.createTempFile("book", ".bin");
+            bookFile.toFile().deleteOnExit();
+        }
+
+        final long start = System.nanoTime();
+        final OpeningBookBuilder builder = new OpeningBookBuilder(maxPly);
+        builder.addGames(pgnFile);
+        builder.write(bookFile);
+        System.out.printf("built %,d positions from %,d games in %,d ms%n", builder.getPositionCount(),
+                builder.getGameCount(), (System.nanoTime() - start) / 1_000_000L);
+
+        final List<SearchBoard> positions = new ArrayList<>();
+        final List<PgnGame> games = new ArrayList<>();
+        try (final Reader reader = Files.newBufferedReader(pgnFile, StandardCharsets.ISO_8859_1)) {
+            PgnUtilities.readGames(reader, games::add);
+        }
+
+        try (final OpeningBook book = OpeningBook.open(bookFile)) {
+            // plies each game stays in the book, following the game's own moves
+            long bookPlies = 0;
+            final MoveList moves = new MoveList();
+            for (final PgnGame game : games) {
+                final SearchBoard board = SearchBoard.createStandardBoard();
+                for (final String san : game.getMoves()) {
+                    final int move = PgnUtilities.parseMove(board, san, moves);
+                    if (move == MoveEncoding.NULL_MOVE || book.getBestMove(board) == MoveEncoding.NULL_MOVE) {
+                        break;
+                    }
+                    if (positions.size() < MAX_PROBE_POSITIONS) {
+                        positions.add(new SearchBoard(board));
+                    }
+                    board.makeMove(move);
+                    bookPlies++;
+                }
+            }
+            System.out.printf("%,d entries, games stay in the book for %.1f plies on average%n",
+                    book.getEntryCount(), games.isEmpty() ? 0.0 : (double) bookPlies / games.size());
+            if (positions.isEmpty()) {
+                return;
+            }
+
+            final Random random = new Random(1);
+            final List<SearchBoard> misses = new ArrayList<>();
+            for (final Board board : BenchmarkPositions.boards()) {
+                misses.add(new SearchBoard(board));
+            }
+            System.out.println(Benchmark.header());
+            System.out.println(new Benchmark("OpeningBook.getMove hit", iteration ->
+                    book.getMove(positions.get(iteration % positions.size()), random))
+                    .run(warmupMillis, measurementMillis));
+            System.out.println(new Benchmark("OpeningBook.getMove miss", iteration ->
+                    book.getMove(misses.get(iteration % misses.size()), random))
+                    .run(warmupMillis, measurementMillis));
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.chess.bench;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.SearchBoard;
+import com.chess.engine.player.ai.LazySmpSearch;
+import com.chess.engine.player.ai.PositionalEvaluator;
+import com.chess.engine.player.ai.Pruning;
+import com.chess.engine.player.ai.Search;
+import com.chess.engine.player.ai.SearchEngine;
+import com.chess.engine.player.ai.SearchLimits;
+import com.chess.engine.player.ai.SearchResult;
+import com.chess.engine.player.ai.TranspositionTable;
+import com.chess.engine.player.ai.YoungBrothersWaitSearch;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// fixed depth search over the position corpus, the total node count and time compare search changes
+// usage: SearchBenchmarks [depth] [--hash mb] [--threads n] [--ybwc] [--disable null_move,futility,...]
+// the single threaded search also prints what its pruning did
+public final class SearchBenchmarks {
+
+    private static final int DEFAULT_DEPTH = 6;
+
+    private SearchBenchmarks() {
+        throw new RuntimeException("Not instantiable");
+    }
+
+    public static void main(String[] args) {
+        int depth = DEFAULT_DEPTH;
+        int hashMb = TranspositionTable.DEFAULT_SIZE_MB;
+        int threads = 1;
+        boolean isYoungBrothersWait = false;
+        final List<Pruning> disabled = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--hash":
+                    hashMb = Integer.parseInt(args[++i]);
+                    break;
+                case "--ybwc":
+                    isYoungBrothersWait = true;
+                    break;
+                case "--disable":
+                    for (final String name : args[++i].split(",")) {
+                        disabled.add(Pruning.valueOf(name.toUpperCase()));
+                    }
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    depth = Integer.parseInt(args[i]);
+                    break;
+            }
+        }
+
+        long totalNodes = 0;
+        long totalMillis = 0;
+        for (final Board board : BenchmarkPositions.boards()) {
+            // a fresh table per position, so one position does not help the next
+            final TranspositionTable table = new TranspositionTable(hashMb);
+            final SearchEngine search = isYoungBrothersWait ?
+                    new YoungBrothersWaitSearch(new PositionalEvaluator(), threads) : threads > 1 ?
+                    new LazySmpSearch(table, new PositionalEvaluator(), threads) :
+                    new Search(table, new PositionalEvaluator());
+            for (final Pruning pruning : disabled) {
+                if (search instanceof Search) {
+                    ((Search) search).setEnabled(pruning, false);
+                }
+            }
+            final SearchResult result = search.search(new SearchBoard(board), SearchLimits.depth(depth));
+            System.out.println(result);
+            if (search instanceof Search) {
+                System.out.println("  " + ((Search) search).getStatistics());
+            }
+            if (search instanceof LazySmpSearch) {
+                ((LazySmpSearch) search).shutdown();
+            } else if (search instanceof YoungBrothersWaitSearch) {
+                ((YoungBrothersWaitSearch) search).shutdown();
+            }
+            totalNodes += result.getNodes();
+            totalMillis += result.getElapsedMillis();
+        }
+        System.out.println(String.format("total %,d nodes in %,d ms (%,d nps)", totalNodes, totalMillis,
+                totalMillis > 0 ? totalNodes * 1000 / totalMillis : 0));
+    }
+}
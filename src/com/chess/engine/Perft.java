@@ -0,0 +1,233 @@
+package com.chess.engine;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.chess.engine.board.MoveBuffers;
+import com.chess.engine.board.MoveEncoding;
+import com.chess.engine.board.MoveGenerator;
+import com.chess.engine.board.MoveList;
+import com.chess.engine.board.SearchBoard;
+import com.chess.engine.board.Utilities;
+import com.chess.engine.player.MoveTransition;
+import com.chess.pgn.FenUtilities;
+
+// counts the leaf nodes of the move tree to a fixed depth
+// run without arguments to check both board implementations against the reference positions,
+// or pass a depth, a FEN and --divide to count a single position
+public class Perft {
+
+    // the reference positions from the chess programming wiki and their node counts from depth 1
+    private static final PerftPosition[] SUITE = {
+            new PerftPosition("start position",
+                    "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                    20L, 400L, 8902L, 197281L, 4865609L, 119060324L),
+            new PerftPosition("kiwipete",
+                    "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                    48L, 2039L, 97862L, 4085603L, 193690690L),
+            new PerftPosition("position 3",
+                    "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+                    14L, 191L, 2812L, 43238L, 674624L, 11030083L),
+            new PerftPosition("position 4",
+                    "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+                    6L, 264L, 9467L, 422333L, 15833292L),
+            new PerftPosition("position 5",
+                    "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+                    44L, 1486L, 62379L, 2103487L, 89941194L),
+            new PerftPosition("position 6",
+                    "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+                    46L, 2079L, 89890L, 3894594L, 164075551L)
+    };
+
+    // largest expected node count the suite runs on each implementation by default
+    private static final long DEFAULT_SEARCH_BOARD_LIMIT = 5_000_000L;
+    private static final long DEFAULT_BOARD_LIMIT = 100_000L;
+
+    public static void main(String[] args) {
+        int depth = 0;
+        String fen = null;
+        boolean divide = false;
+        boolean useBoard = true;
+        boolean useSearchBoard = true;
+        long nodeLimit = 0;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--fen":
+                    fen = args[++i];
+                    break;
+                case "--divide":
+                    divide = true;
+                    break;
+                case "--board":
+                    useSearchBoard = false;
+                    break;
+                case "--search-board":
+                    useBoard = false;
+                    break;
+                case "--limit":
+                    nodeLimit = Long.parseLong(args[++i]);
+                    break;
+                default:
+                    depth = Integer.parseInt(args[i]);
+                    break;
+            }
+        }
+
+        if (fen == null && depth == 0) {
+            final boolean passed = runSuite(useBoard, useSearchBoard, nodeLimit);
+            System.exit(passed ? 0 : 1);
+        }
+
+        runPosition(fen != null ? fen : SUITE[0].fen, Math.max(1, depth), divide, useBoard, useSearchBoard);
+    }
+
+    private static void runPosition(final String fen, final int depth, final boolean divide,
+                                    final boolean useBoard, final boolean useSearchBoard) {
+        if (useSearchBoard) {
+            report("SearchBoard", depth, divide, () -> divide ?
+                    divide(new SearchBoard(FenUtilities.createGameFromFEN(fen)), depth) :
+                    perft(new SearchBoard(FenUtilities.createGameFromFEN(fen)), depth));
+        }
+        if (useBoard) {
+            report("Board", depth, divide, () -> divide ?
+                    divide(FenUtilities.createGameFromFEN(fen), depth) :
+                    perft(FenUtilities.createGameFromFEN(fen), depth));
+        }
+    }
+
+    // runs every reference position up to the node limit, returns false when a count is wrong
+    private static boolean runSuite(final boolean useBoard, final boolean useSearchBoard, final long nodeLimit) {
+        boolean passed = true;
+        for (final PerftPosition position : SUITE) {
+            System.out.println(position.name + ": " + position.fen);
+            for (int depth = 1; depth <= position.expectedNodes.length; depth++) {
+                final long expected = position.expectedNodes[depth - 1];
+                final int perftDepth = depth;
+                if (useSearchBoard && expected <= (nodeLimit > 0 ? nodeLimit : DEFAULT_SEARCH_BOARD_LIMIT)) {
+                    passed &= check("SearchBoard", perftDepth, expected, () ->
+                            perft(new SearchBoard(FenUtilities.createGameFromFEN(position.fen)), perftDepth));
+                }
+                if (useBoard && expected <= (nodeLimit > 0 ? nodeLimit : DEFAULT_BOARD_LIMIT)) {
+                    passed &= check("Board", perftDepth, expected, () ->
+                            perft(FenUtilities.createGameFromFEN(position.fen), perftDepth));
+                }
+            }
+        }
+        System.out.println(passed ? "all node counts match" : "NODE COUNT MISMATCH");
+        return passed;
+    }
+
+    private static boolean check(final String implementation, final int depth, final long expected,
+                                 final NodeCounter counter) {
+        final long start = System.nanoTime();
+        final long nodes = counter.count();
+        final long elapsed = System.nanoTime() - start;
+        final boolean correct = nodes == expected;
+        System.out.println(String.format("  %-12s depth %d %,14d nodes %8d ms %,12d nps %s",
+                implementation, depth, nodes, elapsed / 1_000_000, nodesPerSecond(nodes, elapsed),
+                correct ? "ok" : "FAILED, expected " + expected));
+        return correct;
+    }
+
+    private static void report(final String implementation, final int depth, final boolean divide,
+                               final NodeCounter counter) {
+        final long start = System.nanoTime();
+        final long nodes = counter.count();
+        final long elapsed = System.nanoTime() - start;
+        System.out.println(String.format("%s%s depth %d: %,d nodes in %d ms (%,d nps)",
+                divide ? "\n" : "", implementation, depth, nodes, elapsed / 1_000_000,
+                nodesPerSecond(nodes, elapsed)));
+    }
+
+    private static long nodesPerSecond(final long nodes, final long elapsedNanos) {
+        return elapsedNanos > 0 ? nodes * 1_000_000_000L / elapsedNanos : 0;
+    }
+
+    // perft through Board and Player.makeMove, every move builds a new board
+    public static long perft(final Board board, final int depth) {
+        long nodes = 0;
+        for (final Move move : board.currentPlayer().getLegalMoves()) {
+            final MoveTransition transition = board.currentPlayer().makeMove(move);
+            if (transition.getMoveStatus().isDone()) {
+                nodes += depth > 1 ? perft(transition.getTransitionBoard(), depth - 1) : 1;
+            }
+        }
+        return nodes;
+    }
+
+    // perft through SearchBoard make/unmake with the legal generator and one move list per ply
+    public static long perft(final SearchBoard board, final int depth) {
+        return perft(board, depth, new MoveBuffers(depth));
+    }
+
+    // nothing is allocated here, the buffers need at least depth plies
+    public static long perft(final SearchBoard board, final int depth, final MoveBuffers moveBuffers) {
+        final MoveList moves = moveBuffers.get(depth - 1);
+        final int moveCount = MoveGenerator.generateLegalMoves(board, moves);
+        // every generated move is legal, so the last ply is just the move count
+        if (depth == 1) {
+            return moveCount;
+        }
+        long nodes = 0;
+        for (int i = 0; i < moveCount; i++) {
+            board.makeMove(moves.get(i));
+            nodes += perft(board, depth - 1, moveBuffers);
+            board.unmakeMove();
+        }
+        return nodes;
+    }
+
+    // prints the node count below every root move, for finding the move where two generators disagree
+    public static long divide(final Board board, final int depth) {
+        long nodes = 0;
+        for (final Move move : board.currentPlayer().getLegalMoves()) {
+            final MoveTransition transition = board.currentPlayer().makeMove(move);
+            if (transition.getMoveStatus().isDone()) {
+                final long moveNodes = depth > 1 ? perft(transition.getTransitionBoard(), depth - 1) : 1;
+                System.out.println(toAlgebraic(move) + ": " + moveNodes);
+                nodes += moveNodes;
+            }
+        }
+        return nodes;
+    }
+
+    public static long divide(final SearchBoard board, final int depth) {
+        final MoveBuffers moveBuffers = new MoveBuffers(depth);
+        final MoveList moves = moveBuffers.get(depth - 1);
+        final int moveCount = MoveGenerator.generateLegalMoves(board, moves);
+        long nodes = 0;
+        for (int i = 0; i < moveCount; i++) {
+            board.makeMove(moves.get(i));
+            final long moveNodes = depth > 1 ? perft(board, depth - 1, moveBuffers) : 1;
+            System.out.println(MoveEncoding.toAlgebraic(moves.get(i)) + ": " + moveNodes);
+            nodes += moveNodes;
+            board.unmakeMove();
+        }
+        return nodes;
+    }
+
+    private static String toAlgebraic(final Move move) {
+        final String text = Utilities.getPositionAtCoordinate(move.getCurrentPosition()) +
+                Utilities.getPositionAtCoordinate(move.getDestinationPosition());
+        if (move instanceof Move.PawnPromotion) {
+            return text + ((Move.PawnPromotion) move).getPromotionType().toString().toLowerCase();
+        }
+        return text;
+    }
+
+    private interface NodeCounter {
+        long count();
+    }
+
+    private static class PerftPosition {
+        private final String name;
+        private final String fen;
+        private final long[] expectedNodes;
+
+        PerftPosition(final String name, final String fen, final long... expectedNodes) {
+            this.name = name;
+            this.fen = fen;
+            this.expectedNodes = expectedNodes;
+        }
+    }
+}
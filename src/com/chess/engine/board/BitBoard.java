@@ -0,0 +1,424 @@
+package com.chess.engine.board;
+
+import com.chess.engine.Color;
+import com.chess.engine.pieces.King;
+import com.chess.engine.pieces.Pawn;
+import com.chess.engine.pieces.Piece;
+
+import java.util.List;
+
+// bitboard core of a position
+// bit n of every mask is square n of the board, so bit 0 is a8 and bit 63 is h1, same as Utilities
+public final class BitBoard {
+
+    // colour indexes
+    public static final int WHITE = 0;
+    public static final int BLACK = 1;
+
+    // piece type indexes, the piece bitboards are stored as colour * 6 + type
+    public static final int PAWN = 0;
+    public static final int KNIGHT = 1;
+    public static final int BISHOP = 2;
+    public static final int ROOK = 3;
+    public static final int QUEEN = 4;
+    public static final int KING = 5;
+    public static final int NUM_PIECE_TYPES = 6;
+    public static final int NUM_PIECES = 12;
+
+    // castling rights word
+    public static final int WHITE_SHORT_CASTLE = 1;
+    public static final int WHITE_LONG_CASTLE = 2;
+    public static final int BLACK_SHORT_CASTLE = 4;
+    public static final int BLACK_LONG_CASTLE = 8;
+    public static final int NO_CASTLING = 0;
+
+    public static final int NO_SQUARE = -1;
+
+    public static final long FILE_A = 0x0101010101010101L;
+    public static final long FILE_B = FILE_A << 1;
+    public static final long FILE_G = FILE_A << 6;
+    public static final long FILE_H = FILE_A << 7;
+    public static final long RANK_8 = 0xFFL;
+    public static final long RANK_1 = RANK_8 << 56;
+
+    private static final int[][] ROOK_DIRECTIONS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{-1, -1}, {-1, 1}, {1, -1}, {1, 1}};
+
+    // squares strictly between two aligned squares, and the whole line through them
+    private static final long[][] BETWEEN = new long[Utilities.NUM_SQUARES][Utilities.NUM_SQUARES];
+    private static final long[][] LINE = new long[Utilities.NUM_SQUARES][Utilities.NUM_SQUARES];
+
+    static {
+        for (int from = 0; from < Utilities.NUM_SQUARES; from++) {
+            final long fromMask = 1L << from;
+            final long rookRays = slidingAttacks(from, 0L, ROOK_DIRECTIONS);
+            final long bishopRays = slidingAttacks(from, 0L, BISHOP_DIRECTIONS);
+            for (int to = 0; to < Utilities.NUM_SQUARES; to++) {
+                final long toMask = 1L << to;
+                final int[][] directions = (rookRays & toMask) != 0 ? ROOK_DIRECTIONS :
+                        (bishopRays & toMask) != 0 ? BISHOP_DIRECTIONS : null;
+                if (directions == null) {
+                    continue;
+                }
+                // each square blocks the ray towards the other one, what both rays share lies between them
+                BETWEEN[from][to] = slidingAttacks(from, toMask, directions) &
+                        slidingAttacks(to, fromMask, directions);
+                final long fromRays = slidingAttacks(from, 0L, directions);
+                final long toRays = slidingAttacks(to, 0L, directions);
+                LINE[from][to] = (fromRays & toRays) | fromMask | toMask;
+            }
+        }
+    }
+
+    private final long[] pieceBitBoards;
+    private final int[] squares;
+    private final long whiteOccupancy;
+    private final long blackOccupancy;
+    private final long occupancy;
+    private final int sideToMove;
+    private final int castlingRights;
+    private final int enPassantSquare;
+
+    BitBoard(final List<Square> gameBoard, final Color nextMoveMaker, final Pawn enPassantPawn) {
+        this.pieceBitBoards = new long[NUM_PIECES];
+        this.squares = new int[Utilities.NUM_SQUARES];
+        long white = 0L;
+        long black = 0L;
+        for (final Square square : gameBoard) {
+            this.squares[square.getSquarePosition()] = -1;
+            if (square.isSquareFilled()) {
+                final Piece piece = square.getPiece();
+                final long mask = 1L << square.getSquarePosition();
+                this.pieceBitBoards[pieceIndex(piece)] |= mask;
+                this.squares[square.getSquarePosition()] = pieceIndex(piece);
+                if (piece.getPieceColor().isWhite()) {
+                    white |= mask;
+                } else {
+                    black |= mask;
+                }
+            }
+        }
+        this.whiteOccupancy = white;
+        this.blackOccupancy = black;
+        this.occupancy = white | black;
+        this.sideToMove = colorIndex(nextMoveMaker);
+        this.castlingRights = calculateCastlingRights(gameBoard);
+        // the en passant square is the one the jumping pawn passed over
+        this.enPassantSquare = enPassantPawn != null ?
+                enPassantPawn.getPiecePosition() - (enPassantPawn.getPieceColor().getDirection() * 8) : NO_SQUARE;
+    }
+
+    public long getPieces(final int color, final int pieceType) {
+        return this.pieceBitBoards[color * NUM_PIECE_TYPES + pieceType];
+    }
+
+    // the backing array, shared with the static queries and not to be modified
+    long[] getPieceBitBoards() {
+        return this.pieceBitBoards;
+    }
+
+    public long getPieces(final int pieceIndex) {
+        return this.pieceBitBoards[pieceIndex];
+    }
+
+    public long getOccupancy(final int color) {
+        return color == WHITE ? this.whiteOccupancy : this.blackOccupancy;
+    }
+
+    public long getOccupancy() {
+        return this.occupancy;
+    }
+
+    public int getSideToMove() {
+        return this.sideToMove;
+    }
+
+    public int getCastlingRights() {
+        return this.castlingRights;
+    }
+
+    public int getEnPassantSquare() {
+        return this.enPassantSquare;
+    }
+
+    public int getKingSquare(final int color) {
+        return Long.numberOfTrailingZeros(getPieces(color, KING));
+    }
+
+    // returns the piece index (colour * 6 + type) on the square, or -1 if the square is empty
+    public int getPieceIndexAt(final int square) {
+        return this.squares[square];
+    }
+
+    // piece index of every square, shared like the piece bitboards
+    int[] getSquares() {
+        return this.squares;
+    }
+
+    public boolean isSquareAttacked(final int square, final int byColor) {
+        return isSquareAttacked(this.pieceBitBoards, this.occupancy, square, byColor);
+    }
+
+    // pin and check queries for the king of the colour
+    public long getCheckers(final int color) {
+        return checkers(this.pieceBitBoards, this.occupancy, getKingSquare(color), color ^ 1);
+    }
+
+    public long getPinnedPieces(final int color) {
+        return pinnedPieces(this.pieceBitBoards, this.occupancy, getKingSquare(color), color);
+    }
+
+    public boolean isKingMoveLegal(final int to, final int color) {
+        return isKingMoveLegal(this.pieceBitBoards, this.occupancy, getKingSquare(color), to, color);
+    }
+
+    public boolean isEnPassantLegal(final int from, final int to, final int color) {
+        return isEnPassantLegal(this.pieceBitBoards, this.occupancy, from, to, color);
+    }
+
+    // every piece of both colours attacking the square
+    public long attackersTo(final int square, final long occupancy) {
+        return attackersTo(this.pieceBitBoards, occupancy, square);
+    }
+
+    // attack queries shared with every board that stores its pieces as twelve bitboards
+    public static boolean isSquareAttacked(final long[] pieceBitBoards, final long occupancy,
+                                           final int square, final int byColor) {
+        final int offset = byColor * NUM_PIECE_TYPES;
+        // a pawn of the colour attacks the square if a pawn of the other colour on the square would attack it
+        if ((LeaperAttacks.pawnAttacks(byColor ^ 1, square) & pieceBitBoards[offset + PAWN]) != 0 ||
+            (LeaperAttacks.knightAttacks(square) & pieceBitBoards[offset + KNIGHT]) != 0 ||
+            (LeaperAttacks.kingAttacks(square) & pieceBitBoards[offset + KING]) != 0) {
+            return true;
+        }
+        final long queens = pieceBitBoards[offset + QUEEN];
+        return (rookAttacks(square, occupancy) & (pieceBitBoards[offset + ROOK] | queens)) != 0 ||
+               (bishopAttacks(square, occupancy) & (pieceBitBoards[offset + BISHOP] | queens)) != 0;
+    }
+
+    public static long attackersTo(final long[] pieceBitBoards, final long occupancy, final int square) {
+        final long rooksAndQueens = pieceBitBoards[ROOK] | pieceBitBoards[QUEEN] |
+                pieceBitBoards[NUM_PIECE_TYPES + ROOK] | pieceBitBoards[NUM_PIECE_TYPES + QUEEN];
+        final long bishopsAndQueens = pieceBitBoards[BISHOP] | pieceBitBoards[QUEEN] |
+                pieceBitBoards[NUM_PIECE_TYPES + BISHOP] | pieceBitBoards[NUM_PIECE_TYPES + QUEEN];
+        // a white pawn attacks the square if a black pawn on that square would attack it, and the other way around
+        return (LeaperAttacks.pawnAttacks(BLACK, square) & pieceBitBoards[PAWN]) |
+               (LeaperAttacks.pawnAttacks(WHITE, square) & pieceBitBoards[NUM_PIECE_TYPES + PAWN]) |
+               (LeaperAttacks.knightAttacks(square) &
+                       (pieceBitBoards[KNIGHT] | pieceBitBoards[NUM_PIECE_TYPES + KNIGHT])) |
+               (LeaperAttacks.kingAttacks(square) & (pieceBitBoards[KING] | pieceBitBoards[NUM_PIECE_TYPES + KING])) |
+               (rookAttacks(square, occupancy) & rooksAndQueens) |
+               (bishopAttacks(square, occupancy) & bishopsAndQueens);
+    }
+
+    public static long between(final int from, final int to) {
+        return BETWEEN[from][to];
+    }
+
+    // the full rank, file or diagonal through both squares, empty when they are not aligned
+    public static long line(final int from, final int to) {
+        return LINE[from][to];
+    }
+
+    // enemy pieces giving check to the king on the square
+    public static long checkers(final long[] pieceBitBoards, final long occupancy,
+                                final int kingSquare, final int byColor) {
+        return attackersTo(pieceBitBoards, occupancy, kingSquare) & colorPieces(pieceBitBoards, byColor);
+    }
+
+    // squares a piece other than the king must move to: anywhere when not in check,
+    // onto the checker or between it and the king in single check, nowhere in double check
+    public static long checkMask(final int kingSquare, final long checkers) {
+        if (checkers == 0) {
+            return -1L;
+        }
+        if ((checkers & (checkers - 1)) != 0) {
+            return 0L;
+        }
+        return BETWEEN[kingSquare][Long.numberOfTrailingZeros(checkers)] | checkers;
+    }
+
+    // own pieces that are the only piece between their king and an enemy slider
+    public static long pinnedPieces(final long[] pieceBitBoards, final long occupancy,
+                                    final int kingSquare, final int color) {
+        final int offset = (color ^ 1) * NUM_PIECE_TYPES;
+        final long queens = pieceBitBoards[offset + QUEEN];
+        long snipers = (rookAttacks(kingSquare, 0L) & (pieceBitBoards[offset + ROOK] | queens)) |
+                       (bishopAttacks(kingSquare, 0L) & (pieceBitBoards[offset + BISHOP] | queens));
+        long pinned = 0L;
+        while (snipers != 0) {
+            final long blockers = BETWEEN[kingSquare][Long.numberOfTrailingZeros(snipers)] & occupancy;
+            if (blockers != 0 && (blockers & (blockers - 1)) == 0) {
+                pinned |= blockers;
+            }
+            snipers &= snipers - 1;
+        }
+        return pinned & colorPieces(pieceBitBoards, color);
+    }
+
+    // the squares a non king move from the square may end on
+    public static long moveMask(final int from, final int kingSquare, final long pinned, final long checkMask) {
+        return (pinned & (1L << from)) != 0 ? checkMask & LINE[kingSquare][from] : checkMask;
+    }
+
+    public static boolean isKingMoveLegal(final long[] pieceBitBoards, final long occupancy,
+                                          final int kingSquare, final int to, final int color) {
+        // the king leaves its square, so sliders see through it
+        return !isSquareAttacked(pieceBitBoards, occupancy ^ (1L << kingSquare), to, color ^ 1);
+    }
+
+    // en passant removes two pawns from a rank, so it is checked directly instead of through the masks
+    public static boolean isEnPassantLegal(final long[] pieceBitBoards, final long occupancy,
+                                           final int from, final int to, final int color) {
+        final int offset = (color ^ 1) * NUM_PIECE_TYPES;
+        final int kingSquare = Long.numberOfTrailingZeros(pieceBitBoards[color * NUM_PIECE_TYPES + KING]);
+        final long captured = 1L << (to + (color == WHITE ? 8 : -8));
+        // a knight or a pawn other than the captured one still gives check afterwards
+        if ((LeaperAttacks.knightAttacks(kingSquare) & pieceBitBoards[offset + KNIGHT]) != 0 ||
+            (LeaperAttacks.pawnAttacks(color, kingSquare) & pieceBitBoards[offset + PAWN] & ~captured) != 0) {
+            return false;
+        }
+        final long after = occupancy ^ (1L << from) ^ (1L << to) ^ captured;
+        final long queens = pieceBitBoards[offset + QUEEN];
+        return (rookAttacks(kingSquare, after) & (pieceBitBoards[offset + ROOK] | queens)) == 0 &&
+               (bishopAttacks(kingSquare, after) & (pieceBitBoards[offset + BISHOP] | queens)) == 0;
+    }
+
+    static long colorPieces(final long[] pieceBitBoards, final int color) {
+        final int offset = color * NUM_PIECE_TYPES;
+        return pieceBitBoards[offset + PAWN] | pieceBitBoards[offset + KNIGHT] | pieceBitBoards[offset + BISHOP] |
+               pieceBitBoards[offset + ROOK] | pieceBitBoards[offset + QUEEN] | pieceBitBoards[offset + KING];
+    }
+
+    // set-wise attacks, every bit of the argument is a piece, single squares are looked up in LeaperAttacks
+    // white pawns move towards square 0, black pawns towards square 63
+    public static long pawnAttacks(final int color, final long pawns) {
+        if (color == WHITE) {
+            return ((pawns >>> 7) & ~FILE_A) | ((pawns >>> 9) & ~FILE_H);
+        }
+        return ((pawns << 7) & ~FILE_H) | ((pawns << 9) & ~FILE_A);
+    }
+
+    public static long knightAttacks(final long knights) {
+        return ((knights >>> 17) & ~FILE_H) | ((knights >>> 15) & ~FILE_A) |
+               ((knights >>> 10) & ~(FILE_G | FILE_H)) | ((knights >>> 6) & ~(FILE_A | FILE_B)) |
+               ((knights << 6) & ~(FILE_G | FILE_H)) | ((knights << 10) & ~(FILE_A | FILE_B)) |
+               ((knights << 15) & ~FILE_H) | ((knights << 17) & ~FILE_A);
+    }
+
+    public static long kingAttacks(final long kings) {
+        return (kings >>> 8) | (kings << 8) |
+               (((kings >>> 9) | (kings << 7) | (kings >>> 1)) & ~FILE_H) |
+               (((kings >>> 7) | (kings << 9) | (kings << 1)) & ~FILE_A);
+    }
+
+    public static long rookAttacks(final int square, final long occupancy) {
+        return MagicBitBoards.rookAttacks(square, occupancy);
+    }
+
+    public static long bishopAttacks(final int square, final long occupancy) {
+        return MagicBitBoards.bishopAttacks(square, occupancy);
+    }
+
+    public static long queenAttacks(final int square, final long occupancy) {
+        return rookAttacks(square, occupancy) | bishopAttacks(square, occupancy);
+    }
+
+    // walks every ray until it leaves the board or hits a blocker, the blocker square is included
+    // only used to build the tables, the magic lookups above answer the same question
+    static long slidingAttacks(final int square, final long occupancy, final int[][] directions) {
+        long attacks = 0L;
+        final int row = square / Utilities.NUM_SQUARES_PER_ROW;
+        final int column = square % Utilities.NUM_SQUARES_PER_ROW;
+        for (final int[] direction : directions) {
+            int nextRow = row + direction[0];
+            int nextColumn = column + direction[1];
+            while (nextRow >= 0 && nextRow < 8 && nextColumn >= 0 && nextColumn < 8) {
+                final long mask = 1L << (nextRow * Utilities.NUM_SQUARES_PER_ROW + nextColumn);
+                attacks |= mask;
+                if ((occupancy & mask) != 0) {
+                    break;
+                }
+                nextRow += direction[0];
+                nextColumn += direction[1];
+            }
+        }
+        return attacks;
+    }
+
+    public static int colorIndex(final Color color) {
+        return color.isWhite() ? WHITE : BLACK;
+    }
+
+    public static int pieceTypeIndex(final Piece.PieceType pieceType) {
+        switch (pieceType) {
+            case PAWN:
+                return PAWN;
+            case KNIGHT:
+                return KNIGHT;
+            case BISHOP:
+                return BISHOP;
+            case ROOK:
+                return ROOK;
+            case QUEEN:
+                return QUEEN;
+            default:
+                return KING;
+        }
+    }
+
+    public static Piece.PieceType pieceType(final int pieceTypeIndex) {
+        switch (pieceTypeIndex) {
+            case PAWN:
+                return Piece.PieceType.PAWN;
+            case KNIGHT:
+                return Piece.PieceType.KNIGHT;
+            case BISHOP:
+                return Piece.PieceType.BISHOP;
+            case ROOK:
+                return Piece.PieceType.ROOK;
+            case QUEEN:
+                return Piece.PieceType.QUEEN;
+            default:
+                return Piece.PieceType.KING;
+        }
+    }
+
+    public static int pieceIndex(final Piece piece) {
+        return colorIndex(piece.getPieceColor()) * NUM_PIECE_TYPES + pieceTypeIndex(piece.getPieceType());
+    }
+
+    // a side keeps a castling right while its king and that rook have not moved yet
+    private static int calculateCastlingRights(final List<Square> gameBoard) {
+        int rights = NO_CASTLING;
+        final Piece whiteKing = gameBoard.get(60).getPiece();
+        if (isUnmovedKing(whiteKing, Color.WHITE)) {
+            if (((King) whiteKing).isCanShortCastle() && isUnmovedRook(gameBoard.get(63).getPiece(), Color.WHITE)) {
+                rights |= WHITE_SHORT_CASTLE;
+            }
+            if (((King) whiteKing).isCanLongCastle() && isUnmovedRook(gameBoard.get(56).getPiece(), Color.WHITE)) {
+                rights |= WHITE_LONG_CASTLE;
+            }
+        }
+        final Piece blackKing = gameBoard.get(4).getPiece();
+        if (isUnmovedKing(blackKing, Color.BLACK)) {
+            if (((King) blackKing).isCanShortCastle() && isUnmovedRook(gameBoard.get(7).getPiece(), Color.BLACK)) {
+                rights |= BLACK_SHORT_CASTLE;
+            }
+            if (((King) blackKing).isCanLongCastle() && isUnmovedRook(gameBoard.get(0).getPiece(), Color.BLACK)) {
+                rights |= BLACK_LONG_CASTLE;
+            }
+        }
+        return rights;
+    }
+
+    private static boolean isUnmovedKing(final Piece piece, final Color color) {
+        return piece != null && piece.getPieceType().isKing() && piece.getPieceColor() == color &&
+                piece.isFirstMove();
+    }
+
+    private static boolean isUnmovedRook(final Piece piece, final Color color) {
+        return piece != null && piece.getPieceType().isRook() && piece.getPieceColor() == color &&
+                piece.isFirstMove();
+    }
+}
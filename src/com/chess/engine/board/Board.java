@@ -18,23 +18,43 @@ public final class Board {
     private final WhitePlayer whitePlayer;
     private final BlackPlayer blackPlayer;
     private final Player currentPlayer;
+    private final BitBoard bitBoard;
+    private final long pieceKey;
+    private final long zobristKey;
 
     private final Pawn enPassantPawn;
 
     private Board(final Builder builder) {
-        this.gameBoard = createGameBoard(builder);
+        this(builder.createBoardConfig(), builder.nextMoveMaker, builder.enPassantPawn, builder.pieceKey,
+                builder.isPieceKeySet);
+    }
+
+    private Board(final Piece[] boardConfig, final Color nextMoveMaker, final Pawn enPassantPawn,
+                  final long pieceKey, final boolean isPieceKeySet) {
+        this.gameBoard = createGameBoard(boardConfig);
         this.whitePieces = calculateActivePieces(this.gameBoard, Color.WHITE);
         this.blackPieces = calculateActivePieces(this.gameBoard, Color.BLACK);
-        this.enPassantPawn = builder.enPassantPawn;
-
-        // move collection for both white and black pieces
-        final Collection<Move> whiteLegalMoves = findLegalMoves(this.whitePieces);
-        final Collection<Move> blackLegalMoves = findLegalMoves(this.blackPieces);
+        this.enPassantPawn = enPassantPawn;
+        this.bitBoard = new BitBoard(this.gameBoard, nextMoveMaker, enPassantPawn);
+        // moves pass the piece key on incrementally, boards built by hand compute it once
+        this.pieceKey = isPieceKeySet ? pieceKey : Zobrist.computePieceKey(this.bitBoard);
+        this.zobristKey = this.pieceKey ^ Zobrist.stateKey(this.bitBoard.getSideToMove(),
+                this.bitBoard.getCastlingRights(), this.bitBoard.getEnPassantSquare());
+
+        // for the players, their moves are only generated when asked for
+        this.whitePlayer = new WhitePlayer(this);
+        this.blackPlayer = new BlackPlayer(this);
+        this.currentPlayer = nextMoveMaker.pickPlayer(this.whitePlayer, this.blackPlayer);
+    }
 
-        // for the players
-        this.whitePlayer = new WhitePlayer(this, whiteLegalMoves, blackLegalMoves);
-        this.blackPlayer = new BlackPlayer(this, whiteLegalMoves, blackLegalMoves);
-        this.currentPlayer = builder.nextMoveMaker.pickPlayer(this.whitePlayer, this.blackPlayer);
+    // a board from the piece on every square, null for the empty ones, without going through the builder's map
+    // for readers that already have the position in square order, like the fen parser
+    public static Board createBoard(final Piece[] boardConfig, final Color nextMoveMaker, final Pawn enPassantPawn) {
+        if (boardConfig.length != Utilities.NUM_SQUARES) {
+            throw new IllegalArgumentException("Expected " + Utilities.NUM_SQUARES + " squares, got " +
+                    boardConfig.length);
+        }
+        return new Board(boardConfig, nextMoveMaker, enPassantPawn, 0L, false);
     }
 
     public Player whitePlayer() {
@@ -53,6 +73,47 @@ public final class Board {
         return this.enPassantPawn;
     }
 
+    // bitboard view of the same position, for queries that are faster on 64 bit masks
+    public BitBoard getBitBoard() {
+        return this.bitBoard;
+    }
+
+    public long getZobristKey() {
+        return this.zobristKey;
+    }
+
+    long getPieceKey() {
+        return this.pieceKey;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (this.zobristKey ^ (this.zobristKey >>> 32));
+    }
+
+    @Override
+    // two boards are equal when they hold the same position, no matter how it was reached
+    public boolean equals(final Object other) {
+        if (this == other) {
+            return true;
+        } if (!(other instanceof Board)) {
+            return false;
+        }
+        final Board otherBoard = (Board) other;
+        if (this.zobristKey != otherBoard.getZobristKey()) {
+            return false;
+        }
+        final BitBoard otherBitBoard = otherBoard.getBitBoard();
+        for (int i = 0; i < BitBoard.NUM_PIECES; i++) {
+            if (this.bitBoard.getPieces(i) != otherBitBoard.getPieces(i)) {
+                return false;
+            }
+        }
+        return this.bitBoard.getSideToMove() == otherBitBoard.getSideToMove() &&
+                this.bitBoard.getCastlingRights() == otherBitBoard.getCastlingRights() &&
+                this.bitBoard.getEnPassantSquare() == otherBitBoard.getEnPassantSquare();
+    }
+
     @Override
     // printing the board
     public String toString() {
@@ -75,16 +136,6 @@ public final class Board {
         return this.blackPieces;
     }
 
-    private Collection<Move> findLegalMoves(Collection<Piece> pieces) {
-        final List<Move> legalMoves = new ArrayList<>();
-
-        // looping through the legal moves
-        for (final Piece piece : pieces) {
-            legalMoves.addAll(piece.findLegalMove(this));
-        }
-        return ImmutableList.copyOf(legalMoves);
-    }
-
     private static Collection<Piece> calculateActivePieces(final List<Square> gameBoard, final Color color) {
         final List<Piece> activePieces = new ArrayList<>();
 
@@ -104,9 +155,13 @@ public final class Board {
     }
 
     public static List<Square> createGameBoard(final Builder builder) {
+        return createGameBoard(builder.createBoardConfig());
+    }
+
+    private static List<Square> createGameBoard(final Piece[] boardConfig) {
         final Square[] squares = new Square[Utilities.NUM_SQUARES];
         for (int i = 0; i < Utilities.NUM_SQUARES; i++) {
-            squares[i] = Square.createSquare(i, builder.boardConfig.get(i));
+            squares[i] = Square.createSquare(i, boardConfig[i]);
         }
         return ImmutableList.copyOf(squares);
     }
@@ -116,8 +171,8 @@ public final class Board {
 
         // Layout for black
         builder.setPiece(new Rook(0, Color.BLACK));
-        builder.setPiece(new Bishop(1, Color.BLACK));
-        builder.setPiece(new Knight(2, Color.BLACK));
+        builder.setPiece(new Knight(1, Color.BLACK));
+        builder.setPiece(new Bishop(2, Color.BLACK));
         builder.setPiece(new Queen(3, Color.BLACK));
         builder.setPiece(new King(4, Color.BLACK, true, true));
         builder.setPiece(new Bishop(5, Color.BLACK));
@@ -167,6 +222,8 @@ public final class Board {
         Map<Integer, Piece> boardConfig;
         Color nextMoveMaker;
         Pawn enPassantPawn;
+        long pieceKey;
+        boolean isPieceKeySet;
 
         public Builder() {
             this.boardConfig = new HashMap<>();
@@ -191,5 +248,20 @@ public final class Board {
         public void setEnPassantPawn(Pawn enPassantPawn) {
             this.enPassantPawn = enPassantPawn;
         }
+
+        private Piece[] createBoardConfig() {
+            final Piece[] config = new Piece[Utilities.NUM_SQUARES];
+            for (final Piece piece : this.boardConfig.values()) {
+                config[piece.getPiecePosition()] = piece;
+            }
+            return config;
+        }
+
+        // zobrist key of the pieces, when the caller already knows it
+        Builder setPieceKey(final long pieceKey) {
+            this.pieceKey = pieceKey;
+            this.isPieceKeySet = true;
+            return this;
+        }
     }
 }
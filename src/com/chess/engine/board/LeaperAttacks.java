@@ -0,0 +1,57 @@
+package com.chess.engine.board;
+
+import static com.chess.engine.board.BitBoard.*;
+
+// attacks of the pieces that jump, one entry per square, built once when the class loads
+// every square has the attack set as a mask, the pawn captures also as an array for the loop over capture squares
+public final class LeaperAttacks {
+
+    private static final long[] KNIGHT_ATTACKS = new long[Utilities.NUM_SQUARES];
+    private static final long[] KING_ATTACKS = new long[Utilities.NUM_SQUARES];
+    private static final long[][] PAWN_ATTACKS = new long[2][Utilities.NUM_SQUARES];
+
+    private static final int[][][] PAWN_DESTINATIONS = new int[2][Utilities.NUM_SQUARES][];
+
+    static {
+        for (int square = 0; square < Utilities.NUM_SQUARES; square++) {
+            final long mask = 1L << square;
+            KNIGHT_ATTACKS[square] = BitBoard.knightAttacks(mask);
+            KING_ATTACKS[square] = BitBoard.kingAttacks(mask);
+            PAWN_ATTACKS[WHITE][square] = BitBoard.pawnAttacks(WHITE, mask);
+            PAWN_ATTACKS[BLACK][square] = BitBoard.pawnAttacks(BLACK, mask);
+
+            PAWN_DESTINATIONS[WHITE][square] = toSquares(PAWN_ATTACKS[WHITE][square]);
+            PAWN_DESTINATIONS[BLACK][square] = toSquares(PAWN_ATTACKS[BLACK][square]);
+        }
+    }
+
+    private LeaperAttacks() {
+        throw new RuntimeException("Cannot be initialized. Utilities only");
+    }
+
+    public static long knightAttacks(final int square) {
+        return KNIGHT_ATTACKS[square];
+    }
+
+    public static long kingAttacks(final int square) {
+        return KING_ATTACKS[square];
+    }
+
+    // the two diagonal squares a pawn of the colour captures on
+    public static long pawnAttacks(final int color, final int square) {
+        return PAWN_ATTACKS[color][square];
+    }
+
+    public static int[] pawnAttackDestinations(final int color, final int square) {
+        return PAWN_DESTINATIONS[color][square];
+    }
+
+    private static int[] toSquares(long mask) {
+        final int[] squares = new int[Long.bitCount(mask)];
+        for (int i = 0; mask != 0; i++) {
+            squares[i] = Long.numberOfTrailingZeros(mask);
+            mask &= mask - 1;
+        }
+        return squares;
+    }
+}
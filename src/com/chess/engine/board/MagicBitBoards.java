@@ -0,0 +1,130 @@
+package com.chess.engine.board;
+
+// sliding piece attacks by magic multiplication
+// the blockers on a piece's rays are masked out of the occupancy, multiplied by a per square magic number
+// and shifted down to an index into a table of precomputed attack sets
+public final class MagicBitBoards {
+
+    private static final int[][] ROOK_DIRECTIONS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{-1, -1}, {-1, 1}, {1, -1}, {1, 1}};
+
+    // found once by trying sparse random numbers until every blocker subset of the square indexed without
+    // a wrong collision, building the tables below checks them again
+    private static final long[] ROOK_MAGICS = {
+            0x0980008011400020L, 0x8340004410002000L, 0x0880200090008268L, 0x0080080080100004L,
+            0x8100110004020800L, 0x0300010004000822L, 0x08801A0029000080L, 0x8100050001204882L,
+            0x0844800081400320L, 0x0804402010004000L, 0x0108802003100480L, 0x0004808008001000L,
+            0x0003001801001014L, 0x0002000200041008L, 0x0004008108042210L, 0x0105000100009042L,
+            0x0400808000400021L, 0xC100404010002000L, 0x0060008010002088L, 0x0400808008001000L,
+            0x4440808008000400L, 0x1002008004000280L, 0x40024400300D1248L, 0x0010020000408104L,
+            0x0101008200204200L, 0x8020002040005000L, 0x4100100080802000L, 0x4008006A80100280L,
+            0x1020080080040080L, 0x0004010040020040L, 0x0018A12400080290L, 0x6140004200008104L,
+            0x4000400020800090L, 0x2020002080804000L, 0x0000408202002010L, 0x0080100501000820L,
+            0x0000800400800800L, 0x000A200408014010L, 0x0100800200800100L, 0xA00800570200008CL,
+            0x008000406000C010L, 0x1040100028002000L, 0x0048200100110040L, 0x0068490210030020L,
+            0x1009080005010010L, 0x2142000804010100L, 0x1001080110840002L, 0x1801004400820001L,
+            0x010440208D020200L, 0x0000400020008080L, 0x0200200080100280L, 0x0000100020090100L,
+            0x0204008008020480L, 0x8104010040020040L, 0x78000201B0080400L, 0x0040800051002880L,
+            0x0050108001002041L, 0x208A801100614003L, 0x0006002042089082L, 0x0011090004201001L,
+            0x1002001004200802L, 0x0005000208040001L, 0x0002002701AC0822L, 0x000010250184004AL
+    };
+
+    private static final long[] BISHOP_MAGICS = {
+            0xC0A0012206040EA0L, 0x8010228200420001L, 0x0110008220400400L, 0x02445C0080106000L,
+            0x0044042004008100L, 0x0880900420408C05L, 0x0201080110080002L, 0x0000108094202000L,
+            0x0000042002040108L, 0x0000623024110042L, 0x0086100094811002L, 0x0000044502002080L,
+            0x0100460211400040L, 0x0008109004200004L, 0x0202320084844000L, 0x8040042421041009L,
+            0x201010C05102008CL, 0x1020888208024080L, 0x0108000C80290200L, 0x8048000420425203L,
+            0x0005000090402000L, 0x2080400201104100L, 0x8820420111101000L, 0x4AC0302208821802L,
+            0x000440001002A840L, 0x2002200010041080L, 0x1012080201004400L, 0x8440040002410120L,
+            0x1090820084010400L, 0x2084852012021000L, 0x12040062C1011003L, 0x02008205E1090080L,
+            0x088C102808042080L, 0x0802102200904280L, 0x8020209002080020L, 0x2200080800060A00L,
+            0x20C0004010010100L, 0x0802004100821003L, 0x0008024400008080L, 0x0000840102008090L,
+            0x0030A40420244007L, 0x0A19084210011282L, 0x0004082090019806L, 0x6108004208020080L,
+            0x0081200410110100L, 0x1040810701010208L, 0x0282047832012080L, 0x0010020099000020L,
+            0x000E010422400840L, 0x10204208B0089090L, 0x081004440C048000L, 0x88C0180084040001L,
+            0x3100020803040080L, 0x890070A041210C00L, 0x0020200101010A09L, 0x0004100240410400L,
+            0x0006004402080200L, 0x0801062484042000L, 0x00010002D7441004L, 0x0810080000208800L,
+            0x0000020808030411L, 0x1450001020014440L, 0x004060081081A288L, 0x0044011404108A00L
+    };
+
+    private static final long[] ROOK_MASKS = new long[Utilities.NUM_SQUARES];
+    private static final int[] ROOK_SHIFTS = new int[Utilities.NUM_SQUARES];
+    private static final int[] ROOK_OFFSETS = new int[Utilities.NUM_SQUARES];
+    private static final long[] ROOK_ATTACKS;
+
+    private static final long[] BISHOP_MASKS = new long[Utilities.NUM_SQUARES];
+    private static final int[] BISHOP_SHIFTS = new int[Utilities.NUM_SQUARES];
+    private static final int[] BISHOP_OFFSETS = new int[Utilities.NUM_SQUARES];
+    private static final long[] BISHOP_ATTACKS;
+
+    static {
+        ROOK_ATTACKS = initialise(ROOK_DIRECTIONS, ROOK_MASKS, ROOK_MAGICS, ROOK_SHIFTS, ROOK_OFFSETS);
+        BISHOP_ATTACKS = initialise(BISHOP_DIRECTIONS, BISHOP_MASKS, BISHOP_MAGICS, BISHOP_SHIFTS, BISHOP_OFFSETS);
+    }
+
+    private MagicBitBoards() {
+        throw new RuntimeException("Cannot be initialized. Utilities only");
+    }
+
+    public static long rookAttacks(final int square, final long occupancy) {
+        return ROOK_ATTACKS[ROOK_OFFSETS[square] +
+                (int) (((occupancy & ROOK_MASKS[square]) * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square])];
+    }
+
+    public static long bishopAttacks(final int square, final long occupancy) {
+        return BISHOP_ATTACKS[BISHOP_OFFSETS[square] +
+                (int) (((occupancy & BISHOP_MASKS[square]) * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square])];
+    }
+
+    // fills masks, shifts and offsets for every square and returns the shared attack table
+    private static long[] initialise(final int[][] directions, final long[] masks, final long[] magics,
+                                     final int[] shifts, final int[] offsets) {
+        int size = 0;
+        for (int square = 0; square < Utilities.NUM_SQUARES; square++) {
+            masks[square] = relevantOccupancy(square, directions);
+            shifts[square] = Utilities.NUM_SQUARES - Long.bitCount(masks[square]);
+            offsets[square] = size;
+            size += 1 << Long.bitCount(masks[square]);
+        }
+        final long[] attacks = new long[size];
+        final boolean[] isFilled = new boolean[size];
+        for (int square = 0; square < Utilities.NUM_SQUARES; square++) {
+            final long mask = masks[square];
+            // carry rippler, walks every subset of the mask
+            long subset = 0L;
+            do {
+                final int index = offsets[square] + (int) ((subset * magics[square]) >>> shifts[square]);
+                final long reference = BitBoard.slidingAttacks(square, subset, directions);
+                if (isFilled[index] && attacks[index] != reference) {
+                    throw new IllegalStateException("Bad magic for square " + square);
+                }
+                attacks[index] = reference;
+                isFilled[index] = true;
+                subset = (subset - mask) & mask;
+            } while (subset != 0);
+        }
+        return attacks;
+    }
+
+    // the rays without their last square, a piece on the edge blocks nothing behind it
+    private static long relevantOccupancy(final int square, final int[][] directions) {
+        long mask = 0L;
+        final int row = square / Utilities.NUM_SQUARES_PER_ROW;
+        final int column = square % Utilities.NUM_SQUARES_PER_ROW;
+        for (final int[] direction : directions) {
+            int nextRow = row + direction[0];
+            int nextColumn = column + direction[1];
+            while (isInside(nextRow + direction[0], nextColumn + direction[1])) {
+                mask |= 1L << (nextRow * Utilities.NUM_SQUARES_PER_ROW + nextColumn);
+                nextRow += direction[0];
+                nextColumn += direction[1];
+            }
+        }
+        return mask;
+    }
+
+    private static boolean isInside(final int row, final int column) {
+        return row >= 0 && row < Utilities.NUM_SQUARES_PER_ROW && column >= 0 && column < Utilities.NUM_SQUARES_PER_ROW;
+    }
+}
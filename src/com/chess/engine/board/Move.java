@@ -80,6 +80,13 @@ public abstract class Move {
         return null;
     }
 
+    // zobrist piece key of the board once the moved piece has left its square for the destination
+    protected long movedPieceKey() {
+        final int pieceIndex = BitBoard.pieceIndex(this.movedPiece);
+        return this.board.getPieceKey() ^ Zobrist.pieceKey(pieceIndex, this.movedPiece.getPiecePosition()) ^
+                Zobrist.pieceKey(pieceIndex, this.destinationPosition);
+    }
+
     public Board execute() {
         // works by making a new board where the move is made
         // not by mutating the board
@@ -98,6 +105,7 @@ public abstract class Move {
         // move the moved piece
         builder.setPiece(this.movedPiece.movePiece(this));
         builder.setMoveMaker(this.board.currentPlayer().getOpponent().getColor());
+        builder.setPieceKey(movedPieceKey());
         return builder.build();
     }
 
@@ -177,6 +185,7 @@ public abstract class Move {
 
             builder.setPiece(this.movedPiece.movePiece(this));
             builder.setMoveMaker(this.board.currentPlayer().getOpponent().getColor());
+            builder.setPieceKey(movedPieceKey() ^ Zobrist.pieceKey(this.getCapturedPiece()));
             return builder.build();
         }
 
@@ -252,6 +261,7 @@ public abstract class Move {
 
             builder.setPiece(this.movedPiece.movePiece(this));
             builder.setMoveMaker(this.board.currentPlayer().getOpponent().getColor());
+            builder.setPieceKey(movedPieceKey() ^ Zobrist.pieceKey(this.getCapturedPiece()));
             return builder.build();
         }
     }
@@ -260,21 +270,33 @@ public abstract class Move {
 
         final Move decoratedMove;
         final Pawn promotedPawn;
+        final Piece.PieceType promotionType;
 
         public PawnPromotion(final Move decoratedMove) {
+            this(decoratedMove, Piece.PieceType.QUEEN);
+        }
+
+        public PawnPromotion(final Move decoratedMove, final Piece.PieceType promotionType) {
             super(decoratedMove.getBoard(), decoratedMove.getMovedPiece(), decoratedMove.getDestinationPosition());
             this.decoratedMove = decoratedMove;
             this.promotedPawn = (Pawn)decoratedMove.getMovedPiece();
+            this.promotionType = promotionType;
+        }
+
+        public Piece.PieceType getPromotionType() {
+            return this.promotionType;
         }
 
         @Override
         public int hashCode() {
-            return decoratedMove.hashCode() + (31 * promotedPawn.hashCode());
+            return decoratedMove.hashCode() + (31 * promotedPawn.hashCode()) + promotionType.hashCode();
         }
 
+        // the four promotions of one pawn differ only in the promotion piece
         @Override
         public boolean equals(final Object other) {
-            return this == other || other instanceof PawnPromotion && super.equals(other);
+            return this == other || other instanceof PawnPromotion && super.equals(other) &&
+                    this.promotionType == ((PawnPromotion) other).getPromotionType();
         }
 
         @Override
@@ -289,8 +311,12 @@ public abstract class Move {
             for (final Piece piece : pawnMovedBoard.currentPlayer().getOpponent().getActivePieces()) {
                 builder.setPiece(piece);
             }
-            builder.setPiece(this.promotedPawn.getPromotionPiece().movePiece(this));
+            final Piece promotionPiece = this.promotedPawn.getPromotionPiece(this.promotionType).movePiece(this);
+            builder.setPiece(promotionPiece);
             builder.setMoveMaker(pawnMovedBoard.currentPlayer().getColor());
+            builder.setPieceKey(pawnMovedBoard.getPieceKey() ^
+                    Zobrist.pieceKey(BitBoard.pieceIndex(this.promotedPawn), this.destinationPosition) ^
+                    Zobrist.pieceKey(promotionPiece));
             return builder.build();
         }
 
@@ -306,7 +332,7 @@ public abstract class Move {
 
         @Override
         public String toString() {
-            return Utilities.getPositionAtCoordinate(this.destinationPosition) + "=" + "Q";
+            return Utilities.getPositionAtCoordinate(this.destinationPosition) + "=" + this.promotionType;
         }
 
     }
@@ -331,6 +357,7 @@ public abstract class Move {
             builder.setPiece(movedPawn);
             builder.setEnPassantPawn(movedPawn); // set jump pawn to be the en passant pawn
             builder.setMoveMaker(this.board.currentPlayer().getOpponent().getColor());
+            builder.setPieceKey(movedPieceKey());
             return builder.build();
         }
 
@@ -377,8 +404,11 @@ public abstract class Move {
             builder.setPiece(this.movedPiece.movePiece(this));
             builder.setPiece(new Rook(this.castleRookDestination,
                                       this.castleRook.getPieceColor(),
-                                      true));
+                                      false));
             builder.setMoveMaker(this.board.currentPlayer().getOpponent().getColor());
+            final int rookIndex = BitBoard.pieceIndex(this.castleRook);
+            builder.setPieceKey(movedPieceKey() ^ Zobrist.pieceKey(rookIndex, this.castleRookStart) ^
+                    Zobrist.pieceKey(rookIndex, this.castleRookDestination));
             return builder.build();
         }
 
@@ -467,8 +497,43 @@ public abstract class Move {
             return INVALID_MOVE;
         }
 
+        // the move object for an encoded move of the board's generator
+        public static Move createMove(final Board board, final int move) {
+            final int from = MoveEncoding.getFrom(move);
+            final int to = MoveEncoding.getTo(move);
+            final Piece movedPiece = board.getSquare(from).getPiece();
+            if (MoveEncoding.isCastle(move)) {
+                final boolean isShortCastle = to > from;
+                final int rookStart = isShortCastle ? from + 3 : from - 4;
+                final int rookDestination = isShortCastle ? from + 1 : from - 1;
+                final Rook rook = (Rook) board.getSquare(rookStart).getPiece();
+                return isShortCastle ?
+                        new ShortCastleMove(board, movedPiece, to, rook, rookStart, rookDestination) :
+                        new LongCastleMove(board, movedPiece, to, rook, rookStart, rookDestination);
+            }
+            if (MoveEncoding.isEnPassant(move)) {
+                return new PawnEnPassant(board, movedPiece, to, board.getEnPassantPawn());
+            }
+            if (MoveEncoding.isDoublePawnPush(move)) {
+                return new PawnJump(board, movedPiece, to);
+            }
+            final Piece capturedPiece = MoveEncoding.isCapture(move) ? board.getSquare(to).getPiece() : null;
+            if (MoveEncoding.getMovedPieceType(move) == BitBoard.PAWN) {
+                final Move pawnMove = capturedPiece != null ?
+                        new PawnCapturingMove(board, movedPiece, to, capturedPiece) :
+                        new PawnMove(board, movedPiece, to);
+                return MoveEncoding.isPromotion(move) ?
+                        new PawnPromotion(pawnMove, BitBoard.pieceType(MoveEncoding.getPromotionType(move))) :
+                        pawnMove;
+            }
+            return capturedPiece != null ?
+                    new MajorCapturingMove(board, movedPiece, to, capturedPiece) :
+                    new BigMove(board, movedPiece, to);
+        }
+
         public static Move createMove(final Board board, final int currentPosition, final int destinationPosition) {
-            for (final Move move : board.getAllLegalMoves()) {
+            // only the side to move can move, the opponent moves are never generated for this
+            for (final Move move : board.currentPlayer().getLegalMoves()) {
                 if (move.getCurrentPosition() == currentPosition &&
                     move.getDestinationPosition() == destinationPosition) {
                     return move;
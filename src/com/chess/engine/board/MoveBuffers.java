@@ -0,0 +1,23 @@
+package com.chess.engine.board;
+
+// one move list per ply, allocated once before a search or perft and reused for every position
+// a ply fills its own list while the lists of the plies above it are still being walked
+public final class MoveBuffers {
+
+    private final MoveList[] moveLists;
+
+    public MoveBuffers(final int maxPly) {
+        this.moveLists = new MoveList[maxPly];
+        for (int ply = 0; ply < maxPly; ply++) {
+            this.moveLists[ply] = new MoveList();
+        }
+    }
+
+    public MoveList get(final int ply) {
+        return this.moveLists[ply];
+    }
+
+    public int getMaxPly() {
+        return this.moveLists.length;
+    }
+}
@@ -0,0 +1,109 @@
+package com.chess.engine.board;
+
+// moves are plain ints
+// bits 0-5 origin square, bits 6-11 destination square, bits 12-15 moved piece index (colour * 6 + type),
+// bits 16-18 captured piece type, bits 19-21 promotion piece type, bits 22-25 flags
+// the captured type only means something when the capture flag is set, a pawn has type 0
+public final class MoveEncoding {
+
+    public static final int NULL_MOVE = 0;
+
+    public static final int CAPTURE = 1 << 22;
+    public static final int DOUBLE_PAWN_PUSH = 1 << 23;
+    public static final int EN_PASSANT = 1 << 24;
+    public static final int CASTLE = 1 << 25;
+
+    private static final int SQUARE_MASK = 0x3F;
+    private static final int TO_SHIFT = 6;
+    private static final int PIECE_SHIFT = 12;
+    private static final int PIECE_MASK = 0xF;
+    private static final int CAPTURED_SHIFT = 16;
+    private static final int PROMOTION_SHIFT = 19;
+    private static final int TYPE_MASK = 0x7;
+
+    private MoveEncoding() {
+        throw new RuntimeException("Cannot be initialized. Utilities only");
+    }
+
+    public static int encode(final int from, final int to, final int movedPiece, final int flags) {
+        return from | (to << TO_SHIFT) | (movedPiece << PIECE_SHIFT) | flags;
+    }
+
+    public static int encodeCapture(final int from, final int to, final int movedPiece, final int capturedType,
+                                    final int flags) {
+        return from | (to << TO_SHIFT) | (movedPiece << PIECE_SHIFT) | (capturedType << CAPTURED_SHIFT) |
+                CAPTURE | flags;
+    }
+
+    // a promotion that is not a capture passes 0 as the captured type and no capture flag
+    public static int encodePromotion(final int from, final int to, final int movedPiece, final int capturedType,
+                                      final int promotionType, final int flags) {
+        return from | (to << TO_SHIFT) | (movedPiece << PIECE_SHIFT) | (capturedType << CAPTURED_SHIFT) |
+                (promotionType << PROMOTION_SHIFT) | flags;
+    }
+
+    public static int getFrom(final int move) {
+        return move & SQUARE_MASK;
+    }
+
+    public static int getTo(final int move) {
+        return (move >>> TO_SHIFT) & SQUARE_MASK;
+    }
+
+    // piece index from BitBoard, colour * 6 + type
+    public static int getMovedPiece(final int move) {
+        return (move >>> PIECE_SHIFT) & PIECE_MASK;
+    }
+
+    public static int getMovedPieceType(final int move) {
+        return getMovedPiece(move) % BitBoard.NUM_PIECE_TYPES;
+    }
+
+    // piece type from BitBoard, only valid for captures, the pawn for en passant
+    public static int getCapturedPieceType(final int move) {
+        return (move >>> CAPTURED_SHIFT) & TYPE_MASK;
+    }
+
+    // promotion piece type from BitBoard, 0 when the move is not a promotion (a pawn is never promoted to)
+    public static int getPromotionType(final int move) {
+        return (move >>> PROMOTION_SHIFT) & TYPE_MASK;
+    }
+
+    public static boolean isPromotion(final int move) {
+        return getPromotionType(move) != 0;
+    }
+
+    public static boolean isCapture(final int move) {
+        return (move & CAPTURE) != 0;
+    }
+
+    public static boolean isDoublePawnPush(final int move) {
+        return (move & DOUBLE_PAWN_PUSH) != 0;
+    }
+
+    public static boolean isEnPassant(final int move) {
+        return (move & EN_PASSANT) != 0;
+    }
+
+    public static boolean isCastle(final int move) {
+        return (move & CASTLE) != 0;
+    }
+
+    // long algebraic notation, e.g. e2e4 or e7e8q
+    public static String toAlgebraic(final int move) {
+        final String text = Utilities.getPositionAtCoordinate(getFrom(move)) +
+                Utilities.getPositionAtCoordinate(getTo(move));
+        switch (getPromotionType(move)) {
+            case BitBoard.KNIGHT:
+                return text + "n";
+            case BitBoard.BISHOP:
+                return text + "b";
+            case BitBoard.ROOK:
+                return text + "r";
+            case BitBoard.QUEEN:
+                return text + "q";
+            default:
+                return text;
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.chess.engine.board;
+
+import static com.chess.engine.board.BitBoard.*;
+
+// move generation on the bitboards of either board
+// moves are written into a caller supplied array or move list and the number of moves is returned,
+// so nothing is allocated while generating
+public final class MoveGenerator {
+
+    public static final int MAX_MOVES = 256;
+
+    // which moves to generate, noisy moves are captures, en passant and promotions, quiet moves the rest
+    private static final int ALL_MOVES = 0;
+    private static final int NOISY_MOVES = 1;
+    private static final int QUIET_MOVES = 2;
+
+    private MoveGenerator() {
+        throw new RuntimeException("Cannot be initialized. Utilities only");
+    }
+
+    // pseudo legal moves, the caller rejects the ones that leave the own king attacked
+    public static int generatePseudoLegalMoves(final SearchBoard board, final int[] moves) {
+        return generateMoves(board.getPieceBitBoards(), board.getSquares(), board.getSideToMove(),
+                board.getCastlingRights(), board.getEnPassantSquare(), false, ALL_MOVES, moves);
+    }
+
+    public static int generatePseudoLegalMoves(final SearchBoard board, final MoveList moveList) {
+        moveList.size = generatePseudoLegalMoves(board, moveList.moves);
+        return moveList.size;
+    }
+
+    // legal moves only, pins, checkers and the squares that answer a check are worked out once per position
+    public static int generateLegalMoves(final SearchBoard board, final int[] moves) {
+        return generateMoves(board.getPieceBitBoards(), board.getSquares(), board.getSideToMove(),
+                board.getCastlingRights(), board.getEnPassantSquare(), true, ALL_MOVES, moves);
+    }
+
+    public static int generateLegalMoves(final SearchBoard board, final MoveList moveList) {
+        moveList.size = generateLegalMoves(board, moveList.moves);
+        return moveList.size;
+    }
+
+    // the legal noisy moves alone, for move ordering stages and quiescence
+    public static int generateNoisyMoves(final SearchBoard board, final MoveList moveList) {
+        moveList.size = generateMoves(board.getPieceBitBoards(), board.getSquares(), board.getSideToMove(),
+                board.getCastlingRights(), board.getEnPassantSquare(), true, NOISY_MOVES, moveList.moves);
+        return moveList.size;
+    }
+
+    // the legal quiet moves, together with the noisy ones these are all legal moves
+    public static int generateQuietMoves(final SearchBoard board, final MoveList moveList) {
+        moveList.size = generateMoves(board.getPieceBitBoards(), board.getSquares(), board.getSideToMove(),
+                board.getCastlingRights(), board.getEnPassantSquare(), true, QUIET_MOVES, moveList.moves);
+        return moveList.size;
+    }
+
+    public static int generateLegalMoves(final BitBoard board, final int[] moves) {
+        return generateLegalMoves(board, board.getSideToMove(), moves);
+    }
+
+    public static int generateLegalMoves(final BitBoard board, final MoveList moveList) {
+        return generateLegalMoves(board, board.getSideToMove(), moveList);
+    }
+
+    // moves of either colour on the immutable board, en passant only belongs to the side to move
+    public static int generateLegalMoves(final BitBoard board, final int color, final int[] moves) {
+        return generateMoves(board.getPieceBitBoards(), board.getSquares(), color, board.getCastlingRights(),
+                color == board.getSideToMove() ? board.getEnPassantSquare() : NO_SQUARE, true, ALL_MOVES, moves);
+    }
+
+    public static int generateLegalMoves(final BitBoard board, final int color, final MoveList moveList) {
+        moveList.size = generateLegalMoves(board, color, moveList.moves);
+        return moveList.size;
+    }
+
+    private static int generateMoves(final long[] pieces, final int[] squares, final int us,
+                                     final int castlingRights, final int enPassantSquare,
+                                     final boolean legal, final int kind, final int[] moves) {
+        final int them = us ^ 1;
+        final int offset = us * NUM_PIECE_TYPES;
+        final long own = colorPieces(pieces, us);
+        final long enemy = colorPieces(pieces, them);
+        final long occupancy = own | enemy;
+        final long targets = kind == NOISY_MOVES ? enemy : kind == QUIET_MOVES ? ~occupancy : ~own;
+        final int kingSquare = Long.numberOfTrailingZeros(pieces[offset + KING]);
+        // without legality the masks let everything through
+        final long checkers = legal ? checkers(pieces, occupancy, kingSquare, them) : 0L;
+        final long checkMask = checkMask(kingSquare, checkers);
+        final long pinned = legal ? pinnedPieces(pieces, occupancy, kingSquare, us) : 0L;
+        int count = 0;
+
+        // in double check only the king moves
+        if (checkMask != 0) {
+            count = generatePawnMoves(pieces, squares, us, enemy, occupancy, enPassantSquare, kingSquare, pinned,
+                    checkMask, legal, kind, moves, count);
+            long knights = pieces[offset + KNIGHT] & ~pinned;
+            while (knights != 0) {
+                final int from = Long.numberOfTrailingZeros(knights);
+                count = addMoves(from, offset + KNIGHT, LeaperAttacks.knightAttacks(from) & targets & checkMask,
+                        enemy, squares, moves, count);
+                knights &= knights - 1;
+            }
+            for (int pieceType = BISHOP; pieceType <= QUEEN; pieceType++) {
+                long sliders = pieces[offset + pieceType];
+                while (sliders != 0) {
+                    final int from = Long.numberOfTrailingZeros(sliders);
+                    final long attacks = pieceType == BISHOP ? bishopAttacks(from, occupancy) :
+                            pieceType == ROOK ? rookAttacks(from, occupancy) : queenAttacks(from, occupancy);
+                    count = addMoves(from, offset + pieceType,
+                            attacks & targets & moveMask(from, kingSquare, pinned, checkMask), enemy, squares, moves,
+                            count);
+                    sliders &= sliders - 1;
+                }
+            }
+        }
+
+        long destinations = LeaperAttacks.kingAttacks(kingSquare) & targets;
+        while (destinations != 0) {
+            final int to = Long.numberOfTrailingZeros(destinations);
+            if (!legal || isKingMoveLegal(pieces, occupancy, kingSquare, to, us)) {
+                moves[count++] = (enemy & (1L << to)) != 0 ?
+                        MoveEncoding.encodeCapture(kingSquare, to, offset + KING, squares[to] % NUM_PIECE_TYPES, 0) :
+                        MoveEncoding.encode(kingSquare, to, offset + KING, 0);
+            }
+            destinations &= destinations - 1;
+        }
+        return checkers == 0 && kind != NOISY_MOVES ?
+                generateCastlingMoves(pieces, us, castlingRights, occupancy, moves, count) : count;
+    }
+
+    private static int addMoves(final int from, final int movedPiece, long destinations, final long enemy,
+                                final int[] squares, final int[] moves, int count) {
+        while (destinations != 0) {
+            final int to = Long.numberOfTrailingZeros(destinations);
+            moves[count++] = (enemy & (1L << to)) != 0 ?
+                    MoveEncoding.encodeCapture(from, to, movedPiece, squares[to] % NUM_PIECE_TYPES, 0) :
+                    MoveEncoding.encode(from, to, movedPiece, 0);
+            destinations &= destinations - 1;
+        }
+        return count;
+    }
+
+    private static int generatePawnMoves(final long[] pieces, final int[] squares, final int us, final long enemy,
+                                         final long occupancy, final int enPassantSquare, final int kingSquare,
+                                         final long pinned, final long checkMask, final boolean legal,
+                                         final int kind, final int[] moves, int count) {
+        final int pawn = us * NUM_PIECE_TYPES + PAWN;
+        final long pawns = pieces[pawn];
+        final long empty = ~occupancy;
+        // white pawns move towards square 0
+        final int forward = us == WHITE ? -8 : 8;
+        final long promotionRank = us == WHITE ? RANK_8 : RANK_1;
+        final long jumpRank = us == WHITE ? RANK_1 >>> 24 : RANK_8 << 24;
+
+        final long singlePushes = (us == WHITE ? pawns >>> 8 : pawns << 8) & empty;
+        final long doublePushes = (us == WHITE ? singlePushes >>> 8 : singlePushes << 8) & empty & jumpRank;
+
+        // pushes to the last rank are promotions and count as noisy
+        long destinations = singlePushes & checkMask &
+                (kind == NOISY_MOVES ? promotionRank : kind == QUIET_MOVES ? ~promotionRank : ~0L);
+        while (destinations != 0) {
+            final int to = Long.numberOfTrailingZeros(destinations);
+            final int from = to - forward;
+            if ((moveMask(from, kingSquare, pinned, checkMask) & (1L << to)) != 0) {
+                count = addPawnMove(from, to, pawn, 0, 0, promotionRank, moves, count);
+            }
+            destinations &= destinations - 1;
+        }
+        destinations = kind == NOISY_MOVES ? 0L : doublePushes & checkMask;
+        while (destinations != 0) {
+            final int to = Long.numberOfTrailingZeros(destinations);
+            final int from = to - 2 * forward;
+            if ((moveMask(from, kingSquare, pinned, checkMask) & (1L << to)) != 0) {
+                moves[count++] = MoveEncoding.encode(from, to, pawn, MoveEncoding.DOUBLE_PAWN_PUSH);
+            }
+            destinations &= destinations - 1;
+        }
+
+        long attackers = kind == QUIET_MOVES ? 0L : pawns;
+        while (attackers != 0) {
+            final int from = Long.numberOfTrailingZeros(attackers);
+            final long attacks = LeaperAttacks.pawnAttacks(us, from);
+            long captures = attacks & enemy & moveMask(from, kingSquare, pinned, checkMask);
+            while (captures != 0) {
+                final int to = Long.numberOfTrailingZeros(captures);
+                count = addPawnMove(from, to, pawn, squares[to] % NUM_PIECE_TYPES, MoveEncoding.CAPTURE,
+                        promotionRank, moves, count);
+                captures &= captures - 1;
+            }
+            if (enPassantSquare != NO_SQUARE && (attacks & (1L << enPassantSquare)) != 0 &&
+                    (!legal || isEnPassantLegal(pieces, occupancy, from, enPassantSquare, us))) {
+                moves[count++] = MoveEncoding.encodeCapture(from, enPassantSquare, pawn, PAWN,
+                        MoveEncoding.EN_PASSANT);
+            }
+            attackers &= attackers - 1;
+        }
+        return count;
+    }
+
+    private static int addPawnMove(final int from, final int to, final int pawn, final int capturedType,
+                                   final int flags, final long promotionRank, final int[] moves, int count) {
+        if ((promotionRank & (1L << to)) != 0) {
+            moves[count++] = MoveEncoding.encodePromotion(from, to, pawn, capturedType, QUEEN, flags);
+            moves[count++] = MoveEncoding.encodePromotion(from, to, pawn, capturedType, KNIGHT, flags);
+            moves[count++] = MoveEncoding.encodePromotion(from, to, pawn, capturedType, ROOK, flags);
+            moves[count++] = MoveEncoding.encodePromotion(from, to, pawn, capturedType, BISHOP, flags);
+        } else {
+            moves[count++] = MoveEncoding.encodePromotion(from, to, pawn, capturedType, 0, flags);
+        }
+        return count;
+    }
+
+    // castling needs the squares between king and rook empty and the king path not attacked
+    private static int generateCastlingMoves(final long[] pieces, final int us, final int rights,
+                                             final long occupancy, final int[] moves, int count) {
+        final int them = us ^ 1;
+        final int king = us * NUM_PIECE_TYPES + KING;
+        if (us == WHITE) {
+            if ((rights & (WHITE_SHORT_CASTLE | WHITE_LONG_CASTLE)) == 0 ||
+                    isSquareAttacked(pieces, occupancy, 60, them)) {
+                return count;
+            }
+            if ((rights & WHITE_SHORT_CASTLE) != 0 && (occupancy & ((1L << 61) | (1L << 62))) == 0 &&
+                    !isSquareAttacked(pieces, occupancy, 61, them) && !isSquareAttacked(pieces, occupancy, 62, them)) {
+                moves[count++] = MoveEncoding.encode(60, 62, king, MoveEncoding.CASTLE);
+            }
+            if ((rights & WHITE_LONG_CASTLE) != 0 && (occupancy & ((1L << 57) | (1L << 58) | (1L << 59))) == 0 &&
+                    !isSquareAttacked(pieces, occupancy, 59, them) && !isSquareAttacked(pieces, occupancy, 58, them)) {
+                moves[count++] = MoveEncoding.encode(60, 58, king, MoveEncoding.CASTLE);
+            }
+        } else {
+            if ((rights & (BLACK_SHORT_CASTLE | BLACK_LONG_CASTLE)) == 0 ||
+                    isSquareAttacked(pieces, occupancy, 4, them)) {
+                return count;
+            }
+            if ((rights & BLACK_SHORT_CASTLE) != 0 && (occupancy & ((1L << 5) | (1L << 6))) == 0 &&
+                    !isSquareAttacked(pieces, occupancy, 5, them) && !isSquareAttacked(pieces, occupancy, 6, them)) {
+                moves[count++] = MoveEncoding.encode(4, 6, king, MoveEncoding.CASTLE);
+            }
+            if ((rights & BLACK_LONG_CASTLE) != 0 && (occupancy & ((1L << 1) | (1L << 2) | (1L << 3))) == 0 &&
+                    !isSquareAttacked(pieces, occupancy, 3, them) && !isSquareAttacked(pieces, occupancy, 2, them)) {
+                moves[count++] = MoveEncoding.encode(4, 2, king, MoveEncoding.CASTLE);
+            }
+        }
+        return count;
+    }
+}
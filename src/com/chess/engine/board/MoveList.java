@@ -0,0 +1,66 @@
+package com.chess.engine.board;
+
+// reusable list of encoded moves backed by a plain int array
+// one list per ply is allocated up front and filled again for every position
+public final class MoveList {
+
+    final int[] moves;
+    int size;
+
+    public MoveList() {
+        this.moves = new int[MoveGenerator.MAX_MOVES];
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public int get(final int index) {
+        return this.moves[index];
+    }
+
+    public void set(final int index, final int move) {
+        this.moves[index] = move;
+    }
+
+    public void add(final int move) {
+        this.moves[this.size++] = move;
+    }
+
+    // keeps the first moves only
+    public void truncate(final int size) {
+        this.size = size;
+    }
+
+    public void clear() {
+        this.size = 0;
+    }
+
+    public void swap(final int first, final int second) {
+        final int move = this.moves[first];
+        this.moves[first] = this.moves[second];
+        this.moves[second] = move;
+    }
+
+    public boolean contains(final int move) {
+        for (int i = 0; i < this.size; i++) {
+            if (this.moves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < this.size; i++) {
+            builder.append(i > 0 ? ", " : "").append(MoveEncoding.toAlgebraic(this.moves[i]));
+        }
+        return builder.append("]").toString();
+    }
+}
@@ -0,0 +1,499 @@
+package com.chess.engine.board;
+
+import com.chess.engine.Color;
+import com.chess.engine.pieces.*;
+
+import java.util.Arrays;
+
+import static com.chess.engine.board.BitBoard.*;
+
+// mutable board for search and perft
+// moves are made and unmade in place instead of building a new Board for every move,
+// Board stays the immutable representation used by the gui and the players
+public final class SearchBoard {
+
+    public static final int NO_PIECE = -1;
+    public static final int MAX_GAME_PLY = 1024;
+
+    // castling rights that survive a move from or to each square
+    private static final int[] CASTLING_MASK = initCastlingMask();
+
+    private final long[] pieceBitBoards;
+    private final long[] colorOccupancy;
+    private long occupancy;
+    private final int[] squares;
+
+    private int sideToMove;
+    private int castlingRights;
+    private int enPassantSquare;
+    private int halfMoveClock;
+    private int fullMoveNumber;
+    private long zobristKey;
+    // zobrist key of the pawns alone, for tables of pawn structure
+    private long pawnKey;
+    // material and square bonuses of both game phases, white minus black, kept up to date piece by piece
+    private int midgameScore;
+    private int endgameScore;
+    private int phase;
+
+    // undo stack, one entry per move made
+    private final int[] moveStack;
+    private final int[] capturedStack;
+    private final int[] castlingStack;
+    private final int[] enPassantStack;
+    private final int[] halfMoveStack;
+    private final long[] keyStack;
+    private int ply;
+
+    private SearchBoard() {
+        this.pieceBitBoards = new long[NUM_PIECES];
+        this.colorOccupancy = new long[2];
+        this.squares = new int[Utilities.NUM_SQUARES];
+        this.moveStack = new int[MAX_GAME_PLY];
+        this.capturedStack = new int[MAX_GAME_PLY];
+        this.castlingStack = new int[MAX_GAME_PLY];
+        this.enPassantStack = new int[MAX_GAME_PLY];
+        this.halfMoveStack = new int[MAX_GAME_PLY];
+        this.keyStack = new long[MAX_GAME_PLY];
+        Arrays.fill(this.squares, NO_PIECE);
+        this.enPassantSquare = NO_SQUARE;
+        this.fullMoveNumber = 1;
+    }
+
+    public SearchBoard(final Board board) {
+        this();
+        final BitBoard bitBoard = board.getBitBoard();
+        for (int pieceIndex = 0; pieceIndex < NUM_PIECES; pieceIndex++) {
+            long pieces = bitBoard.getPieces(pieceIndex);
+            while (pieces != 0) {
+                addPiece(Long.numberOfTrailingZeros(pieces), pieceIndex);
+                pieces &= pieces - 1;
+            }
+        }
+        this.sideToMove = bitBoard.getSideToMove();
+        this.castlingRights = bitBoard.getCastlingRights();
+        this.enPassantSquare = bitBoard.getEnPassantSquare();
+        this.zobristKey ^= Zobrist.stateKey(this.sideToMove, this.castlingRights, this.enPassantSquare);
+    }
+
+    // a position read from text, the piece index or NO_PIECE of every square
+    public SearchBoard(final int[] squares, final int sideToMove, final int castlingRights,
+                       final int enPassantSquare, final int halfMoveClock, final int fullMoveNumber) {
+        this();
+        setPosition(squares, sideToMove, castlingRights, enPassantSquare, halfMoveClock, fullMoveNumber);
+    }
+
+    // replaces the position and forgets the move history, so a batch job reading many positions reuses one board
+    // instead of allocating the history stacks for every position
+    // castling rights are kept only while the king and that rook stand on their squares, as on a board built by hand
+    public void setPosition(final int[] squares, final int sideToMove, final int castlingRights,
+                            final int enPassantSquare, final int halfMoveClock, final int fullMoveNumber) {
+        Arrays.fill(this.pieceBitBoards, 0L);
+        Arrays.fill(this.colorOccupancy, 0L);
+        Arrays.fill(this.squares, NO_PIECE);
+        this.occupancy = 0L;
+        this.zobristKey = 0L;
+        this.pawnKey = 0L;
+        this.midgameScore = 0;
+        this.endgameScore = 0;
+        this.phase = 0;
+        this.ply = 0;
+        for (int square = 0; square < Utilities.NUM_SQUARES; square++) {
+            if (squares[square] != NO_PIECE) {
+                addPiece(square, squares[square]);
+            }
+        }
+        this.sideToMove = sideToMove;
+        this.castlingRights = castlingRights & possibleCastlingRights();
+        this.enPassantSquare = enPassantSquare;
+        this.halfMoveClock = halfMoveClock;
+        this.fullMoveNumber = fullMoveNumber;
+        this.zobristKey ^= Zobrist.stateKey(this.sideToMove, this.castlingRights, this.enPassantSquare);
+    }
+
+    private int possibleCastlingRights() {
+        int rights = NO_CASTLING;
+        if (this.squares[60] == WHITE * NUM_PIECE_TYPES + KING) {
+            rights |= this.squares[63] == WHITE * NUM_PIECE_TYPES + ROOK ? WHITE_SHORT_CASTLE : NO_CASTLING;
+            rights |= this.squares[56] == WHITE * NUM_PIECE_TYPES + ROOK ? WHITE_LONG_CASTLE : NO_CASTLING;
+        }
+        if (this.squares[4] == BLACK * NUM_PIECE_TYPES + KING) {
+            rights |= this.squares[7] == BLACK * NUM_PIECE_TYPES + ROOK ? BLACK_SHORT_CASTLE : NO_CASTLING;
+            rights |= this.squares[0] == BLACK * NUM_PIECE_TYPES + ROOK ? BLACK_LONG_CASTLE : NO_CASTLING;
+        }
+        return rights;
+    }
+
+    // an independent copy with the same move history, for another search thread
+    public SearchBoard(final SearchBoard other) {
+        this.pieceBitBoards = other.pieceBitBoards.clone();
+        this.colorOccupancy = other.colorOccupancy.clone();
+        this.occupancy = other.occupancy;
+        this.squares = other.squares.clone();
+        this.sideToMove = other.sideToMove;
+        this.castlingRights = other.castlingRights;
+        this.enPassantSquare = other.enPassantSquare;
+        this.halfMoveClock = other.halfMoveClock;
+        this.fullMoveNumber = other.fullMoveNumber;
+        this.zobristKey = other.zobristKey;
+        this.pawnKey = other.pawnKey;
+        this.midgameScore = other.midgameScore;
+        this.endgameScore = other.endgameScore;
+        this.phase = other.phase;
+        this.moveStack = other.moveStack.clone();
+        this.capturedStack = other.capturedStack.clone();
+        this.castlingStack = other.castlingStack.clone();
+        this.enPassantStack = other.enPassantStack.clone();
+        this.halfMoveStack = other.halfMoveStack.clone();
+        this.keyStack = other.keyStack.clone();
+        this.ply = other.ply;
+    }
+
+    public static SearchBoard createStandardBoard() {
+        return new SearchBoard(Board.createStandardBoard());
+    }
+
+    // converts back to the immutable board, the move history is not carried over
+    public Board toBoard() {
+        final Board.Builder builder = new Board.Builder();
+        for (int square = 0; square < Utilities.NUM_SQUARES; square++) {
+            if (this.squares[square] != NO_PIECE) {
+                builder.setPiece(createPiece(square, this.squares[square]));
+            }
+        }
+        builder.setMoveMaker(this.sideToMove == WHITE ? Color.WHITE : Color.BLACK);
+        if (this.enPassantSquare != NO_SQUARE) {
+            // the pawn that jumped belongs to the side that just moved
+            final int pawnSquare = this.enPassantSquare + (this.sideToMove == WHITE ? 8 : -8);
+            final Piece pawn = builder.boardConfig.get(pawnSquare);
+            if (pawn instanceof Pawn) {
+                builder.setEnPassantPawn((Pawn) pawn);
+            }
+        }
+        return builder.build();
+    }
+
+    private Piece createPiece(final int square, final int pieceIndex) {
+        final Color color = pieceIndex < NUM_PIECE_TYPES ? Color.WHITE : Color.BLACK;
+        final boolean isWhite = color.isWhite();
+        switch (pieceIndex % NUM_PIECE_TYPES) {
+            case PAWN:
+                return new Pawn(square, color);
+            case KNIGHT:
+                return new Knight(square, color);
+            case BISHOP:
+                return new Bishop(square, color);
+            case ROOK:
+                final boolean isUnmovedRook =
+                        (square == 63 && (this.castlingRights & WHITE_SHORT_CASTLE) != 0 && isWhite) ||
+                        (square == 56 && (this.castlingRights & WHITE_LONG_CASTLE) != 0 && isWhite) ||
+                        (square == 7 && (this.castlingRights & BLACK_SHORT_CASTLE) != 0 && !isWhite) ||
+                        (square == 0 && (this.castlingRights & BLACK_LONG_CASTLE) != 0 && !isWhite);
+                return new Rook(square, color, isUnmovedRook);
+            case QUEEN:
+                return new Queen(square, color);
+            default:
+                final boolean canShortCastle = (this.castlingRights &
+                        (isWhite ? WHITE_SHORT_CASTLE : BLACK_SHORT_CASTLE)) != 0;
+                final boolean canLongCastle = (this.castlingRights &
+                        (isWhite ? WHITE_LONG_CASTLE : BLACK_LONG_CASTLE)) != 0;
+                return new King(square, color, false, canShortCastle, canLongCastle,
+                        canShortCastle || canLongCastle);
+        }
+    }
+
+    public void makeMove(final int move) {
+        final int from = MoveEncoding.getFrom(move);
+        final int to = MoveEncoding.getTo(move);
+        final int movedPiece = this.squares[from];
+        final int us = this.sideToMove;
+        int capturedPiece = NO_PIECE;
+
+        this.moveStack[this.ply] = move;
+        this.castlingStack[this.ply] = this.castlingRights;
+        this.enPassantStack[this.ply] = this.enPassantSquare;
+        this.halfMoveStack[this.ply] = this.halfMoveClock;
+        this.keyStack[this.ply] = this.zobristKey;
+        this.zobristKey ^= Zobrist.stateKey(us, this.castlingRights, this.enPassantSquare);
+
+        if (MoveEncoding.isEnPassant(move)) {
+            final int capturedSquare = to + (us == WHITE ? 8 : -8);
+            capturedPiece = this.squares[capturedSquare];
+            removePiece(capturedSquare);
+        } else if (MoveEncoding.isCapture(move)) {
+            capturedPiece = this.squares[to];
+            removePiece(to);
+        }
+        this.capturedStack[this.ply] = capturedPiece;
+
+        removePiece(from);
+        if (MoveEncoding.isPromotion(move)) {
+            addPiece(to, us * NUM_PIECE_TYPES + MoveEncoding.getPromotionType(move));
+        } else {
+            addPiece(to, movedPiece);
+        }
+
+        if (MoveEncoding.isCastle(move)) {
+            moveCastlingRook(to, false);
+        }
+
+        this.castlingRights &= CASTLING_MASK[from] & CASTLING_MASK[to];
+        this.enPassantSquare = MoveEncoding.isDoublePawnPush(move) ? (from + to) / 2 : NO_SQUARE;
+        this.halfMoveClock = (movedPiece % NUM_PIECE_TYPES == PAWN || capturedPiece != NO_PIECE) ?
+                0 : this.halfMoveClock + 1;
+        if (us == BLACK) {
+            this.fullMoveNumber++;
+        }
+        this.sideToMove = us ^ 1;
+        this.zobristKey ^= Zobrist.stateKey(this.sideToMove, this.castlingRights, this.enPassantSquare);
+        this.ply++;
+    }
+
+    public void unmakeMove() {
+        this.ply--;
+        final int move = this.moveStack[this.ply];
+        final int from = MoveEncoding.getFrom(move);
+        final int to = MoveEncoding.getTo(move);
+        final int us = this.sideToMove ^ 1;
+
+        if (MoveEncoding.isCastle(move)) {
+            moveCastlingRook(to, true);
+        }
+
+        final int pieceOnDestination = this.squares[to];
+        removePiece(to);
+        addPiece(from, MoveEncoding.isPromotion(move) ? us * NUM_PIECE_TYPES + PAWN : pieceOnDestination);
+
+        final int capturedPiece = this.capturedStack[this.ply];
+        if (capturedPiece != NO_PIECE) {
+            addPiece(MoveEncoding.isEnPassant(move) ? to + (us == WHITE ? 8 : -8) : to, capturedPiece);
+        }
+
+        this.castlingRights = this.castlingStack[this.ply];
+        this.enPassantSquare = this.enPassantStack[this.ply];
+        this.halfMoveClock = this.halfMoveStack[this.ply];
+        this.zobristKey = this.keyStack[this.ply];
+        if (us == BLACK) {
+            this.fullMoveNumber--;
+        }
+        this.sideToMove = us;
+    }
+
+    // passes the turn, for null move pruning, the side to move must not be in check
+    public void makeNullMove() {
+        this.moveStack[this.ply] = MoveEncoding.NULL_MOVE;
+        this.capturedStack[this.ply] = NO_PIECE;
+        this.castlingStack[this.ply] = this.castlingRights;
+        this.enPassantStack[this.ply] = this.enPassantSquare;
+        this.halfMoveStack[this.ply] = this.halfMoveClock;
+        this.keyStack[this.ply] = this.zobristKey;
+        this.zobristKey ^= Zobrist.stateKey(this.sideToMove, this.castlingRights, this.enPassantSquare);
+        this.enPassantSquare = NO_SQUARE;
+        this.halfMoveClock++;
+        this.sideToMove ^= 1;
+        this.zobristKey ^= Zobrist.stateKey(this.sideToMove, this.castlingRights, this.enPassantSquare);
+        this.ply++;
+    }
+
+    public void unmakeNullMove() {
+        this.ply--;
+        this.enPassantSquare = this.enPassantStack[this.ply];
+        this.halfMoveClock = this.halfMoveStack[this.ply];
+        this.zobristKey = this.keyStack[this.ply];
+        this.sideToMove ^= 1;
+    }
+
+    // the king destination tells which rook castles
+    private void moveCastlingRook(final int kingDestination, final boolean undo) {
+        final int rookFrom;
+        final int rookTo;
+        switch (kingDestination) {
+            case 62:
+                rookFrom = 63;
+                rookTo = 61;
+                break;
+            case 58:
+                rookFrom = 56;
+                rookTo = 59;
+                break;
+            case 6:
+                rookFrom = 7;
+                rookTo = 5;
+                break;
+            default:
+                rookFrom = 0;
+                rookTo = 3;
+                break;
+        }
+        if (undo) {
+            final int rook = this.squares[rookTo];
+            removePiece(rookTo);
+            addPiece(rookFrom, rook);
+        } else {
+            final int rook = this.squares[rookFrom];
+            removePiece(rookFrom);
+            addPiece(rookTo, rook);
+        }
+    }
+
+    private void addPiece(final int square, final int pieceIndex) {
+        final long mask = 1L << square;
+        this.pieceBitBoards[pieceIndex] |= mask;
+        this.colorOccupancy[pieceIndex / NUM_PIECE_TYPES] |= mask;
+        this.occupancy |= mask;
+        this.squares[square] = pieceIndex;
+        this.zobristKey ^= Zobrist.pieceKey(pieceIndex, square);
+        if (pieceIndex % NUM_PIECE_TYPES == PAWN) {
+            this.pawnKey ^= Zobrist.pieceKey(pieceIndex, square);
+        }
+        this.midgameScore += PieceSquareTables.midgame(pieceIndex, square);
+        this.endgameScore += PieceSquareTables.endgame(pieceIndex, square);
+        this.phase += PieceSquareTables.phase(pieceIndex);
+    }
+
+    private void removePiece(final int square) {
+        final int pieceIndex = this.squares[square];
+        final long mask = ~(1L << square);
+        this.pieceBitBoards[pieceIndex] &= mask;
+        this.colorOccupancy[pieceIndex / NUM_PIECE_TYPES] &= mask;
+        this.occupancy &= mask;
+        this.squares[square] = NO_PIECE;
+        this.zobristKey ^= Zobrist.pieceKey(pieceIndex, square);
+        if (pieceIndex % NUM_PIECE_TYPES == PAWN) {
+            this.pawnKey ^= Zobrist.pieceKey(pieceIndex, square);
+        }
+        this.midgameScore -= PieceSquareTables.midgame(pieceIndex, square);
+        this.endgameScore -= PieceSquareTables.endgame(pieceIndex, square);
+        this.phase -= PieceSquareTables.phase(pieceIndex);
+    }
+
+    public boolean isSquareAttacked(final int square, final int byColor) {
+        return BitBoard.isSquareAttacked(this.pieceBitBoards, this.occupancy, square, byColor);
+    }
+
+    // pieces of both colours that attack the square when only the pieces in occupancy are on the board
+    public long attackersTo(final int square, final long occupancy) {
+        return BitBoard.attackersTo(this.pieceBitBoards, occupancy, square);
+    }
+
+    public boolean isInCheck() {
+        return isSquareAttacked(getKingSquare(this.sideToMove), this.sideToMove ^ 1);
+    }
+
+    // true when the side that just moved left its own king attacked
+    public boolean isLastMoveIllegal() {
+        return isSquareAttacked(getKingSquare(this.sideToMove ^ 1), this.sideToMove);
+    }
+
+    // true when a pawn of the side to move attacks the en passant square, the square is set after every double push
+    // even when no pawn stands beside the one that moved
+    public boolean canCaptureEnPassant() {
+        return this.enPassantSquare != NO_SQUARE &&
+                (LeaperAttacks.pawnAttacks(this.sideToMove ^ 1, this.enPassantSquare) &
+                        this.pieceBitBoards[this.sideToMove * NUM_PIECE_TYPES + PAWN]) != 0;
+    }
+
+    // true when the position already occurred since the last capture or pawn move,
+    // the keys of earlier positions are the ones on the undo stack with the same side to move
+    public boolean isRepetition() {
+        final int earliest = Math.max(0, this.ply - this.halfMoveClock);
+        for (int i = this.ply - 2; i >= earliest; i -= 2) {
+            if (this.keyStack[i] == this.zobristKey) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // the backing arrays, shared with the static queries and not to be modified
+    long[] getPieceBitBoards() {
+        return this.pieceBitBoards;
+    }
+
+    int[] getSquares() {
+        return this.squares;
+    }
+
+    public long getPieces(final int color, final int pieceType) {
+        return this.pieceBitBoards[color * NUM_PIECE_TYPES + pieceType];
+    }
+
+    public long getOccupancy(final int color) {
+        return this.colorOccupancy[color];
+    }
+
+    public long getOccupancy() {
+        return this.occupancy;
+    }
+
+    public int getPieceIndexAt(final int square) {
+        return this.squares[square];
+    }
+
+    public int getKingSquare(final int color) {
+        return Long.numberOfTrailingZeros(this.pieceBitBoards[color * NUM_PIECE_TYPES + KING]);
+    }
+
+    public int getSideToMove() {
+        return this.sideToMove;
+    }
+
+    public int getCastlingRights() {
+        return this.castlingRights;
+    }
+
+    public int getEnPassantSquare() {
+        return this.enPassantSquare;
+    }
+
+    public int getHalfMoveClock() {
+        return this.halfMoveClock;
+    }
+
+    public int getFullMoveNumber() {
+        return this.fullMoveNumber;
+    }
+
+    public long getZobristKey() {
+        return this.zobristKey;
+    }
+
+    public long getPawnKey() {
+        return this.pawnKey;
+    }
+
+    // white's material and square bonuses in the middlegame, from PieceSquareTables
+    public int getMidgameScore() {
+        return this.midgameScore;
+    }
+
+    public int getEndgameScore() {
+        return this.endgameScore;
+    }
+
+    // PieceSquareTables.MAX_PHASE with all pieces on the board, more after promotions
+    public int getPhase() {
+        return this.phase;
+    }
+
+    public int getPly() {
+        return this.ply;
+    }
+
+    // forgets the moves made so far, they can no longer be unmade and repetitions of earlier positions are not seen
+    public void clearHistory() {
+        this.ply = 0;
+    }
+
+    private static int[] initCastlingMask() {
+        final int[] mask = new int[Utilities.NUM_SQUARES];
+        Arrays.fill(mask, WHITE_SHORT_CASTLE | WHITE_LONG_CASTLE | BLACK_SHORT_CASTLE | BLACK_LONG_CASTLE);
+        mask[60] &= ~(WHITE_SHORT_CASTLE | WHITE_LONG_CASTLE);
+        mask[63] &= ~WHITE_SHORT_CASTLE;
+        mask[56] &= ~WHITE_LONG_CASTLE;
+        mask[4] &= ~(BLACK_SHORT_CASTLE | BLACK_LONG_CASTLE);
+        mask[7] &= ~BLACK_SHORT_CASTLE;
+        mask[0] &= ~BLACK_LONG_CASTLE;
+        return mask;
+    }
+}
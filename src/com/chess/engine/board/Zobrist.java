@@ -0,0 +1,94 @@
+package com.chess.engine.board;
+
+import com.chess.engine.pieces.Piece;
+
+import static com.chess.engine.board.BitBoard.*;
+
+// 64 bit position keys
+// the random numbers come from a fixed seed, so keys are the same on every run and can be stored in files
+public final class Zobrist {
+
+    private static final long SEED = 0x5DEECE66DL;
+
+    private static final long[][] PIECE_KEYS = new long[NUM_PIECES][Utilities.NUM_SQUARES];
+    private static final long[] CASTLING_KEYS = new long[16];
+    private static final long[] EN_PASSANT_KEYS = new long[Utilities.NUM_SQUARES_PER_ROW];
+    private static final long SIDE_KEY;
+
+    static {
+        long state = SEED;
+        for (int pieceIndex = 0; pieceIndex < NUM_PIECES; pieceIndex++) {
+            for (int square = 0; square < Utilities.NUM_SQUARES; square++) {
+                state += 0x9E3779B97F4A7C15L;
+                PIECE_KEYS[pieceIndex][square] = mix(state);
+            }
+        }
+        // every castling rights combination gets its own key, no rights hashes to zero
+        for (int rights = 1; rights < CASTLING_KEYS.length; rights++) {
+            state += 0x9E3779B97F4A7C15L;
+            CASTLING_KEYS[rights] = mix(state);
+        }
+        for (int file = 0; file < EN_PASSANT_KEYS.length; file++) {
+            state += 0x9E3779B97F4A7C15L;
+            EN_PASSANT_KEYS[file] = mix(state);
+        }
+        state += 0x9E3779B97F4A7C15L;
+        SIDE_KEY = mix(state);
+    }
+
+    private Zobrist() {
+        throw new RuntimeException("Cannot be initialized. Utilities only");
+    }
+
+    // splitmix64 finalizer
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+
+    public static long pieceKey(final int pieceIndex, final int square) {
+        return PIECE_KEYS[pieceIndex][square];
+    }
+
+    public static long pieceKey(final Piece piece) {
+        return PIECE_KEYS[pieceIndex(piece)][piece.getPiecePosition()];
+    }
+
+    public static long castlingKey(final int castlingRights) {
+        return CASTLING_KEYS[castlingRights];
+    }
+
+    public static long enPassantKey(final int enPassantSquare) {
+        return enPassantSquare == NO_SQUARE ? 0L :
+                EN_PASSANT_KEYS[enPassantSquare % Utilities.NUM_SQUARES_PER_ROW];
+    }
+
+    // only black to move is hashed
+    public static long sideKey(final int sideToMove) {
+        return sideToMove == BLACK ? SIDE_KEY : 0L;
+    }
+
+    // key of the side to move, castling rights and en passant file
+    public static long stateKey(final int sideToMove, final int castlingRights, final int enPassantSquare) {
+        return sideKey(sideToMove) ^ castlingKey(castlingRights) ^ enPassantKey(enPassantSquare);
+    }
+
+    // key of the pieces only, recomputed from scratch
+    public static long computePieceKey(final BitBoard bitBoard) {
+        long key = 0L;
+        for (int pieceIndex = 0; pieceIndex < NUM_PIECES; pieceIndex++) {
+            long pieces = bitBoard.getPieces(pieceIndex);
+            while (pieces != 0) {
+                key ^= PIECE_KEYS[pieceIndex][Long.numberOfTrailingZeros(pieces)];
+                pieces &= pieces - 1;
+            }
+        }
+        return key;
+    }
+
+    public static long computeKey(final BitBoard bitBoard) {
+        return computePieceKey(bitBoard) ^ stateKey(bitBoard.getSideToMove(), bitBoard.getCastlingRights(),
+                bitBoard.getEnPassantSquare());
+    }
+}
@@ -0,0 +1,154 @@
+package com.chess.engine.book;
+
+import com.chess.engine.board.MoveEncoding;
+import com.chess.engine.board.MoveGenerator;
+import com.chess.engine.board.MoveList;
+import com.chess.engine.board.SearchBoard;
+import com.chess.engine.board.Utilities;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+// opening book in the polyglot format, read straight from a memory mapped file
+// every entry is 16 big endian bytes: the position key, the move, its weight and 4 bytes of learning data that are
+// not used, the entries are sorted by key so the moves of a position are found by binary search
+// the keys are the ones of the polyglot program, see PolyglotKeys, so books made by other tools can be used
+// the book is only read, any number of threads can probe it at once
+public final class OpeningBook implements Closeable {
+
+    static final int ENTRY_SIZE = 16;
+    private static final int MOVE_OFFSET = 8;
+    private static final int WEIGHT_OFFSET = 10;
+
+    // every probing thread reuses its own list for the legal moves
+    private static final ThreadLocal<MoveList> MOVE_LIST = ThreadLocal.withInitial(MoveList::new);
+
+    private final FileChannel channel;
+    private final MappedByteBuffer entries;
+    private final int entryCount;
+
+    private OpeningBook(final FileChannel channel, final MappedByteBuffer entries) {
+        this.channel = channel;
+        this.entries = entries;
+        this.entryCount = entries.capacity() / ENTRY_SIZE;
+    }
+
+    public static OpeningBook open(final Path path) throws IOException {
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        final long size = channel.size();
+        if (size % ENTRY_SIZE != 0 || size > Integer.MAX_VALUE) {
+            channel.close();
+            throw new IOException("Not a polyglot book: " + path);
+        }
+        return new OpeningBook(channel, channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+    }
+
+    public int getEntryCount() {
+        return this.entryCount;
+    }
+
+    // one of the book moves of the position, picked with a chance in proportion to its weight
+    // MoveEncoding.NULL_MOVE when the position is not in the book
+    public int getMove(final SearchBoard board, final Random random) {
+        final long key = PolyglotKeys.polyglotKey(board);
+        final int first = firstEntry(key);
+        int totalWeight = 0;
+        int last = first;
+        while (last < this.entryCount && keyAt(last) == key) {
+            totalWeight += weightAt(last);
+            last++;
+        }
+        if (last == first) {
+            return MoveEncoding.NULL_MOVE;
+        }
+        int pick = totalWeight > 0 ? random.nextInt(totalWeight) : 0;
+        for (int i = first; i < last; i++) {
+            pick -= weightAt(i);
+            if (pick < 0 || i == last - 1) {
+                return toMove(board, moveAt(i));
+            }
+        }
+        return MoveEncoding.NULL_MOVE;
+    }
+
+    // the book move with the highest weight, the first one among equal weights
+    public int getBestMove(final SearchBoard board) {
+        final long key = PolyglotKeys.polyglotKey(board);
+        int best = -1;
+        for (int i = firstEntry(key); i < this.entryCount && keyAt(i) == key; i++) {
+            if (best < 0 || weightAt(i) > weightAt(best)) {
+                best = i;
+            }
+        }
+        return best < 0 ? MoveEncoding.NULL_MOVE : toMove(board, moveAt(best));
+    }
+
+    // index of the first entry with a key not below the given one, keys are compared unsigned like polyglot does
+    private int firstEntry(final long key) {
+        int low = 0;
+        int high = this.entryCount;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (Long.compareUnsigned(keyAt(middle), key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private long keyAt(final int index) {
+        return this.entries.getLong(index * ENTRY_SIZE);
+    }
+
+    private int moveAt(final int index) {
+        return this.entries.getShort(index * ENTRY_SIZE + MOVE_OFFSET) & 0xFFFF;
+    }
+
+    private int weightAt(final int index) {
+        return this.entries.getShort(index * ENTRY_SIZE + WEIGHT_OFFSET) & 0xFFFF;
+    }
+
+    // the legal move the book move stands for, a key collision can name a move that is not legal here
+    private static int toMove(final SearchBoard board, final int polyglotMove) {
+        final MoveList moves = MOVE_LIST.get();
+        final int moveCount = MoveGenerator.generateLegalMoves(board, moves);
+        for (int i = 0; i < moveCount; i++) {
+            if (toPolyglotMove(moves.get(i)) == polyglotMove) {
+                return moves.get(i);
+            }
+        }
+        return MoveEncoding.NULL_MOVE;
+    }
+
+    // bits 0-2 destination file, 3-5 destination rank, 6-8 origin file, 9-11 origin rank, 12-14 promotion piece
+    // ranks count from the first rank, castling is written as the king taking its own rook
+    // the polyglot promotion pieces knight to queen are numbered 1 to 4 like the BitBoard piece types
+    static int toPolyglotMove(final int move) {
+        final int from = MoveEncoding.getFrom(move);
+        int to = MoveEncoding.getTo(move);
+        if (MoveEncoding.isCastle(move)) {
+            to = to > from ? from + 3 : from - 4;
+        }
+        final int promotion = MoveEncoding.isPromotion(move) ? MoveEncoding.getPromotionType(move) : 0;
+        return polyglotSquare(to) | polyglotSquare(from) << 6 | promotion << 12;
+    }
+
+    static int polyglotSquare(final int square) {
+        final int file = square % Utilities.NUM_SQUARES_PER_ROW;
+        final int rank = Utilities.NUM_SQUARES_PER_ROW - 1 - square / Utilities.NUM_SQUARES_PER_ROW;
+        return file | rank << 3;
+    }
+
+    // the mapping itself is released by the garbage collector
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+}
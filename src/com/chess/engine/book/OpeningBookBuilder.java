@@ -0,0 +1,114 @@
+package com.chess.engine.book;
+
+import com.chess.engine.board.MoveEncoding;
+import com.chess.engine.board.MoveList;
+import com.chess.engine.board.SearchBoard;
+import com.chess.pgn.PgnGame;
+import com.chess.pgn.PgnUtilities;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// compiles the first moves of a collection of games into an OpeningBook file
+// a move is weighted 2 for every game its side won and 1 for every draw, moves only lost with stay out of the book
+// games are replayed from the standard starting position up to the first move that does not parse
+public final class OpeningBookBuilder {
+
+    public static final int DEFAULT_MAX_PLY = 16;
+
+    private static final int WIN_WEIGHT = 2;
+    private static final int DRAW_WEIGHT = 1;
+    private static final int MAX_WEIGHT = 0xFFFF;
+
+    private final int maxPly;
+    // by position key, the weight of every polyglot move
+    private final Map<Long, Map<Integer, Integer>> positions;
+    private int gameCount;
+
+    public OpeningBookBuilder(final int maxPly) {
+        this.maxPly = maxPly;
+        this.positions = new HashMap<>();
+    }
+
+    public OpeningBookBuilder() {
+        this(DEFAULT_MAX_PLY);
+    }
+
+    public void addGames(final Path pgnFile) throws IOException {
+        // pgn files are latin-1 by the standard
+        try (final Reader reader = Files.newBufferedReader(pgnFile, StandardCharsets.ISO_8859_1)) {
+            PgnUtilities.readGames(reader, this::addGame);
+        }
+    }
+
+    public void addGame(final PgnGame game) {
+        final SearchBoard board = SearchBoard.createStandardBoard();
+        final MoveList moves = new MoveList();
+        final int plies = Math.min(this.maxPly, game.getMoves().size());
+        for (int ply = 0; ply < plies; ply++) {
+            final int move = PgnUtilities.parseMove(board, game.getMoves().get(ply), moves);
+            if (move == MoveEncoding.NULL_MOVE) {
+                break;
+            }
+            final int weight = weight(game.getResult(), ply % 2 == 0);
+            if (weight > 0) {
+                this.positions.computeIfAbsent(PolyglotKeys.polyglotKey(board), key -> new HashMap<>())
+                        .merge(OpeningBook.toPolyglotMove(move), weight, Integer::sum);
+            }
+            board.makeMove(move);
+        }
+        this.gameCount++;
+    }
+
+    private static int weight(final String result, final boolean isWhiteMove) {
+        switch (result) {
+            case PgnGame.WHITE_WINS:
+                return isWhiteMove ? WIN_WEIGHT : 0;
+            case PgnGame.BLACK_WINS:
+                return isWhiteMove ? 0 : WIN_WEIGHT;
+            default:
+                return DRAW_WEIGHT;
+        }
+    }
+
+    public int getGameCount() {
+        return this.gameCount;
+    }
+
+    public int getPositionCount() {
+        return this.positions.size();
+    }
+
+    // entries sorted by unsigned key and within a position by weight, heaviest first
+    public void write(final Path bookFile) throws IOException {
+        final List<Long> keys = new ArrayList<>(this.positions.keySet());
+        keys.sort(Long::compareUnsigned);
+        try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(bookFile)))) {
+            for (final Long key : keys) {
+                final Map<Integer, Integer> moves = this.positions.get(key);
+                final List<Map.Entry<Integer, Integer>> entries = new ArrayList<>(moves.entrySet());
+                entries.sort((first, second) -> Integer.compare(second.getValue(), first.getValue()));
+                // weights are 16 bits, popular positions are scaled down keeping every move at 1 or more
+                final int maxWeight = entries.get(0).getValue();
+                for (final Map.Entry<Integer, Integer> entry : entries) {
+                    final int weight = maxWeight <= MAX_WEIGHT ? entry.getValue() :
+                            Math.max(1, (int) ((long) entry.getValue() * MAX_WEIGHT / maxWeight));
+                    out.writeLong(key);
+                    out.writeShort(entry.getKey());
+                    out.writeShort(weight);
+                    out.writeInt(0);
+                }
+            }
+        }
+    }
+}
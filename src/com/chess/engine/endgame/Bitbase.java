@@ -0,0 +1,53 @@
+package com.chess.engine.endgame;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// the results of one endgame class, two bits per position by EndgameClass index, four positions to a byte with the
+// lowest index in the lowest bits, read straight from a memory mapped file
+final class Bitbase implements Closeable {
+
+    // the stored values are Tablebase.LOSS, DRAW and WIN, and this one for indexes that are not a legal position
+    static final int INVALID = 3;
+
+    private final EndgameClass endgameClass;
+    private final FileChannel channel;
+    private final MappedByteBuffer values;
+
+    private Bitbase(final EndgameClass endgameClass, final FileChannel channel, final MappedByteBuffer values) {
+        this.endgameClass = endgameClass;
+        this.channel = channel;
+        this.values = values;
+    }
+
+    static Bitbase open(final Path path, final EndgameClass endgameClass) throws IOException {
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        if (channel.size() != byteSize(endgameClass)) {
+            channel.close();
+            throw new IOException("Bitbase " + path + " does not have the size of " + endgameClass);
+        }
+        return new Bitbase(endgameClass, channel, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    }
+
+    static long byteSize(final EndgameClass endgameClass) {
+        return (endgameClass.getSize() + 3) / 4;
+    }
+
+    EndgameClass getEndgameClass() {
+        return this.endgameClass;
+    }
+
+    int get(final long index) {
+        return (this.values.get((int) (index >>> 2)) >>> ((index & 3) * 2)) & 3;
+    }
+
+    // the mapping itself is released by the garbage collector
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+}
@@ -0,0 +1,360 @@
+package com.chess.engine.endgame;
+
+import com.chess.engine.board.BitBoard;
+import com.chess.engine.board.LeaperAttacks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import static com.chess.engine.board.BitBoard.*;
+
+// builds bitbases by retrograde analysis
+// the first pass marks the illegal positions, the mates and the stalemates, then every pass settles each open
+// position whose result follows from its successors: a move to a lost position wins, and when every move goes to a
+// won position the position is lost, whatever is still open when a pass changes nothing is a draw
+// captures and promotions leave the class, their results come from the bitbases generated before, so the classes
+// are generated in the order of their piece and pawn counts
+// every pass runs over ranges of the index on a fork-join pool, positions only ever go from open to settled, so a
+// task reading a position another task is settling at the same time at worst settles its own one pass later
+// en passant captures are not generated
+public final class BitbaseGenerator {
+
+    public static final String[] DEFAULT_ENDGAMES = {"KPK", "KRK", "KQK", "KRKP"};
+
+    // positions a task settles before it splits no further
+    private static final int TASK_SIZE = 1 << 14;
+    private static final byte OPEN = 4;
+
+    private final Path directory;
+    private final ForkJoinPool pool;
+    private final Bitbases bitbases;
+
+    public BitbaseGenerator(final Path directory, final int threads) throws IOException {
+        this.directory = directory;
+        this.pool = new ForkJoinPool(Math.max(1, threads));
+        Files.createDirectories(directory);
+        this.bitbases = Bitbases.open(directory);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("usage: BitbaseGenerator <directory> [--threads n] [endgame ...]");
+            return;
+        }
+        int threads = Runtime.getRuntime().availableProcessors();
+        final List<String> endgames = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("--threads")) {
+                threads = Integer.parseInt(args[++i]);
+            } else {
+                endgames.add(args[i]);
+            }
+        }
+        if (endgames.isEmpty()) {
+            endgames.addAll(Arrays.asList(DEFAULT_ENDGAMES));
+        }
+        final BitbaseGenerator generator = new BitbaseGenerator(Paths.get(args[0]), threads);
+        try {
+            generator.generate(endgames);
+        } finally {
+            generator.shutdown();
+        }
+    }
+
+    public void shutdown() {
+        this.pool.shutdownNow();
+    }
+
+    // the bitbases of the directory after generating the given classes and every class they lead to that is not
+    // there yet
+    public Bitbases generate(final List<String> names) throws IOException {
+        final List<EndgameClass> missing = new ArrayList<>();
+        for (final String name : names) {
+            addMissing(EndgameClass.of(name), missing);
+        }
+        missing.sort(Comparator.comparingInt(EndgameClass::getPieceCount).thenComparingInt(EndgameClass::getPawnCount));
+        for (final EndgameClass endgameClass : missing) {
+            final Path file = this.directory.resolve(endgameClass.getName() + Bitbases.EXTENSION);
+            generate(endgameClass, file);
+            this.bitbases.add(Bitbase.open(file, endgameClass));
+        }
+        return this.bitbases;
+    }
+
+    private void addMissing(final EndgameClass endgameClass, final List<EndgameClass> missing) {
+        for (final EndgameClass other : missing) {
+            if (other.getName().equals(endgameClass.getName())) {
+                return;
+            }
+        }
+        if (this.bitbases.contains(endgameClass.getName())) {
+            return;
+        }
+        missing.add(endgameClass);
+        for (final String successor : endgameClass.getSuccessors()) {
+            addMissing(EndgameClass.of(successor), missing);
+        }
+    }
+
+    private void generate(final EndgameClass endgameClass, final Path file) throws IOException {
+        final long start = System.nanoTime();
+        final byte[] states = new byte[(int) endgameClass.getSize()];
+        Arrays.fill(states, OPEN);
+        int passes = 1;
+        this.pool.invoke(new PassTask(endgameClass, states, 0, states.length, true));
+        while (this.pool.invoke(new PassTask(endgameClass, states, 0, states.length, false)) > 0) {
+            passes++;
+        }
+
+        final long[] counts = new long[Bitbase.INVALID + 1];
+        final byte[] packed = new byte[(int) Bitbase.byteSize(endgameClass)];
+        for (int index = 0; index < states.length; index++) {
+            final int value = states[index] == OPEN ? Tablebase.DRAW : states[index];
+            counts[value]++;
+            packed[index >>> 2] |= value << ((index & 3) * 2);
+        }
+        Files.write(file, packed);
+        System.out.printf("%s: %,d positions, %,d won, %,d drawn, %,d lost, %d passes, %,d ms%n", endgameClass,
+                states.length - counts[Bitbase.INVALID], counts[Tablebase.WIN], counts[Tablebase.DRAW],
+                counts[Tablebase.LOSS], passes, (System.nanoTime() - start) / 1_000_000L);
+    }
+
+    // one pass over a range of the index, returns how many positions it settled
+    // serializable through ForkJoinTask but never serialized
+    @SuppressWarnings("serial")
+    private final class PassTask extends RecursiveTask<Long> {
+        private final EndgameClass endgameClass;
+        private final byte[] states;
+        private final int from;
+        private final int to;
+        private final boolean isFirstPass;
+
+        PassTask(final EndgameClass endgameClass, final byte[] states, final int from, final int to,
+                 final boolean isFirstPass) {
+            this.endgameClass = endgameClass;
+            this.states = states;
+            this.from = from;
+            this.to = to;
+            this.isFirstPass = isFirstPass;
+        }
+
+        @Override
+        protected Long compute() {
+            if (this.to - this.from > TASK_SIZE) {
+                final int middle = (this.from + this.to) >>> 1;
+                final PassTask left = new PassTask(this.endgameClass, this.states, this.from, middle,
+                        this.isFirstPass);
+                final PassTask right = new PassTask(this.endgameClass, this.states, middle, this.to,
+                        this.isFirstPass);
+                left.fork();
+                return right.compute() + left.join();
+            }
+            final Position position = new Position(this.endgameClass, this.states, bitbases);
+            long settled = 0;
+            for (int index = this.from; index < this.to; index++) {
+                if (this.states[index] != OPEN) {
+                    continue;
+                }
+                final int state = this.isFirstPass ? position.settleFirst(index) : position.settle(index);
+                if (state != OPEN) {
+                    this.states[index] = (byte) state;
+                    settled++;
+                }
+            }
+            return settled;
+        }
+    }
+
+    // one position of a class at a time, set up on bitboards to generate its moves
+    private static final class Position {
+        private final EndgameClass endgameClass;
+        private final byte[] states;
+        private final Bitbases bitbases;
+        private final int pieceCount;
+        private final int[] squares;
+        private final long[] pieceBitBoards;
+        // the successor of a capture or a promotion, to probe the other class with
+        private final int[] successorPieces;
+        private final int[] successorSquares;
+        private long occupancy;
+        private int sideToMove;
+
+        Position(final EndgameClass endgameClass, final byte[] states, final Bitbases bitbases) {
+            this.endgameClass = endgameClass;
+            this.states = states;
+            this.bitbases = bitbases;
+            this.pieceCount = endgameClass.getPieceCount();
+            this.squares = new int[this.pieceCount];
+            this.pieceBitBoards = new long[NUM_PIECES];
+            this.successorPieces = new int[this.pieceCount];
+            this.successorSquares = new int[this.pieceCount];
+        }
+
+        private void setUp(final int index) {
+            this.sideToMove = this.endgameClass.decode(index, this.squares);
+            Arrays.fill(this.pieceBitBoards, 0L);
+            this.occupancy = 0L;
+            for (int slot = 0; slot < this.pieceCount; slot++) {
+                this.pieceBitBoards[this.endgameClass.getPiece(slot)] |= 1L << this.squares[slot];
+                this.occupancy |= 1L << this.squares[slot];
+            }
+        }
+
+        int settleFirst(final int index) {
+            setUp(index);
+            if (Long.bitCount(this.occupancy) != this.pieceCount ||
+                    ((this.pieceBitBoards[PAWN] | this.pieceBitBoards[NUM_PIECE_TYPES + PAWN]) &
+                            (RANK_1 | RANK_8)) != 0 ||
+                    isAttacked(kingSquare(this.sideToMove ^ 1), this.sideToMove)) {
+                return Bitbase.INVALID;
+            }
+            return settleMoves();
+        }
+
+        int settle(final int index) {
+            setUp(index);
+            return settleMoves();
+        }
+
+        private int settleMoves() {
+            final int us = this.sideToMove;
+            final long own = ownPieces(us);
+            final long enemy = this.occupancy & ~own;
+            boolean hasMove = false;
+            boolean isEveryMoveLost = true;
+            for (int slot = 0; slot < this.pieceCount; slot++) {
+                final int piece = this.endgameClass.getPiece(slot);
+                if (piece / NUM_PIECE_TYPES != us) {
+                    continue;
+                }
+                final int from = this.squares[slot];
+                long destinations = destinations(piece, from, enemy) & ~own;
+                while (destinations != 0) {
+                    final int to = Long.numberOfTrailingZeros(destinations);
+                    destinations &= destinations - 1;
+                    final boolean isPromotion = piece % NUM_PIECE_TYPES == PAWN && ((1L << to) & (RANK_1 | RANK_8)) != 0;
+                    for (int promotion = isPromotion ? KNIGHT : PAWN; promotion <= (isPromotion ? QUEEN : PAWN);
+                         promotion++) {
+                        final int result = play(slot, to, isPromotion ? us * NUM_PIECE_TYPES + promotion : piece);
+                        if (result == Bitbase.INVALID) {
+                            continue;
+                        }
+                        hasMove = true;
+                        // the result is the opponent's
+                        if (result == Tablebase.LOSS) {
+                            return Tablebase.WIN;
+                        }
+                        if (result != Tablebase.WIN) {
+                            isEveryMoveLost = false;
+                        }
+                    }
+                }
+            }
+            if (!hasMove) {
+                return isAttacked(kingSquare(us), us ^ 1) ? Tablebase.LOSS : Tablebase.DRAW;
+            }
+            return isEveryMoveLost ? Tablebase.LOSS : OPEN;
+        }
+
+        // result of the position after the piece of the slot goes to the square as the given piece, for the side
+        // then to move, Bitbase.INVALID when the move leaves the own king in check and OPEN when not settled yet
+        private int play(final int slot, final int to, final int piece) {
+            final int moved = this.endgameClass.getPiece(slot);
+            final int from = this.squares[slot];
+            int captured = -1;
+            for (int other = 0; other < this.pieceCount; other++) {
+                if (other != slot && this.squares[other] == to) {
+                    captured = other;
+                }
+            }
+            final long saved = this.occupancy;
+            this.pieceBitBoards[moved] ^= 1L << from;
+            this.pieceBitBoards[piece] ^= 1L << to;
+            if (captured >= 0) {
+                this.pieceBitBoards[this.endgameClass.getPiece(captured)] ^= 1L << to;
+            }
+            this.occupancy = (this.occupancy & ~(1L << from)) | 1L << to;
+            final boolean isLegal = !isAttacked(kingSquare(this.sideToMove), this.sideToMove ^ 1);
+            if (captured >= 0) {
+                this.pieceBitBoards[this.endgameClass.getPiece(captured)] ^= 1L << to;
+            }
+            this.pieceBitBoards[piece] ^= 1L << to;
+            this.pieceBitBoards[moved] ^= 1L << from;
+            this.occupancy = saved;
+            if (!isLegal) {
+                return Bitbase.INVALID;
+            }
+
+            if (captured < 0 && piece == moved) {
+                this.squares[slot] = to;
+                final long index = this.endgameClass.index(this.squares, this.sideToMove ^ 1);
+                this.squares[slot] = from;
+                return this.states[(int) index];
+            }
+            int count = 0;
+            for (int other = 0; other < this.pieceCount; other++) {
+                if (other != captured) {
+                    this.successorPieces[count] = other == slot ? piece : this.endgameClass.getPiece(other);
+                    this.successorSquares[count++] = other == slot ? to : this.squares[other];
+                }
+            }
+            final int result = this.bitbases.probe(this.successorPieces, this.successorSquares, count,
+                    this.sideToMove ^ 1);
+            if (result == Tablebase.UNKNOWN) {
+                throw new IllegalStateException("No bitbase for a successor of " + this.endgameClass);
+            }
+            return result;
+        }
+
+        private long destinations(final int piece, final int from, final long enemy) {
+            switch (piece % NUM_PIECE_TYPES) {
+                case PAWN:
+                    final int color = piece / NUM_PIECE_TYPES;
+                    final int forward = color == WHITE ? -8 : 8;
+                    long pushes = 0L;
+                    if ((this.occupancy & 1L << (from + forward)) == 0) {
+                        pushes = 1L << (from + forward);
+                        final int startRow = color == WHITE ? 6 : 1;
+                        if (from / 8 == startRow && (this.occupancy & 1L << (from + 2 * forward)) == 0) {
+                            pushes |= 1L << (from + 2 * forward);
+                        }
+                    }
+                    return pushes | (LeaperAttacks.pawnAttacks(color, from) & enemy);
+                case KNIGHT:
+                    return LeaperAttacks.knightAttacks(from);
+                case BISHOP:
+                    return BitBoard.bishopAttacks(from, this.occupancy);
+                case ROOK:
+                    return BitBoard.rookAttacks(from, this.occupancy);
+                case QUEEN:
+                    return BitBoard.queenAttacks(from, this.occupancy);
+                default:
+                    return LeaperAttacks.kingAttacks(from);
+            }
+        }
+
+        private boolean isAttacked(final int square, final int byColor) {
+            return BitBoard.isSquareAttacked(this.pieceBitBoards, this.occupancy, square, byColor);
+        }
+
+        private int kingSquare(final int color) {
+            return Long.numberOfTrailingZeros(this.pieceBitBoards[color * NUM_PIECE_TYPES + KING]);
+        }
+
+        private long ownPieces(final int color) {
+            long pieces = 0L;
+            for (int pieceType = PAWN; pieceType <= KING; pieceType++) {
+                pieces |= this.pieceBitBoards[color * NUM_PIECE_TYPES + pieceType];
+            }
+            return pieces;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.chess.engine.endgame;
+
+import com.chess.engine.board.SearchBoard;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.chess.engine.board.BitBoard.*;
+
+// the bitbases of a directory, one file per endgame class named like KRKP.bb, made by BitbaseGenerator
+// positions are looked up by their material, a position where black has the stronger side is probed with the colours
+// swapped and the board turned around
+// positions with en passant or castling rights are not covered, the bitbases are generated without them
+// the files are only read, any number of threads can probe at once
+public final class Bitbases implements Tablebase, Closeable {
+
+    public static final String EXTENSION = ".bb";
+
+    // by the piece indexes of the at most two pieces besides the kings, the lower first, NONE for a missing one
+    private static final int NONE = NUM_PIECES;
+
+    private final Bitbase[][] tables;
+    private final boolean[][] isFlipped;
+    private final List<Bitbase> bitbases;
+    private int maxPieces;
+
+    // scratch arrays of the pieces of a probed board, piece indexes and squares
+    private static final ThreadLocal<int[][]> PIECES = ThreadLocal.withInitial(() ->
+            new int[][]{new int[EndgameClass.MAX_PIECES], new int[EndgameClass.MAX_PIECES]});
+
+    Bitbases() {
+        this.tables = new Bitbase[NUM_PIECES + 1][NUM_PIECES + 1];
+        this.isFlipped = new boolean[NUM_PIECES + 1][NUM_PIECES + 1];
+        this.bitbases = new ArrayList<>();
+        // a lone king or a king and a minor piece against a king are drawn without a file
+        this.maxPieces = 3;
+    }
+
+    // every file of the directory named after an endgame class
+    public static Bitbases open(final Path directory) throws IOException {
+        final Bitbases bitbases = new Bitbases();
+        try (final DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            for (final Path file : files) {
+                final String fileName = file.getFileName().toString();
+                final EndgameClass endgameClass;
+                try {
+                    endgameClass = EndgameClass.of(fileName.substring(0, fileName.length() - EXTENSION.length()));
+                } catch (final IllegalArgumentException e) {
+                    continue;
+                }
+                bitbases.add(Bitbase.open(file, endgameClass));
+            }
+        }
+        return bitbases;
+    }
+
+    void add(final Bitbase bitbase) {
+        final EndgameClass endgameClass = bitbase.getEndgameClass();
+        int low = NONE;
+        int high = NONE;
+        int flippedLow = NONE;
+        int flippedHigh = NONE;
+        for (int slot = 0; slot < endgameClass.getPieceCount(); slot++) {
+            final int piece = endgameClass.getPiece(slot);
+            if (piece % NUM_PIECE_TYPES == KING) {
+                continue;
+            }
+            final int flipped = (piece + NUM_PIECE_TYPES) % NUM_PIECES;
+            if (low == NONE) {
+                low = piece;
+                flippedLow = flipped;
+            } else {
+                high = piece;
+                flippedHigh = flipped;
+            }
+        }
+        // classes with the same material for both sides are found unflipped either way
+        register(Math.min(flippedLow, flippedHigh), Math.max(flippedLow, flippedHigh), bitbase, true);
+        register(Math.min(low, high), Math.max(low, high), bitbase, false);
+        this.bitbases.add(bitbase);
+        this.maxPieces = Math.max(this.maxPieces, endgameClass.getPieceCount());
+    }
+
+    private void register(final int low, final int high, final Bitbase bitbase, final boolean isFlipped) {
+        this.tables[low][high] = bitbase;
+        this.isFlipped[low][high] = isFlipped;
+    }
+
+    public List<String> getNames() {
+        final List<String> names = new ArrayList<>();
+        for (final Bitbase bitbase : this.bitbases) {
+            names.add(bitbase.getEndgameClass().getName());
+        }
+        return names;
+    }
+
+    boolean contains(final String name) {
+        return getNames().contains(name);
+    }
+
+    @Override
+    public int getMaxPieces() {
+        return this.maxPieces;
+    }
+
+    @Override
+    public int probe(final SearchBoard board) {
+        // the tables hold no en passant captures, a position after a double push is only left out when one is possible
+        if (Long.bitCount(board.getOccupancy()) > this.maxPieces || board.canCaptureEnPassant() ||
+                board.getCastlingRights() != NO_CASTLING) {
+            return UNKNOWN;
+        }
+        final int[][] pieces = PIECES.get();
+        int count = 0;
+        for (int pieceIndex = 0; pieceIndex < NUM_PIECES; pieceIndex++) {
+            long bitBoard = board.getPieces(pieceIndex / NUM_PIECE_TYPES, pieceIndex % NUM_PIECE_TYPES);
+            while (bitBoard != 0) {
+                pieces[0][count] = pieceIndex;
+                pieces[1][count++] = Long.numberOfTrailingZeros(bitBoard);
+                bitBoard &= bitBoard - 1;
+            }
+        }
+        return probe(pieces[0], pieces[1], count, board.getSideToMove());
+    }
+
+    // the pieces of a legal position given as piece indexes and squares, in any order
+    int probe(final int[] pieceIndexes, final int[] squares, final int count, final int sideToMove) {
+        int low = NONE;
+        int high = NONE;
+        for (int i = 0; i < count; i++) {
+            final int piece = pieceIndexes[i];
+            if (piece % NUM_PIECE_TYPES == KING) {
+                continue;
+            }
+            if (high != NONE) {
+                return UNKNOWN;
+            }
+            if (low == NONE) {
+                low = piece;
+            } else {
+                high = Math.max(low, piece);
+                low = Math.min(low, piece);
+            }
+        }
+        if (low == NONE || high == NONE && (low % NUM_PIECE_TYPES == KNIGHT || low % NUM_PIECE_TYPES == BISHOP)) {
+            return DRAW;
+        }
+        final Bitbase bitbase = this.tables[low][high];
+        if (bitbase == null) {
+            return UNKNOWN;
+        }
+        final boolean isFlipped = this.isFlipped[low][high];
+        final EndgameClass endgameClass = bitbase.getEndgameClass();
+
+        // the white king of the class comes first and decides how the board is mirrored
+        int used = 0;
+        long index = 0;
+        int transform = 0;
+        for (int slot = 0; slot < endgameClass.getPieceCount(); slot++) {
+            final int piece = isFlipped ? (endgameClass.getPiece(slot) + NUM_PIECE_TYPES) % NUM_PIECES :
+                    endgameClass.getPiece(slot);
+            int found = 0;
+            while (pieceIndexes[found] != piece || (used & 1 << found) != 0) {
+                found++;
+            }
+            used |= 1 << found;
+            final int square = isFlipped ? squares[found] ^ 56 : squares[found];
+            if (slot == 0) {
+                transform = endgameClass.canonicalTransform(square);
+                index = endgameClass.startIndex(EndgameClass.transform(square, transform));
+            } else {
+                index = EndgameClass.nextIndex(index, EndgameClass.transform(square, transform));
+            }
+        }
+        final int value = bitbase.get(EndgameClass.finishIndex(index, isFlipped ? sideToMove ^ 1 : sideToMove));
+        return value == Bitbase.INVALID ? UNKNOWN : value;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (final Bitbase bitbase : this.bitbases) {
+            bitbase.close();
+        }
+    }
+}
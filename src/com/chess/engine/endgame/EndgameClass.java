@@ -0,0 +1,356 @@
+package com.chess.engine.endgame;
+
+import com.chess.engine.board.BitBoard;
+import com.chess.engine.board.Utilities;
+import com.chess.engine.pieces.Piece;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.chess.engine.board.BitBoard.*;
+
+// the material of an ending, named by piece letters with the stronger side first and playing white, e.g. KRKP
+// a position of the class is indexed by the squares of its pieces in the order of the name and the side to move
+// the white king is moved onto a few squares by mirroring the board: without pawns into the a1-d1-d4 triangle,
+// with pawns onto the a to d files, the other pieces take any of the 64 squares
+// a position where black is the stronger side is looked up with the colours swapped and the board turned around
+public final class EndgameClass {
+
+    public static final int MAX_PIECES = 4;
+
+    // strongest first, the order pieces are named in
+    private static final int[] TYPE_ORDER = {QUEEN, ROOK, BISHOP, KNIGHT, PAWN};
+    private static final int NUM_TRANSFORMS = 8;
+    // by transform and square, bit 0 of the transform mirrors the files, bit 1 the ranks and bit 2 swaps files
+    // and ranks, the swap is applied first
+    private static final int[][] TRANSFORMS = new int[NUM_TRANSFORMS][Utilities.NUM_SQUARES];
+    // by white king square, the transform that brings it to a canonical square and the index of that square
+    private static final int[] PAWNLESS_TRANSFORMS = new int[Utilities.NUM_SQUARES];
+    private static final int[] PAWNLESS_KING_SLOTS = new int[Utilities.NUM_SQUARES];
+    private static final int PAWNLESS_KING_SQUARES = 10;
+    private static final int[] PAWN_TRANSFORMS = new int[Utilities.NUM_SQUARES];
+    private static final int[] PAWN_KING_SLOTS = new int[Utilities.NUM_SQUARES];
+    private static final int PAWN_KING_SQUARES = 32;
+
+    static {
+        for (int transform = 0; transform < NUM_TRANSFORMS; transform++) {
+            for (int square = 0; square < Utilities.NUM_SQUARES; square++) {
+                int file = file(square);
+                int rank = rank(square);
+                if ((transform & 4) != 0) {
+                    final int swap = file;
+                    file = rank;
+                    rank = swap;
+                }
+                if ((transform & 1) != 0) {
+                    file = 7 - file;
+                }
+                if ((transform & 2) != 0) {
+                    rank = 7 - rank;
+                }
+                TRANSFORMS[transform][square] = square(file, rank);
+            }
+        }
+        Arrays.fill(PAWNLESS_KING_SLOTS, -1);
+        Arrays.fill(PAWN_KING_SLOTS, -1);
+        int pawnlessSlot = 0;
+        int pawnSlot = 0;
+        for (int square = 0; square < Utilities.NUM_SQUARES; square++) {
+            if (file(square) <= 3 && rank(square) <= 3 && file(square) <= rank(square)) {
+                PAWNLESS_KING_SLOTS[square] = pawnlessSlot++;
+            }
+            if (file(square) <= 3) {
+                PAWN_KING_SLOTS[square] = pawnSlot++;
+            }
+        }
+        for (int square = 0; square < Utilities.NUM_SQUARES; square++) {
+            PAWNLESS_TRANSFORMS[square] = firstTransformInto(square, PAWNLESS_KING_SLOTS, NUM_TRANSFORMS);
+            // pawns only allow mirroring the files
+            PAWN_TRANSFORMS[square] = firstTransformInto(square, PAWN_KING_SLOTS, 2);
+        }
+    }
+
+    private final String name;
+    // piece indexes in the order of the name, the white king first
+    private final int[] pieces;
+    private final boolean hasPawns;
+    private final int[] canonicalTransforms;
+    private final int[] kingSlots;
+    private final int[] slotSquares;
+    private final long size;
+
+    private EndgameClass(final String name, final int[] pieces) {
+        this.name = name;
+        this.pieces = pieces;
+        boolean hasPawns = false;
+        for (final int piece : pieces) {
+            hasPawns |= piece % NUM_PIECE_TYPES == PAWN;
+        }
+        this.hasPawns = hasPawns;
+        this.canonicalTransforms = hasPawns ? PAWN_TRANSFORMS : PAWNLESS_TRANSFORMS;
+        this.kingSlots = hasPawns ? PAWN_KING_SLOTS : PAWNLESS_KING_SLOTS;
+        this.slotSquares = new int[hasPawns ? PAWN_KING_SQUARES : PAWNLESS_KING_SQUARES];
+        for (int square = 0; square < Utilities.NUM_SQUARES; square++) {
+            if (this.kingSlots[square] >= 0) {
+                this.slotSquares[this.kingSlots[square]] = square;
+            }
+        }
+        long size = this.slotSquares.length * 2L;
+        for (int i = 1; i < pieces.length; i++) {
+            size *= Utilities.NUM_SQUARES;
+        }
+        this.size = size;
+    }
+
+    // the name is made of the Piece.PieceType letters of both sides, each starting with its king
+    public static EndgameClass of(final String name) {
+        final int secondKing = name.indexOf('K', 1);
+        if (!name.startsWith("K") || secondKing < 0 || name.length() > MAX_PIECES) {
+            throw new IllegalArgumentException("Invalid endgame: " + name);
+        }
+        final int[] white = parseSide(name.substring(1, secondKing), name);
+        final int[] black = parseSide(name.substring(secondKing + 1), name);
+        if (!canonicalName(white, black).equals(name)) {
+            throw new IllegalArgumentException("Endgame not named stronger side first: " + name);
+        }
+        final int[] pieces = new int[name.length()];
+        int count = 0;
+        pieces[count++] = KING;
+        for (final int pieceType : white) {
+            pieces[count++] = pieceType;
+        }
+        pieces[count++] = NUM_PIECE_TYPES + KING;
+        for (final int pieceType : black) {
+            pieces[count++] = NUM_PIECE_TYPES + pieceType;
+        }
+        return new EndgameClass(name, pieces);
+    }
+
+    private static int[] parseSide(final String letters, final String name) {
+        final int[] pieceTypes = new int[letters.length()];
+        for (int i = 0; i < letters.length(); i++) {
+            pieceTypes[i] = NUM_PIECE_TYPES;
+            for (final Piece.PieceType pieceType : Piece.PieceType.values()) {
+                if (!pieceType.isKing() && pieceType.toString().charAt(0) == letters.charAt(i)) {
+                    pieceTypes[i] = BitBoard.pieceTypeIndex(pieceType);
+                }
+            }
+            if (pieceTypes[i] == NUM_PIECE_TYPES) {
+                throw new IllegalArgumentException("Invalid endgame: " + name);
+            }
+        }
+        return pieceTypes;
+    }
+
+    // name of the class of the given non-king piece types, whichever side they belong to
+    static String canonicalName(final int[] whiteTypes, final int[] blackTypes) {
+        final String white = sideName(whiteTypes);
+        final String black = sideName(blackTypes);
+        return isWhiteStronger(whiteTypes, blackTypes) ? white + black : black + white;
+    }
+
+    // more pieces is stronger, then the stronger pieces in TYPE_ORDER, equal material counts as white stronger
+    static boolean isWhiteStronger(final int[] whiteTypes, final int[] blackTypes) {
+        if (whiteTypes.length != blackTypes.length) {
+            return whiteTypes.length > blackTypes.length;
+        }
+        final int[] white = sorted(whiteTypes);
+        final int[] black = sorted(blackTypes);
+        for (int i = 0; i < white.length; i++) {
+            if (white[i] != black[i]) {
+                return white[i] < black[i];
+            }
+        }
+        return true;
+    }
+
+    private static String sideName(final int[] pieceTypes) {
+        final StringBuilder builder = new StringBuilder(Piece.PieceType.KING.toString());
+        for (final int order : sorted(pieceTypes)) {
+            builder.append(BitBoard.pieceType(TYPE_ORDER[order]));
+        }
+        return builder.toString();
+    }
+
+    // positions in TYPE_ORDER, strongest first
+    private static int[] sorted(final int[] pieceTypes) {
+        final int[] orders = new int[pieceTypes.length];
+        for (int i = 0; i < pieceTypes.length; i++) {
+            for (int order = 0; order < TYPE_ORDER.length; order++) {
+                if (TYPE_ORDER[order] == pieceTypes[i]) {
+                    orders[i] = order;
+                }
+            }
+        }
+        Arrays.sort(orders);
+        return orders;
+    }
+
+    // a king alone, or with a single minor piece against a king, cannot mate
+    static boolean isInsufficientMaterial(final int[] whiteTypes, final int[] blackTypes) {
+        final int pieces = whiteTypes.length + blackTypes.length;
+        if (pieces == 0) {
+            return true;
+        }
+        final int pieceType = whiteTypes.length > 0 ? whiteTypes[0] : blackTypes[0];
+        return pieces == 1 && (pieceType == KNIGHT || pieceType == BISHOP);
+    }
+
+    // the classes a position of this one can turn into by a capture or a promotion, not counting drawn material
+    List<String> getSuccessors() {
+        final List<String> successors = new ArrayList<>();
+        final int[] white = sideTypes(WHITE);
+        final int[] black = sideTypes(BLACK);
+        for (int color = WHITE; color <= BLACK; color++) {
+            final int[] own = color == WHITE ? white : black;
+            final int[] other = color == WHITE ? black : white;
+            for (int i = 0; i < own.length; i++) {
+                addSuccessor(successors, color, without(own, i), other);
+                if (own[i] == PAWN) {
+                    for (int promotion = KNIGHT; promotion <= QUEEN; promotion++) {
+                        final int[] promoted = own.clone();
+                        promoted[i] = promotion;
+                        addSuccessor(successors, color, promoted, other);
+                    }
+                }
+            }
+        }
+        return successors;
+    }
+
+    private static void addSuccessor(final List<String> successors, final int color, final int[] own,
+                                     final int[] other) {
+        final int[] white = color == WHITE ? own : other;
+        final int[] black = color == WHITE ? other : own;
+        final String name = canonicalName(white, black);
+        if (!isInsufficientMaterial(white, black) && !successors.contains(name)) {
+            successors.add(name);
+        }
+    }
+
+    private static int[] without(final int[] pieceTypes, final int index) {
+        final int[] rest = new int[pieceTypes.length - 1];
+        for (int i = 0, j = 0; i < pieceTypes.length; i++) {
+            if (i != index) {
+                rest[j++] = pieceTypes[i];
+            }
+        }
+        return rest;
+    }
+
+    // the non-king piece types of one side
+    int[] sideTypes(final int color) {
+        int count = 0;
+        for (final int piece : this.pieces) {
+            if (piece / NUM_PIECE_TYPES == color && piece % NUM_PIECE_TYPES != KING) {
+                count++;
+            }
+        }
+        final int[] pieceTypes = new int[count];
+        count = 0;
+        for (final int piece : this.pieces) {
+            if (piece / NUM_PIECE_TYPES == color && piece % NUM_PIECE_TYPES != KING) {
+                pieceTypes[count++] = piece % NUM_PIECE_TYPES;
+            }
+        }
+        return pieceTypes;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public long getSize() {
+        return this.size;
+    }
+
+    public int getPieceCount() {
+        return this.pieces.length;
+    }
+
+    int getPiece(final int slot) {
+        return this.pieces[slot];
+    }
+
+    int getPawnCount() {
+        int count = 0;
+        for (final int piece : this.pieces) {
+            if (piece % NUM_PIECE_TYPES == PAWN) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // the transform to apply to every square of a position with the white king on this square
+    int canonicalTransform(final int whiteKingSquare) {
+        return this.canonicalTransforms[whiteKingSquare];
+    }
+
+    static int transform(final int square, final int transform) {
+        return TRANSFORMS[transform][square];
+    }
+
+    // index of a position whose squares have already been transformed, starting with the white king's
+    long startIndex(final int canonicalKingSquare) {
+        return this.kingSlots[canonicalKingSquare];
+    }
+
+    static long nextIndex(final long index, final int square) {
+        return index * Utilities.NUM_SQUARES + square;
+    }
+
+    static long finishIndex(final long index, final int sideToMove) {
+        return index * 2 + sideToMove;
+    }
+
+    // squares in the order of the name, any white king square
+    long index(final int[] squares, final int sideToMove) {
+        final int transform = canonicalTransform(squares[0]);
+        long index = startIndex(transform(squares[0], transform));
+        for (int slot = 1; slot < this.pieces.length; slot++) {
+            index = nextIndex(index, transform(squares[slot], transform));
+        }
+        return finishIndex(index, sideToMove);
+    }
+
+    // fills in the squares of the position and returns its side to move
+    int decode(long index, final int[] squares) {
+        final int sideToMove = (int) (index & 1);
+        index >>>= 1;
+        for (int slot = this.pieces.length - 1; slot > 0; slot--) {
+            squares[slot] = (int) (index % Utilities.NUM_SQUARES);
+            index /= Utilities.NUM_SQUARES;
+        }
+        squares[0] = this.slotSquares[(int) index];
+        return sideToMove;
+    }
+
+    @Override
+    public String toString() {
+        return this.name;
+    }
+
+    private static int firstTransformInto(final int square, final int[] slots, final int transforms) {
+        for (int transform = 0; transform < transforms; transform++) {
+            if (slots[TRANSFORMS[transform][square]] >= 0) {
+                return transform;
+            }
+        }
+        throw new IllegalStateException("No canonical square for " + square);
+    }
+
+    // files a to h are 0 to 7, ranks 1 to 8 are 0 to 7, square 0 is a8
+    private static int file(final int square) {
+        return square % Utilities.NUM_SQUARES_PER_ROW;
+    }
+
+    private static int rank(final int square) {
+        return Utilities.NUM_SQUARES_PER_ROW - 1 - square / Utilities.NUM_SQUARES_PER_ROW;
+    }
+
+    private static int square(final int file, final int rank) {
+        return (Utilities.NUM_SQUARES_PER_ROW - 1 - rank) * Utilities.NUM_SQUARES_PER_ROW + file;
+    }
+}
@@ -0,0 +1,92 @@
+package com.chess.engine.endgame;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// a syzygy file mapped read-only, in chunks of a gigabyte since a buffer only takes int offsets
+// every chunk maps a few bytes of the next one too, so a value of up to eight bytes is always read from one chunk
+final class SyzygyFile implements Closeable {
+
+    private static final int CHUNK_BITS = 30;
+    private static final long CHUNK_MASK = (1L << CHUNK_BITS) - 1;
+    private static final int OVERLAP = Long.BYTES;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] chunks;
+    private final long size;
+
+    private SyzygyFile(final FileChannel channel, final MappedByteBuffer[] chunks, final long size) {
+        this.channel = channel;
+        this.chunks = chunks;
+        this.size = size;
+    }
+
+    static SyzygyFile open(final Path path) throws IOException {
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            final long size = channel.size();
+            final MappedByteBuffer[] chunks = new MappedByteBuffer[(int) Math.max(1, (size + CHUNK_MASK) >>> CHUNK_BITS)];
+            for (int i = 0; i < chunks.length; i++) {
+                final long start = (long) i << CHUNK_BITS;
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                        Math.min(size - start, (1L << CHUNK_BITS) + OVERLAP));
+                chunks[i].order(ByteOrder.LITTLE_ENDIAN);
+            }
+            return new SyzygyFile(channel, chunks, size);
+        } catch (final IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    long getSize() {
+        return this.size;
+    }
+
+    int readByte(final long offset) {
+        return this.chunks[(int) (offset >>> CHUNK_BITS)].get((int) (offset & CHUNK_MASK)) & 0xFF;
+    }
+
+    int readShort(final long offset) {
+        return this.chunks[(int) (offset >>> CHUNK_BITS)].getShort((int) (offset & CHUNK_MASK)) & 0xFFFF;
+    }
+
+    long readInt(final long offset) {
+        return this.chunks[(int) (offset >>> CHUNK_BITS)].getInt((int) (offset & CHUNK_MASK)) & 0xFFFFFFFFL;
+    }
+
+    // the compressed blocks are big endian, the last ones of a file can be read past its end and read as zeros
+    long readBigEndianInt(final long offset) {
+        if (offset + Integer.BYTES > this.size) {
+            return readPastEnd(offset, Integer.BYTES);
+        }
+        return Integer.reverseBytes(this.chunks[(int) (offset >>> CHUNK_BITS)].getInt((int) (offset & CHUNK_MASK))) &
+                0xFFFFFFFFL;
+    }
+
+    long readBigEndianLong(final long offset) {
+        if (offset + Long.BYTES > this.size) {
+            return readPastEnd(offset, Long.BYTES);
+        }
+        return Long.reverseBytes(this.chunks[(int) (offset >>> CHUNK_BITS)].getLong((int) (offset & CHUNK_MASK)));
+    }
+
+    private long readPastEnd(final long offset, final int length) {
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            value = value << 8 | (offset + i < this.size ? readByte(offset + i) : 0);
+        }
+        return value;
+    }
+
+    // the mappings themselves are released by the garbage collector once no probe holds them
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+}
@@ -0,0 +1,203 @@
+package com.chess.engine.endgame;
+
+// how the values of one part of a syzygy table are compressed, a table has one part per side to move and per file
+// of the leading pawn
+// the values are cut into blocks of canonical huffman codes, every symbol of the code stands for a pair of other
+// symbols or for a single value, so one symbol can expand into up to 256 values
+// the symbol tree is read into arrays when the file is mapped, the blocks are decoded straight from the mapping
+final class SyzygyPairs {
+
+    static final int SIDE_TO_MOVE = 1;
+    static final int MAPPED = 2;
+    static final int WIN_PLIES = 4;
+    static final int LOSS_PLIES = 8;
+    static final int WIDE = 16;
+    static final int SINGLE_VALUE = 128;
+
+    // a symbol without a right child stands for the value in its left one
+    private static final int LEAF = 0xFFF;
+
+    // the pieces in the order of the index, as syzygy piece codes, and the groups the index is made of
+    final int[] pieces;
+    final int[] groupLengths;
+    final long[] groupFactors;
+    // where the values of each result start in the dtz value map
+    final int[] mapIndexes;
+
+    int flags;
+    private int minSymbolLength;
+    private long blockSize;
+    private long span;
+    private long sparseIndex;
+    private long sparseIndexSize;
+    private long blockLengths;
+    private long blockLengthsSize;
+    private long numBlocks;
+    private long data;
+    private long[] bases;
+    private int[] lowestSymbols;
+    private int[] symbolLengths;
+    private int[] lefts;
+    private int[] rights;
+
+    SyzygyPairs() {
+        this.pieces = new int[SyzygyTable.MAX_PIECES];
+        this.groupLengths = new int[SyzygyTable.MAX_PIECES + 1];
+        this.groupFactors = new long[SyzygyTable.MAX_PIECES + 1];
+        this.mapIndexes = new int[4];
+    }
+
+    long getTableSize() {
+        int group = 0;
+        while (this.groupLengths[group] != 0) {
+            group++;
+        }
+        return this.groupFactors[group];
+    }
+
+    // reads the block sizes and the symbol tree, returns the offset after them
+    long readSizes(final SyzygyFile file, long offset) {
+        this.flags = file.readByte(offset++);
+        if ((this.flags & SINGLE_VALUE) != 0) {
+            // every position of this part has the same value, kept in place of the symbol length
+            this.minSymbolLength = file.readByte(offset++);
+            return offset;
+        }
+        this.blockSize = 1L << file.readByte(offset++);
+        this.span = 1L << file.readByte(offset++);
+        this.sparseIndexSize = (getTableSize() + this.span - 1) / this.span;
+        final int padding = file.readByte(offset++);
+        this.numBlocks = file.readInt(offset);
+        offset += Integer.BYTES;
+        this.blockLengthsSize = this.numBlocks + padding;
+        final int maxSymbolLength = file.readByte(offset++);
+        this.minSymbolLength = file.readByte(offset++);
+
+        // longer codes have lower values, bases[i] is the lowest code of length minSymbolLength + i padded to 64 bits
+        final int lengths = maxSymbolLength - this.minSymbolLength + 1;
+        this.lowestSymbols = new int[lengths];
+        for (int i = 0; i < lengths; i++) {
+            this.lowestSymbols[i] = file.readShort(offset + 2L * i);
+        }
+        this.bases = new long[lengths];
+        for (int i = lengths - 2; i >= 0; i--) {
+            this.bases[i] = (this.bases[i + 1] + this.lowestSymbols[i] - this.lowestSymbols[i + 1]) / 2;
+        }
+        for (int i = 0; i < lengths; i++) {
+            this.bases[i] <<= 64 - i - this.minSymbolLength;
+        }
+        offset += 2L * lengths;
+
+        final int symbols = file.readShort(offset);
+        offset += Short.BYTES;
+        this.lefts = new int[symbols];
+        this.rights = new int[symbols];
+        for (int symbol = 0; symbol < symbols; symbol++) {
+            final int low = file.readByte(offset + 3L * symbol);
+            final int middle = file.readByte(offset + 3L * symbol + 1);
+            final int high = file.readByte(offset + 3L * symbol + 2);
+            this.lefts[symbol] = (middle & 0xF) << 8 | low;
+            this.rights[symbol] = high << 4 | middle >>> 4;
+        }
+        this.symbolLengths = new int[symbols];
+        final boolean[] isVisited = new boolean[symbols];
+        for (int symbol = 0; symbol < symbols; symbol++) {
+            if (!isVisited[symbol]) {
+                this.symbolLengths[symbol] = symbolLength(symbol, isVisited);
+            }
+        }
+        return offset + 3L * symbols + (symbols & 1);
+    }
+
+    // the number of values a symbol expands into, minus one
+    private int symbolLength(final int symbol, final boolean[] isVisited) {
+        isVisited[symbol] = true;
+        final int right = this.rights[symbol];
+        if (right == LEAF) {
+            return 0;
+        }
+        final int left = this.lefts[symbol];
+        if (!isVisited[left]) {
+            this.symbolLengths[left] = symbolLength(left, isVisited);
+        }
+        if (!isVisited[right]) {
+            this.symbolLengths[right] = symbolLength(right, isVisited);
+        }
+        return (this.symbolLengths[left] + this.symbolLengths[right] + 1) & 0xFF;
+    }
+
+    long setSparseIndex(final long offset) {
+        this.sparseIndex = offset;
+        return offset + 6 * this.sparseIndexSize;
+    }
+
+    long setBlockLengths(final long offset) {
+        this.blockLengths = offset;
+        return offset + 2 * this.blockLengthsSize;
+    }
+
+    long setData(final long offset) {
+        this.data = offset;
+        return offset + this.numBlocks * this.blockSize;
+    }
+
+    // the value at an index of the table
+    int decompress(final SyzygyFile file, final long index) {
+        if ((this.flags & SINGLE_VALUE) != 0) {
+            return this.minSymbolLength;
+        }
+
+        // the sparse index gives the block and offset of every span-th value, counted from the middle of the span,
+        // the blocks around it are walked until the one holding the index
+        final long entry = this.sparseIndex + 6 * (index / this.span);
+        long block = file.readInt(entry);
+        int offset = file.readShort(entry + 4) + (int) (index % this.span - this.span / 2);
+        while (offset < 0) {
+            offset += file.readShort(this.blockLengths + 2 * --block) + 1;
+        }
+        int blockLength;
+        while (offset > (blockLength = file.readShort(this.blockLengths + 2 * block))) {
+            offset -= blockLength + 1;
+            block++;
+        }
+
+        // the symbols of the block are read one after the other until the one that expands over the offset
+        long pointer = this.data + block * this.blockSize;
+        long buffer = file.readBigEndianLong(pointer);
+        pointer += Long.BYTES;
+        int bufferSize = 64;
+        int symbol;
+        while (true) {
+            int length = 0;
+            while (Long.compareUnsigned(buffer, this.bases[length]) < 0) {
+                length++;
+            }
+            symbol = (int) ((buffer - this.bases[length]) >>> (64 - length - this.minSymbolLength));
+            symbol = (symbol + this.lowestSymbols[length]) & 0xFFFF;
+            if (offset < this.symbolLengths[symbol] + 1) {
+                break;
+            }
+            offset -= this.symbolLengths[symbol] + 1;
+            length += this.minSymbolLength;
+            buffer <<= length;
+            bufferSize -= length;
+            if (bufferSize <= 32) {
+                bufferSize += 32;
+                buffer |= file.readBigEndianInt(pointer) << (64 - bufferSize);
+                pointer += Integer.BYTES;
+            }
+        }
+
+        // then the pairs are expanded down to the value, the values of a pair are adjacent
+        while (this.symbolLengths[symbol] != 0) {
+            final int left = this.lefts[symbol];
+            if (offset < this.symbolLengths[left] + 1) {
+                symbol = left;
+            } else {
+                offset -= this.symbolLengths[left] + 1;
+                symbol = this.rights[symbol];
+            }
+        }
+        return this.lefts[symbol];
+    }
+}
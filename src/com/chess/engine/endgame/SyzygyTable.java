@@ -0,0 +1,576 @@
+package com.chess.engine.endgame;
+
+import com.chess.engine.board.SearchBoard;
+
+import java.io.IOException;
+
+import static com.chess.engine.board.BitBoard.*;
+
+// one syzygy endgame, like KRPvKR, with its wdl file and its dtz file if there is one
+// the files store the positions with the side of the first part of the name as white, positions of the other colour
+// are probed with the colours swapped and the board turned around
+// the index of a position is worked out on syzygy square numbers, a1 is 0 and h8 is 63, the engine's squares are
+// turned around to them with ^ 56
+final class SyzygyTable {
+
+    static final int MAX_PIECES = 7;
+
+    static final int WDL = 0;
+    static final int DTZ = 1;
+
+    // returned by probe when a dtz file only holds the other side to move
+    static final int OTHER_SIDE_TO_MOVE = Integer.MIN_VALUE;
+
+    private static final int[] WDL_MAGIC = {0x71, 0xE8, 0x23, 0x5D};
+    private static final int[] DTZ_MAGIC = {0xD7, 0x66, 0x0C, 0xA5};
+
+    // the dtz value map of each file is kept by result in this order, by SyzygyTablebases wdl + 2
+    private static final int[] WDL_TO_MAP = {1, 3, 0, 2, 0};
+
+    // a square below the a1-h8 diagonal to 0..27
+    private static final int[] MAP_B1H1H7 = new int[64];
+    // a square of the a1-d1-d4 triangle to 0..9, the diagonal squares last
+    private static final int[] MAP_A1D1D4 = new int[64];
+    // the 462 placements of two kings with the first in the a1-d1-d4 triangle
+    private static final int[][] MAP_KK = new int[10][64];
+    // the pawn squares a2-h7 to 0..47, higher toward the edges and the lower ranks
+    private static final int[] MAP_PAWNS = new int[64];
+    // [k][n] ways to choose k of n
+    private static final int[][] BINOMIAL = new int[MAX_PIECES - 1][64];
+    // [leading pawns][square of the first] start of its indexes, and [leading pawns][file] number of indexes
+    private static final int[][] LEAD_PAWN_INDEX = new int[MAX_PIECES - 1][64];
+    private static final int[][] LEAD_PAWNS_SIZE = new int[MAX_PIECES - 1][4];
+
+    static {
+        int code = 0;
+        for (int square = 0; square < 64; square++) {
+            if (offDiagonal(square) < 0) {
+                MAP_B1H1H7[square] = code++;
+            }
+        }
+
+        code = 0;
+        final int[] diagonal = new int[4];
+        int diagonalCount = 0;
+        for (int square = 0; square <= 27; square++) {
+            if (offDiagonal(square) < 0 && file(square) <= 3) {
+                MAP_A1D1D4[square] = code++;
+            } else if (offDiagonal(square) == 0 && file(square) <= 3) {
+                diagonal[diagonalCount++] = square;
+            }
+        }
+        for (int i = 0; i < diagonalCount; i++) {
+            MAP_A1D1D4[diagonal[i]] = code++;
+        }
+
+        // with the first king on the diagonal the second one is not above it, both on the diagonal come last
+        code = 0;
+        final int[][] bothOnDiagonal = new int[64][2];
+        int bothOnDiagonalCount = 0;
+        for (int index = 0; index < 10; index++) {
+            for (int first = 0; first <= 27; first++) {
+                if (MAP_A1D1D4[first] != index || index == 0 && first != 1) {
+                    continue;
+                }
+                for (int second = 0; second < 64; second++) {
+                    if (Math.max(Math.abs(file(first) - file(second)), Math.abs(rank(first) - rank(second))) <= 1) {
+                        continue;
+                    }
+                    if (offDiagonal(first) == 0 && offDiagonal(second) > 0) {
+                        continue;
+                    }
+                    if (offDiagonal(first) == 0 && offDiagonal(second) == 0) {
+                        bothOnDiagonal[bothOnDiagonalCount][0] = index;
+                        bothOnDiagonal[bothOnDiagonalCount++][1] = second;
+                    } else {
+                        MAP_KK[index][second] = code++;
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < bothOnDiagonalCount; i++) {
+            MAP_KK[bothOnDiagonal[i][0]][bothOnDiagonal[i][1]] = code++;
+        }
+
+        BINOMIAL[0][0] = 1;
+        for (int n = 1; n < 64; n++) {
+            for (int k = 0; k < BINOMIAL.length && k <= n; k++) {
+                BINOMIAL[k][n] = (k > 0 ? BINOMIAL[k - 1][n - 1] : 0) + (k < n ? BINOMIAL[k][n - 1] : 0);
+            }
+        }
+
+        int availableSquares = 47;
+        for (int leadPawns = 1; leadPawns < LEAD_PAWN_INDEX.length; leadPawns++) {
+            for (int file = 0; file < 4; file++) {
+                int index = 0;
+                for (int rank = 1; rank <= 6; rank++) {
+                    final int square = rank * 8 + file;
+                    if (leadPawns == 1) {
+                        MAP_PAWNS[square] = availableSquares--;
+                        MAP_PAWNS[square ^ 7] = availableSquares--;
+                    }
+                    LEAD_PAWN_INDEX[leadPawns][square] = index;
+                    index += BINOMIAL[leadPawns - 1][MAP_PAWNS[square]];
+                }
+                LEAD_PAWNS_SIZE[leadPawns][file] = index;
+            }
+        }
+    }
+
+    private final String name;
+    private final long key;
+    private final long otherKey;
+    private final int pieceCount;
+    private final boolean hasPawns;
+    private final boolean hasUniquePieces;
+    // pawns of the colour that does not lead, the leading one has fewer pawns if both have some
+    private final int otherPawnCount;
+
+    // null while the file is not mapped, read by probes without a lock
+    private volatile Mapping wdlMapping;
+    private volatile Mapping dtzMapping;
+    private final boolean[] isMissing;
+
+    // a name like KRPvKR
+    SyzygyTable(final String name) {
+        final int separator = name.indexOf('v');
+        if (separator < 1 || separator != name.lastIndexOf('v') || name.length() - 1 > MAX_PIECES) {
+            throw new IllegalArgumentException("Not a syzygy table: " + name);
+        }
+        final int[] counts = new int[NUM_PIECES];
+        for (int i = 0; i < name.length(); i++) {
+            if (i == separator) {
+                continue;
+            }
+            final int pieceType = "PNBRQK".indexOf(name.charAt(i));
+            if (pieceType < 0) {
+                throw new IllegalArgumentException("Not a syzygy table: " + name);
+            }
+            counts[(i < separator ? WHITE : BLACK) * NUM_PIECE_TYPES + pieceType]++;
+        }
+        if (counts[KING] != 1 || counts[NUM_PIECE_TYPES + KING] != 1) {
+            throw new IllegalArgumentException("Not a syzygy table: " + name);
+        }
+        this.name = name;
+        this.key = materialKey(counts, false);
+        this.otherKey = materialKey(counts, true);
+        this.pieceCount = name.length() - 1;
+        final int whitePawns = counts[PAWN];
+        final int blackPawns = counts[NUM_PIECE_TYPES + PAWN];
+        this.hasPawns = whitePawns + blackPawns > 0;
+        boolean hasUniquePieces = false;
+        for (int pieceIndex = 0; pieceIndex < NUM_PIECES; pieceIndex++) {
+            hasUniquePieces |= pieceIndex % NUM_PIECE_TYPES != KING && counts[pieceIndex] == 1;
+        }
+        this.hasUniquePieces = hasUniquePieces;
+        final boolean isWhiteLeading = blackPawns == 0 || whitePawns > 0 && blackPawns >= whitePawns;
+        this.otherPawnCount = isWhiteLeading ? blackPawns : whitePawns;
+        this.isMissing = new boolean[2];
+    }
+
+    // four bits per piece index for the count of that piece
+    static long materialKey(final SearchBoard board) {
+        long key = 0;
+        for (int pieceIndex = 0; pieceIndex < NUM_PIECES; pieceIndex++) {
+            key |= (long) Long.bitCount(board.getPieces(pieceIndex / NUM_PIECE_TYPES,
+                    pieceIndex % NUM_PIECE_TYPES)) << 4 * pieceIndex;
+        }
+        return key;
+    }
+
+    private static long materialKey(final int[] counts, final boolean isFlipped) {
+        long key = 0;
+        for (int pieceIndex = 0; pieceIndex < NUM_PIECES; pieceIndex++) {
+            final int flipped = isFlipped ? (pieceIndex + NUM_PIECE_TYPES) % NUM_PIECES : pieceIndex;
+            key |= (long) counts[pieceIndex] << 4 * flipped;
+        }
+        return key;
+    }
+
+    String getName() {
+        return this.name;
+    }
+
+    long getKey() {
+        return this.key;
+    }
+
+    long getOtherKey() {
+        return this.otherKey;
+    }
+
+    int getPieceCount() {
+        return this.pieceCount;
+    }
+
+    Mapping getMapping(final int type) {
+        return type == WDL ? this.wdlMapping : this.dtzMapping;
+    }
+
+    void setMapping(final int type, final Mapping mapping) {
+        if (type == WDL) {
+            this.wdlMapping = mapping;
+        } else {
+            this.dtzMapping = mapping;
+        }
+    }
+
+    boolean isMissing(final int type) {
+        return this.isMissing[type];
+    }
+
+    void setMissing(final int type) {
+        this.isMissing[type] = true;
+    }
+
+    // the value stored for a board with this material, the result for wdl or the distance to zeroing for dtz,
+    // wdl is the result of the position, which a dtz value is relative to
+    int probe(final Mapping mapping, final SearchBoard board, final long boardKey, final int wdl, final int[] squares,
+              final int[] pieces) {
+        // the files hold white as the side of the first part of the name, and a table with the same pieces on both
+        // sides only has white to move
+        final boolean isFlipped = boardKey != this.key || this.key == this.otherKey && board.getSideToMove() == BLACK;
+        // engine squares turn to syzygy squares with ^ 56, turned around as well they stay as they are
+        final int squareFlip = isFlipped ? 0 : 56;
+        final int colourFlip = isFlipped ? 8 : 0;
+        final int sideToMove = (isFlipped ? 1 : 0) ^ board.getSideToMove();
+
+        int size = 0;
+        int leadPawns = 0;
+        long leadPawnBitBoard = 0;
+        int file = 0;
+        if (this.hasPawns) {
+            // the leading pawns come first in every part, the one furthest toward the edge and back decides the part
+            final int leadColour = (mapping.get(0, 0).pieces[0] ^ colourFlip) >>> 3;
+            leadPawnBitBoard = board.getPieces(leadColour, PAWN);
+            for (long bitBoard = leadPawnBitBoard; bitBoard != 0; bitBoard &= bitBoard - 1) {
+                squares[size++] = Long.numberOfTrailingZeros(bitBoard) ^ squareFlip;
+            }
+            leadPawns = size;
+            int lead = 0;
+            for (int i = 1; i < leadPawns; i++) {
+                if (MAP_PAWNS[squares[i]] > MAP_PAWNS[squares[lead]]) {
+                    lead = i;
+                }
+            }
+            swap(squares, 0, lead);
+            file = Math.min(file(squares[0]), 7 - file(squares[0]));
+        }
+
+        if (mapping.type == DTZ && (mapping.get(0, file).flags & SyzygyPairs.SIDE_TO_MOVE) != sideToMove &&
+                (this.key != this.otherKey || this.hasPawns)) {
+            return OTHER_SIDE_TO_MOVE;
+        }
+
+        for (long bitBoard = board.getOccupancy() ^ leadPawnBitBoard; bitBoard != 0; bitBoard &= bitBoard - 1) {
+            final int square = Long.numberOfTrailingZeros(bitBoard);
+            final int pieceIndex = board.getPieceIndexAt(square);
+            squares[size] = square ^ squareFlip;
+            pieces[size++] = ((pieceIndex / NUM_PIECE_TYPES) << 3 | (pieceIndex % NUM_PIECE_TYPES + 1)) ^ colourFlip;
+        }
+
+        // the pieces in the order of the part
+        final SyzygyPairs pairs = mapping.get(sideToMove, file);
+        for (int i = leadPawns; i < size - 1; i++) {
+            for (int j = i + 1; j < size; j++) {
+                if (pairs.pieces[i] == pieces[j]) {
+                    swap(pieces, i, j);
+                    swap(squares, i, j);
+                    break;
+                }
+            }
+        }
+
+        // the first piece goes to the a-d files
+        if (file(squares[0]) > 3) {
+            for (int i = 0; i < size; i++) {
+                squares[i] ^= 7;
+            }
+        }
+
+        long index;
+        if (this.hasPawns) {
+            index = LEAD_PAWN_INDEX[leadPawns][squares[0]];
+            for (int i = 2; i < leadPawns; i++) {
+                final int square = squares[i];
+                int j = i;
+                for (; j > 1 && MAP_PAWNS[squares[j - 1]] > MAP_PAWNS[square]; j--) {
+                    squares[j] = squares[j - 1];
+                }
+                squares[j] = square;
+            }
+            for (int i = 1; i < leadPawns; i++) {
+                index += BINOMIAL[i][MAP_PAWNS[squares[i]]];
+            }
+        } else {
+            index = encodePieces(pairs, squares, size);
+        }
+
+        // the other groups by their squares in ascending order, leaving out the squares of the groups before
+        index *= pairs.groupFactors[0];
+        int groupStart = pairs.groupLengths[0];
+        boolean isOtherPawns = this.hasPawns && this.otherPawnCount > 0;
+        for (int group = 1; pairs.groupLengths[group] != 0; group++) {
+            final int length = pairs.groupLengths[group];
+            sort(squares, groupStart, groupStart + length);
+            long groupIndex = 0;
+            for (int i = 0; i < length; i++) {
+                final int square = squares[groupStart + i];
+                int adjust = 0;
+                for (int j = 0; j < groupStart; j++) {
+                    if (square > squares[j]) {
+                        adjust++;
+                    }
+                }
+                groupIndex += BINOMIAL[i + 1][square - adjust - (isOtherPawns ? 8 : 0)];
+            }
+            isOtherPawns = false;
+            index += groupIndex * pairs.groupFactors[group];
+            groupStart += length;
+        }
+        return mapping.toValue(file, pairs.decompress(mapping.file, index), wdl);
+    }
+
+    // without pawns the first piece goes to the a1-d1-d4 triangle and the first of the leading group that is off
+    // the diagonal below it, then the leading group is indexed together
+    private long encodePieces(final SyzygyPairs pairs, final int[] squares, final int size) {
+        if (rank(squares[0]) > 3) {
+            for (int i = 0; i < size; i++) {
+                squares[i] ^= 56;
+            }
+        }
+        for (int i = 0; i < pairs.groupLengths[0]; i++) {
+            if (offDiagonal(squares[i]) == 0) {
+                continue;
+            }
+            if (offDiagonal(squares[i]) > 0) {
+                for (int j = i; j < size; j++) {
+                    squares[j] = (squares[j] >>> 3 | squares[j] << 3) & 63;
+                }
+            }
+            break;
+        }
+
+        if (!this.hasUniquePieces) {
+            return MAP_KK[MAP_A1D1D4[squares[0]]][squares[1]];
+        }
+        final int first = squares[0];
+        final int second = squares[1];
+        final int third = squares[2];
+        final int adjust1 = second > first ? 1 : 0;
+        final int adjust2 = (third > first ? 1 : 0) + (third > second ? 1 : 0);
+        if (offDiagonal(first) != 0) {
+            return ((long) MAP_A1D1D4[first] * 63 + (second - adjust1)) * 62 + third - adjust2;
+        }
+        if (offDiagonal(second) != 0) {
+            return (6 * 63 + rank(first) * 28 + MAP_B1H1H7[second]) * 62L + third - adjust2;
+        }
+        if (offDiagonal(third) != 0) {
+            return 6 * 63 * 62 + 4 * 28 * 62 + rank(first) * 7 * 28 + (rank(second) - adjust1) * 28 +
+                    MAP_B1H1H7[third];
+        }
+        return 6 * 63 * 62 + 4 * 28 * 62 + 4 * 7 * 28 + rank(first) * 7 * 6 + (rank(second) - adjust1) * 6 +
+                rank(third) - adjust2;
+    }
+
+    // maps a file and reads its header, the parts of the index and where the compressed values are
+    Mapping map(final int type, final SyzygyFile file) throws IOException {
+        final int[] magic = type == WDL ? WDL_MAGIC : DTZ_MAGIC;
+        if (file.getSize() < 5) {
+            throw new IOException(this.name + " is not a syzygy table");
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if (file.readByte(i) != magic[i]) {
+                throw new IOException(this.name + " is not a syzygy table");
+            }
+        }
+        final Mapping mapping = new Mapping(this, type, file);
+        long offset = magic.length + 1;
+        final int sides = type == WDL && this.key != this.otherKey ? 2 : 1;
+        final int files = this.hasPawns ? 4 : 1;
+        final boolean hasOtherPawns = this.hasPawns && this.otherPawnCount > 0;
+
+        for (int f = 0; f < files; f++) {
+            for (int side = 0; side < sides; side++) {
+                mapping.parts[side][f] = new SyzygyPairs();
+            }
+            // the order of the groups in the index, by side in the two halves of the bytes
+            final int first = file.readByte(offset);
+            final int second = hasOtherPawns ? file.readByte(offset + 1) : 0xFF;
+            final int[][] orders = {{first & 0xF, second & 0xF}, {first >>> 4, second >>> 4}};
+            offset += hasOtherPawns ? 2 : 1;
+            for (int k = 0; k < this.pieceCount; k++, offset++) {
+                final int pieces = file.readByte(offset);
+                for (int side = 0; side < sides; side++) {
+                    mapping.parts[side][f].pieces[k] = side == 0 ? pieces & 0xF : pieces >>> 4;
+                }
+            }
+            for (int side = 0; side < sides; side++) {
+                setGroups(mapping.parts[side][f], orders[side], f);
+            }
+        }
+        offset += offset & 1;
+
+        for (int f = 0; f < files; f++) {
+            for (int side = 0; side < sides; side++) {
+                offset = mapping.parts[side][f].readSizes(file, offset);
+            }
+        }
+        if (type == DTZ) {
+            offset = mapping.readValueMap(file, offset, files);
+        }
+        for (int f = 0; f < files; f++) {
+            for (int side = 0; side < sides; side++) {
+                offset = mapping.parts[side][f].setSparseIndex(offset);
+            }
+        }
+        for (int f = 0; f < files; f++) {
+            for (int side = 0; side < sides; side++) {
+                offset = mapping.parts[side][f].setBlockLengths(offset);
+            }
+        }
+        for (int f = 0; f < files; f++) {
+            for (int side = 0; side < sides; side++) {
+                offset = (offset + 0x3F) & ~0x3FL;
+                offset = mapping.parts[side][f].setData(offset);
+            }
+        }
+        if (offset > file.getSize()) {
+            throw new IOException(this.name + " is shorter than its header says");
+        }
+        return mapping;
+    }
+
+    // the pieces of a part form groups, the leading pawns or the leading pieces and then every run of the same
+    // piece, the index is a mixed radix number over the groups in the order the file gives
+    private void setGroups(final SyzygyPairs pairs, final int[] order, final int file) {
+        int group = 0;
+        int firstLength = this.hasPawns ? 0 : this.hasUniquePieces ? 3 : 2;
+        pairs.groupLengths[0] = 1;
+        for (int i = 1; i < this.pieceCount; i++) {
+            if (--firstLength > 0 || pairs.pieces[i] == pairs.pieces[i - 1]) {
+                pairs.groupLengths[group]++;
+            } else {
+                pairs.groupLengths[++group] = 1;
+            }
+        }
+        pairs.groupLengths[++group] = 0;
+
+        final boolean hasOtherPawns = this.hasPawns && this.otherPawnCount > 0;
+        int next = hasOtherPawns ? 2 : 1;
+        int freeSquares = 64 - pairs.groupLengths[0] - (hasOtherPawns ? pairs.groupLengths[1] : 0);
+        long factor = 1;
+        for (int k = 0; next < group || k == order[0] || k == order[1]; k++) {
+            if (k == order[0]) {
+                pairs.groupFactors[0] = factor;
+                factor *= this.hasPawns ? LEAD_PAWNS_SIZE[pairs.groupLengths[0]][file] :
+                        this.hasUniquePieces ? 31332 : 462;
+            } else if (k == order[1]) {
+                pairs.groupFactors[1] = factor;
+                factor *= BINOMIAL[pairs.groupLengths[1]][48 - pairs.groupLengths[0]];
+            } else {
+                pairs.groupFactors[next] = factor;
+                factor *= BINOMIAL[pairs.groupLengths[next]][freeSquares];
+                freeSquares -= pairs.groupLengths[next++];
+            }
+        }
+        pairs.groupFactors[group] = factor;
+    }
+
+    private static int file(final int square) {
+        return square & 7;
+    }
+
+    private static int rank(final int square) {
+        return square >>> 3;
+    }
+
+    // above the a1-h8 diagonal positive, below it negative
+    private static int offDiagonal(final int square) {
+        return rank(square) - file(square);
+    }
+
+    private static void swap(final int[] values, final int first, final int second) {
+        final int value = values[first];
+        values[first] = values[second];
+        values[second] = value;
+    }
+
+    private static void sort(final int[] values, final int from, final int to) {
+        for (int i = from + 1; i < to; i++) {
+            final int value = values[i];
+            int j = i;
+            for (; j > from && values[j - 1] > value; j--) {
+                values[j] = values[j - 1];
+            }
+            values[j] = value;
+        }
+    }
+
+    // a mapped file of a table with its parts, by side to move and by file of the leading pawn
+    static final class Mapping {
+        final SyzygyTable table;
+        final int type;
+        final SyzygyFile file;
+        private final SyzygyPairs[][] parts;
+        private long valueMap;
+        // for the least recently used to be unmapped first, stamped without a lock as a lost stamp only reorders
+        long lastUse;
+
+        private Mapping(final SyzygyTable table, final int type, final SyzygyFile file) {
+            this.table = table;
+            this.type = type;
+            this.file = file;
+            this.parts = new SyzygyPairs[2][table.hasPawns ? 4 : 1];
+        }
+
+        SyzygyPairs get(final int sideToMove, final int file) {
+            return this.parts[this.type == WDL ? sideToMove : 0][file];
+        }
+
+        // dtz values are stored by how often they occur, the map gives them back for each result
+        private long readValueMap(final SyzygyFile file, long offset, final int files) {
+            this.valueMap = offset;
+            for (int f = 0; f < files; f++) {
+                final SyzygyPairs pairs = get(0, f);
+                if ((pairs.flags & SyzygyPairs.MAPPED) == 0) {
+                    continue;
+                }
+                if ((pairs.flags & SyzygyPairs.WIDE) != 0) {
+                    offset += offset & 1;
+                    for (int i = 0; i < 4; i++) {
+                        pairs.mapIndexes[i] = (int) ((offset - this.valueMap) / 2 + 1);
+                        offset += 2L * file.readShort(offset) + 2;
+                    }
+                } else {
+                    for (int i = 0; i < 4; i++) {
+                        pairs.mapIndexes[i] = (int) (offset - this.valueMap + 1);
+                        offset += file.readByte(offset) + 1;
+                    }
+                }
+            }
+            return offset + (offset & 1);
+        }
+
+        // the result of a wdl value and the plies to zeroing of a dtz value
+        private int toValue(final int file, int value, final int wdl) {
+            if (this.type == WDL) {
+                return value - 2;
+            }
+            final SyzygyPairs pairs = get(0, file);
+            if ((pairs.flags & SyzygyPairs.MAPPED) != 0) {
+                final int start = pairs.mapIndexes[WDL_TO_MAP[wdl + 2]];
+                value = (pairs.flags & SyzygyPairs.WIDE) != 0 ?
+                        this.file.readShort(this.valueMap + 2L * (start + value)) :
+                        this.file.readByte(this.valueMap + start + value);
+            }
+            // stored in moves unless the flags say plies, the fifty move results always in moves
+            if (wdl == SyzygyTablebases.WDL_WIN && (pairs.flags & SyzygyPairs.WIN_PLIES) == 0 ||
+                    wdl == SyzygyTablebases.WDL_LOSS && (pairs.flags & SyzygyPairs.LOSS_PLIES) == 0 ||
+                    wdl == SyzygyTablebases.WDL_CURSED_WIN || wdl == SyzygyTablebases.WDL_BLESSED_LOSS) {
+                value *= 2;
+            }
+            return value + 1;
+        }
+    }
+}
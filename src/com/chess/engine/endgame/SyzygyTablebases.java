@@ -0,0 +1,472 @@
+package com.chess.engine.endgame;
+
+import com.chess.engine.board.MoveEncoding;
+import com.chess.engine.board.MoveGenerator;
+import com.chess.engine.board.MoveList;
+import com.chess.engine.board.SearchBoard;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.chess.engine.board.BitBoard.*;
+
+// the syzygy tables of a directory, wdl files named like KRPvKR.rtbw and dtz files like KRPvKR.rtbz
+// the tables are found by the names on opening and a file is only mapped when a probe first needs it, the mapped
+// files are capped at a number of bytes and the least recently used one is unmapped to make room
+// the files leave out the results of positions where a capture or, for dtz, a pawn move is best, so every probe
+// searches those moves first and only takes the stored value when none of them does better
+// positions with castling rights are not covered, any number of threads can probe at once
+public final class SyzygyTablebases implements Tablebase, Closeable {
+
+    public static final String WDL_EXTENSION = ".rtbw";
+    public static final String DTZ_EXTENSION = ".rtbz";
+
+    public static final long DEFAULT_MAX_MAPPED_BYTES = 1L << 32;
+
+    // results for the side to move, a cursed win is a win that the fifty move rule turns into a draw and a blessed
+    // loss the other way around
+    public static final int WDL_LOSS = -2;
+    public static final int WDL_BLESSED_LOSS = -1;
+    public static final int WDL_DRAW = 0;
+    public static final int WDL_CURSED_WIN = 1;
+    public static final int WDL_WIN = 2;
+
+    // returned by probeWdl and probeDtz for a position no table covers
+    public static final int PROBE_FAILED = Integer.MIN_VALUE;
+
+    private static final int OK = 0;
+    private static final int FAILED = 1;
+    // the best move is a capture or a pawn move, whose result the files do not store
+    private static final int ZEROING_BEST_MOVE = 2;
+
+    // root move ranks, by wdl + 2 when only the wdl files are there, and the rank of a win inside the fifty moves
+    private static final int[] WDL_TO_RANK = {-1000, -899, 0, 899, 1000};
+    private static final int SURE_WIN_RANK = 1000;
+
+    // captures followed from a probe, a table of seven pieces can chain five of them, with two plies for dtz
+    private static final int MAX_PROBE_DEPTH = 16;
+
+    private final Path directory;
+    private final long maxMappedBytes;
+    // open addressing by material key, the tables of both colours under both keys
+    private final long[] keys;
+    private final SyzygyTable[] tables;
+    private final List<SyzygyTable.Mapping> mappings;
+    private long mappedBytes;
+    private long clock;
+    private int maxPieces;
+
+    private static final ThreadLocal<Prober> PROBERS = ThreadLocal.withInitial(Prober::new);
+
+    private SyzygyTablebases(final Path directory, final long maxMappedBytes, final List<SyzygyTable> tables) {
+        this.directory = directory;
+        this.maxMappedBytes = maxMappedBytes;
+        final int capacity = Integer.highestOneBit(Math.max(16, tables.size() * 4)) * 2;
+        this.keys = new long[capacity];
+        this.tables = new SyzygyTable[capacity];
+        this.mappings = new ArrayList<>();
+        this.maxPieces = 2;
+        for (final SyzygyTable table : tables) {
+            insert(table.getKey(), table);
+            insert(table.getOtherKey(), table);
+            this.maxPieces = Math.max(this.maxPieces, table.getPieceCount());
+        }
+    }
+
+    public static SyzygyTablebases open(final Path directory) throws IOException {
+        return open(directory, DEFAULT_MAX_MAPPED_BYTES);
+    }
+
+    // every wdl file of the directory, none of them is mapped yet
+    public static SyzygyTablebases open(final Path directory, final long maxMappedBytes) throws IOException {
+        final List<SyzygyTable> tables = new ArrayList<>();
+        try (final DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + WDL_EXTENSION)) {
+            for (final Path file : files) {
+                final String fileName = file.getFileName().toString();
+                try {
+                    tables.add(new SyzygyTable(fileName.substring(0, fileName.length() - WDL_EXTENSION.length())));
+                } catch (final IllegalArgumentException e) {
+                    // not a table
+                }
+            }
+        }
+        return new SyzygyTablebases(directory, maxMappedBytes, tables);
+    }
+
+    private void insert(final long key, final SyzygyTable table) {
+        int slot = slot(key);
+        while (this.tables[slot] != null && this.keys[slot] != key) {
+            slot = (slot + 1) & (this.keys.length - 1);
+        }
+        this.keys[slot] = key;
+        this.tables[slot] = table;
+    }
+
+    private SyzygyTable find(final long key) {
+        for (int slot = slot(key); this.tables[slot] != null; slot = (slot + 1) & (this.keys.length - 1)) {
+            if (this.keys[slot] == key) {
+                return this.tables[slot];
+            }
+        }
+        return null;
+    }
+
+    private int slot(final long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 40) & (this.keys.length - 1);
+    }
+
+    public List<String> getNames() {
+        final List<String> names = new ArrayList<>();
+        for (final SyzygyTable table : this.tables) {
+            if (table != null && !names.contains(table.getName())) {
+                names.add(table.getName());
+            }
+        }
+        return names;
+    }
+
+    @Override
+    public int getMaxPieces() {
+        return this.maxPieces;
+    }
+
+    // a cursed win and a blessed loss are drawn, as the search counts the fifty moves too
+    @Override
+    public int probe(final SearchBoard board) {
+        final int wdl = probeWdl(board);
+        return wdl == PROBE_FAILED ? UNKNOWN : wdl == WDL_WIN ? WIN : wdl == WDL_LOSS ? LOSS : DRAW;
+    }
+
+    // WDL_LOSS to WDL_WIN for the side to move, or PROBE_FAILED
+    public int probeWdl(final SearchBoard board) {
+        if (!isCovered(board)) {
+            return PROBE_FAILED;
+        }
+        final Prober prober = PROBERS.get();
+        prober.state = OK;
+        final int wdl = search(board, false, 0, prober);
+        return prober.state == FAILED ? PROBE_FAILED : wdl;
+    }
+
+    // plies to the next capture or pawn move with best play, positive when the side to move wins, negative when it
+    // loses and 0 for a draw, beyond 100 for a cursed win or blessed loss, or PROBE_FAILED
+    public int probeDtz(final SearchBoard board) {
+        if (!isCovered(board)) {
+            return PROBE_FAILED;
+        }
+        final Prober prober = PROBERS.get();
+        final int dtz = probeDtz(board, 0, prober);
+        return prober.state == FAILED ? PROBE_FAILED : dtz;
+    }
+
+    // a position without a table of its own material is given up before any capture is searched
+    private boolean isCovered(final SearchBoard board) {
+        final int pieces = Long.bitCount(board.getOccupancy());
+        return pieces <= this.maxPieces && board.getCastlingRights() == NO_CASTLING &&
+                (pieces == 2 || find(SyzygyTable.materialKey(board)) != null);
+    }
+
+    // keeps the moves that lose nothing of the result, ranked by the distance to zeroing so a win is converted
+    // inside the fifty moves, or by the result alone when a dtz file is missing
+    @Override
+    public int filterRootMoves(final SearchBoard board, final MoveList moves) {
+        if (!isCovered(board)) {
+            return moves.size();
+        }
+        final Prober prober = PROBERS.get();
+        final int[] ranks = prober.ranks;
+        if (!rankByDtz(board, moves, ranks, prober) && !rankByWdl(board, moves, ranks, prober)) {
+            return moves.size();
+        }
+        int bestRank = Integer.MIN_VALUE;
+        for (int i = 0; i < moves.size(); i++) {
+            bestRank = Math.max(bestRank, ranks[i]);
+        }
+        int kept = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            if (ranks[i] == bestRank) {
+                moves.set(kept++, moves.get(i));
+            }
+        }
+        moves.truncate(kept);
+        return kept;
+    }
+
+    // wins that zero in time are all as good, and a loss is dragged out only when the fifty moves could save it
+    private boolean rankByDtz(final SearchBoard board, final MoveList moves, final int[] ranks, final Prober prober) {
+        final int halfMoveClock = board.getHalfMoveClock();
+        final boolean isRepetition = board.isRepetition();
+        for (int i = 0; i < moves.size(); i++) {
+            board.makeMove(moves.get(i));
+            int dtz;
+            if (board.getHalfMoveClock() == 0) {
+                prober.state = OK;
+                dtz = dtzBeforeZeroing(-search(board, false, 0, prober));
+            } else {
+                dtz = -probeDtz(board, 0, prober);
+                dtz += Integer.signum(dtz);
+            }
+            if (dtz == 2 && board.isInCheck() &&
+                    MoveGenerator.generateLegalMoves(board, prober.moves[0]) == 0) {
+                dtz = 1;
+            }
+            board.unmakeMove();
+            if (prober.state == FAILED) {
+                return false;
+            }
+            ranks[i] = dtz > 0 ? (dtz + halfMoveClock <= 99 && !isRepetition ?
+                    SURE_WIN_RANK : SURE_WIN_RANK - (dtz + halfMoveClock)) :
+                    dtz < 0 ? (-dtz * 2 + halfMoveClock < 100 ?
+                            -SURE_WIN_RANK : -SURE_WIN_RANK + (-dtz + halfMoveClock)) : 0;
+        }
+        return true;
+    }
+
+    private boolean rankByWdl(final SearchBoard board, final MoveList moves, final int[] ranks, final Prober prober) {
+        for (int i = 0; i < moves.size(); i++) {
+            board.makeMove(moves.get(i));
+            prober.state = OK;
+            final int wdl = -search(board, false, 0, prober);
+            board.unmakeMove();
+            if (prober.state == FAILED) {
+                return false;
+            }
+            ranks[i] = WDL_TO_RANK[wdl + 2];
+        }
+        return true;
+    }
+
+    // the best of the captures, and of the pawn moves too when zeroing moves are asked for, and the stored value
+    // the state tells whether one of those moves is best
+    private int search(final SearchBoard board, final boolean isZeroingChecked, final int depth, final Prober prober) {
+        final MoveList moves = prober.moves[depth];
+        final int moveCount = MoveGenerator.generateLegalMoves(board, moves);
+        int searched = 0;
+        int bestValue = WDL_LOSS;
+        for (int i = 0; i < moveCount; i++) {
+            final int move = moves.get(i);
+            if (!MoveEncoding.isCapture(move) &&
+                    (!isZeroingChecked || MoveEncoding.getMovedPieceType(move) != PAWN)) {
+                continue;
+            }
+            searched++;
+            board.makeMove(move);
+            final int value = -search(board, false, depth + 1, prober);
+            board.unmakeMove();
+            if (prober.state == FAILED) {
+                return WDL_DRAW;
+            }
+            if (value > bestValue) {
+                bestValue = value;
+                if (value >= WDL_WIN) {
+                    prober.state = ZEROING_BEST_MOVE;
+                    return value;
+                }
+            }
+        }
+
+        // with every move searched the stored value may be wrong, an en passant capture is not in the files
+        final boolean isEveryMoveSearched = searched > 0 && searched == moveCount;
+        final int value;
+        if (isEveryMoveSearched) {
+            value = bestValue;
+        } else {
+            value = probeTable(board, SyzygyTable.WDL, WDL_DRAW, prober);
+            if (prober.state == FAILED) {
+                return WDL_DRAW;
+            }
+        }
+        if (bestValue >= value) {
+            prober.state = bestValue > WDL_DRAW || isEveryMoveSearched ? ZEROING_BEST_MOVE : OK;
+            return bestValue;
+        }
+        prober.state = OK;
+        return value;
+    }
+
+    private int probeDtz(final SearchBoard board, final int depth, final Prober prober) {
+        prober.state = OK;
+        final int wdl = search(board, true, depth, prober);
+        if (prober.state == FAILED || wdl == WDL_DRAW) {
+            return 0;
+        }
+        if (prober.state == ZEROING_BEST_MOVE) {
+            return dtzBeforeZeroing(wdl);
+        }
+        int dtz = probeTable(board, SyzygyTable.DTZ, wdl, prober);
+        if (prober.state == FAILED) {
+            return 0;
+        }
+        if (dtz != SyzygyTable.OTHER_SIDE_TO_MOVE) {
+            return (dtz + (wdl == WDL_CURSED_WIN || wdl == WDL_BLESSED_LOSS ? 100 : 0)) * Integer.signum(wdl);
+        }
+
+        // the file holds the other side to move, the moves are probed one ply further for the shortest win
+        final MoveList moves = prober.moves[depth];
+        final int moveCount = MoveGenerator.generateLegalMoves(board, moves);
+        int minDtz = 0xFFFF;
+        for (int i = 0; i < moveCount; i++) {
+            final int move = moves.get(i);
+            final boolean isZeroing = MoveEncoding.isCapture(move) || MoveEncoding.getMovedPieceType(move) == PAWN;
+            board.makeMove(move);
+            if (isZeroing) {
+                prober.state = OK;
+                dtz = -dtzBeforeZeroing(search(board, false, depth + 1, prober));
+            } else {
+                dtz = -probeDtz(board, depth + 1, prober);
+            }
+            if (dtz == 1 && board.isInCheck() && MoveGenerator.generateLegalMoves(board, prober.moves[depth + 1]) == 0) {
+                minDtz = 1;
+            }
+            if (!isZeroing) {
+                dtz += Integer.signum(dtz);
+            }
+            if (dtz < minDtz && Integer.signum(dtz) == Integer.signum(wdl)) {
+                minDtz = dtz;
+            }
+            board.unmakeMove();
+            if (prober.state == FAILED) {
+                return 0;
+            }
+        }
+        return minDtz == 0xFFFF ? -1 : minDtz;
+    }
+
+    // the dtz of the ply before a zeroing move
+    private static int dtzBeforeZeroing(final int wdl) {
+        switch (wdl) {
+            case WDL_WIN:
+                return 1;
+            case WDL_CURSED_WIN:
+                return 101;
+            case WDL_BLESSED_LOSS:
+                return -101;
+            case WDL_LOSS:
+                return -1;
+            default:
+                return 0;
+        }
+    }
+
+    private int probeTable(final SearchBoard board, final int type, final int wdl, final Prober prober) {
+        if (Long.bitCount(board.getOccupancy()) == 2) {
+            return WDL_DRAW;
+        }
+        final long key = SyzygyTable.materialKey(board);
+        final SyzygyTable table = find(key);
+        final SyzygyTable.Mapping mapping = table == null ? null : map(table, type);
+        if (mapping == null) {
+            prober.state = FAILED;
+            return 0;
+        }
+        return table.probe(mapping, board, key, wdl, prober.squares, prober.pieces);
+    }
+
+    // the mapping of a table's file, mapped now if it is not, a file that is missing or cannot be read stays
+    // unmapped for good
+    private SyzygyTable.Mapping map(final SyzygyTable table, final int type) {
+        SyzygyTable.Mapping mapping = table.getMapping(type);
+        if (mapping == null) {
+            synchronized (this.mappings) {
+                mapping = table.getMapping(type);
+                if (mapping == null) {
+                    if (table.isMissing(type)) {
+                        return null;
+                    }
+                    mapping = mapFile(table, type);
+                    if (mapping == null) {
+                        table.setMissing(type);
+                        return null;
+                    }
+                }
+            }
+        }
+        mapping.lastUse = ++this.clock;
+        return mapping;
+    }
+
+    private SyzygyTable.Mapping mapFile(final SyzygyTable table, final int type) {
+        final Path path = this.directory.resolve(table.getName() + (type == SyzygyTable.WDL ? WDL_EXTENSION :
+                DTZ_EXTENSION));
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+        final SyzygyTable.Mapping mapping;
+        try {
+            final SyzygyFile file = SyzygyFile.open(path);
+            try {
+                mapping = table.map(type, file);
+            } catch (final IOException | RuntimeException e) {
+                file.close();
+                return null;
+            }
+        } catch (final IOException e) {
+            return null;
+        }
+        // a probe still reading an unmapped file keeps its buffers alive until it is done
+        final long size = mapping.file.getSize();
+        while (!this.mappings.isEmpty() && this.mappedBytes + size > this.maxMappedBytes) {
+            SyzygyTable.Mapping leastUsed = this.mappings.get(0);
+            for (final SyzygyTable.Mapping candidate : this.mappings) {
+                if (candidate.lastUse < leastUsed.lastUse) {
+                    leastUsed = candidate;
+                }
+            }
+            unmap(leastUsed);
+        }
+        this.mappings.add(mapping);
+        this.mappedBytes += size;
+        table.setMapping(type, mapping);
+        return mapping;
+    }
+
+    private void unmap(final SyzygyTable.Mapping mapping) {
+        mapping.table.setMapping(mapping.type, null);
+        this.mappings.remove(mapping);
+        this.mappedBytes -= mapping.file.getSize();
+        try {
+            mapping.file.close();
+        } catch (final IOException e) {
+            // the channel is only read
+        }
+    }
+
+    public int getMappedFileCount() {
+        synchronized (this.mappings) {
+            return this.mappings.size();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this.mappings) {
+            while (!this.mappings.isEmpty()) {
+                unmap(this.mappings.get(this.mappings.size() - 1));
+            }
+        }
+    }
+
+    // scratch space of one thread's probes
+    private static final class Prober {
+        private final MoveList[] moves;
+        private final int[] squares;
+        private final int[] pieces;
+        private final int[] ranks;
+        private int state;
+
+        Prober() {
+            this.moves = new MoveList[MAX_PROBE_DEPTH];
+            for (int i = 0; i < this.moves.length; i++) {
+                this.moves[i] = new MoveList();
+            }
+            this.squares = new int[SyzygyTable.MAX_PIECES];
+            this.pieces = new int[SyzygyTable.MAX_PIECES];
+            this.ranks = new int[MoveGenerator.MAX_MOVES];
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.chess.engine.endgame;
+
+import com.chess.engine.board.MoveList;
+import com.chess.engine.board.SearchBoard;
+
+// exact results of positions with few pieces, for the side to move
+public interface Tablebase {
+
+    int UNKNOWN = -1;
+    int LOSS = 0;
+    int DRAW = 1;
+    int WIN = 2;
+
+    // positions with more pieces, kings included, are never covered
+    int getMaxPieces();
+
+    // WIN, DRAW or LOSS with best play from both sides, UNKNOWN when the position is not covered
+    int probe(SearchBoard board);
+
+    // leaves only the legal root moves that keep the best result and returns how many, a tablebase that cannot rank
+    // the moves leaves them all
+    default int filterRootMoves(final SearchBoard board, final MoveList moves) {
+        return moves.size();
+    }
+}
@@ -1,7 +1,9 @@
 package com.chess.engine.pieces;
 
 import com.chess.engine.Color;
+import com.chess.engine.board.BitBoard;
 import com.chess.engine.board.Board;
+import com.chess.engine.board.LeaperAttacks;
 import com.chess.engine.board.Move;
 import com.chess.engine.board.Utilities;
 import com.google.common.collect.ImmutableList;
@@ -13,8 +15,6 @@ import java.util.List;
 import static com.chess.engine.board.Move.*;
 
 public class Pawn extends Piece {
-    // 7 and 9 is due to the pawn capturing diagonally
-    private static final int[] POSSIBLE_LEGAL_MOVES_DIRECTION = {7, 8, 9, 16};
 
     public Pawn(final int piecePosition, final Color pieceColor) {
         super(PieceType.PAWN, piecePosition, pieceColor, true);
@@ -28,84 +28,43 @@ public class Pawn extends Piece {
     public Collection<Move> findLegalMove(final Board board) {
 
         final List<Move> legalMoves = new ArrayList<>();
-
-        for (final int possibleDestinationOffset : POSSIBLE_LEGAL_MOVES_DIRECTION) {
-            final int possibleDestinationPosition = this.piecePosition + (this.pieceColor.getDirection() *
-                    possibleDestinationOffset);
-
-            if (!Utilities.isValidSquarePosition(possibleDestinationPosition)) {
-                continue;
+        final int forward = this.pieceColor.getDirection() * Utilities.NUM_SQUARES_PER_ROW;
+
+        // one square forward, and two from the starting rank when both squares are free
+        final int pushDestination = this.piecePosition + forward;
+        if (Utilities.isValidSquarePosition(pushDestination) && !board.getSquare(pushDestination).isSquareFilled()) {
+            if (this.pieceColor.isPawnPromotionSquare(pushDestination)) {
+                addPromotions(legalMoves, new PawnMove(board, this, pushDestination));
+            } else {
+                legalMoves.add(new PawnMove(board, this, pushDestination));
             }
-
-            if (possibleDestinationOffset == 8 && !board.getSquare(possibleDestinationPosition).isSquareFilled()) {
-
-                if (this.pieceColor.isPawnPromotionSquare(possibleDestinationPosition)) {
-                    legalMoves.add(new PawnPromotion(new PawnMove(board, this, possibleDestinationPosition)));
-                } else {
-                    legalMoves.add(new PawnMove(board, this, possibleDestinationPosition));
-                }
-            } else if (possibleDestinationOffset == 16 && this.isFirstMove() &&
+            final int jumpDestination = pushDestination + forward;
+            if (this.isFirstMove() &&
                     ((Utilities.SEVENTH_RANK[this.piecePosition] && this.pieceColor.isBlack()) ||
-                    (Utilities.SECOND_RANK[this.piecePosition] && this.pieceColor.isWhite()))) {
-                // check to see move unobstructed
-                final int behindPossibleDestinationPosition = this.piecePosition +
-                        (this.pieceColor.getDirection() * 8);
-                if (!board.getSquare(behindPossibleDestinationPosition).isSquareFilled() &&
-                        !board.getSquare(possibleDestinationPosition).isSquareFilled()) {
-                    legalMoves.add(new PawnJump(board, this, possibleDestinationPosition));
-                }
-                // capturing diagonally with the edge cases
-            } else if (possibleDestinationOffset == 7 &&
-                    !((Utilities.EIGHT_COLUMN[this.piecePosition] && this.pieceColor.isWhite()) ||
-                            (Utilities.FIRST_COLUMN[this.piecePosition] && this.pieceColor.isBlack()))) {
-                if (board.getSquare(possibleDestinationPosition).isSquareFilled()) {
-                    final Piece pieceAtDestination = board.getSquare(possibleDestinationPosition).getPiece();
-                    if (this.pieceColor != pieceAtDestination.getPieceColor()) {
-                        if (this.pieceColor.isPawnPromotionSquare(possibleDestinationPosition)) {
-                            legalMoves.add(new PawnPromotion(new PawnCapturingMove(board, this,
-                                    possibleDestinationPosition,
-                                    pieceAtDestination)));
-                        } else {
-                            legalMoves.add(new PawnCapturingMove(board, this, possibleDestinationPosition,
-                                    pieceAtDestination));
-                        }
-                    }
-                } else if (board.getEnPassantPawn() != null) {
-                    if (board.getEnPassantPawn().getPiecePosition() == (this.piecePosition +
-                            (this.pieceColor.getOppositeDirection()))) {
-                        final Piece pieceAtDestination = board.getEnPassantPawn();
-                        if (this.pieceColor != pieceAtDestination.getPieceColor()) {
-                            legalMoves.add(new PawnEnPassant(board, this, possibleDestinationPosition,
-                                    pieceAtDestination));
-                        }
-                    }
-                }
+                    (Utilities.SECOND_RANK[this.piecePosition] && this.pieceColor.isWhite())) &&
+                    !board.getSquare(jumpDestination).isSquareFilled()) {
+                legalMoves.add(new PawnJump(board, this, jumpDestination));
+            }
+        }
 
-            } else if (possibleDestinationOffset == 9 &&
-                    !((Utilities.FIRST_COLUMN[this.piecePosition] && this.pieceColor.isBlack() ||
-                            (Utilities.EIGHT_COLUMN[this.piecePosition] && this.pieceColor.isWhite())))) {
-                if (board.getSquare(possibleDestinationPosition).isSquareFilled()) {
-                    final Piece pieceAtDestination = board.getSquare(possibleDestinationPosition).getPiece();
-                    if (this.pieceColor != pieceAtDestination.getPieceColor()) {
-                        if (this.pieceColor.isPawnPromotionSquare(possibleDestinationPosition)) {
-                            legalMoves.add(new PawnPromotion(new PawnCapturingMove(board, this,
-                                    possibleDestinationPosition,
-                                    pieceAtDestination)));
-                        } else {
-                            legalMoves.add(new PawnCapturingMove(board, this, possibleDestinationPosition,
-                                    pieceAtDestination));
-                        }
-                    }
-                } else if (board.getEnPassantPawn() != null) {
-                    if (board.getEnPassantPawn().getPiecePosition() == (this.piecePosition -
-                            (this.pieceColor.getOppositeDirection()))) {
-                        final Piece pieceAtDestination = board.getEnPassantPawn();
-                        if (this.pieceColor != pieceAtDestination.getPieceColor()) {
-                            legalMoves.add(new PawnEnPassant(board, this, possibleDestinationPosition,
-                                    pieceAtDestination));
-                        }
+        // capturing diagonally, the table leaves out the captures that would wrap around the edge
+        for (final int captureDestination : LeaperAttacks.pawnAttackDestinations(
+                BitBoard.colorIndex(this.pieceColor), this.piecePosition)) {
+            final Piece pieceAtDestination = board.getSquare(captureDestination).getPiece();
+            if (pieceAtDestination != null) {
+                if (this.pieceColor != pieceAtDestination.getPieceColor()) {
+                    if (this.pieceColor.isPawnPromotionSquare(captureDestination)) {
+                        addPromotions(legalMoves, new PawnCapturingMove(board, this, captureDestination,
+                                pieceAtDestination));
+                    } else {
+                        legalMoves.add(new PawnCapturingMove(board, this, captureDestination, pieceAtDestination));
                     }
                 }
+            } else if (board.getEnPassantPawn() != null &&
+                    board.getEnPassantPawn().getPiecePosition() == captureDestination - forward &&
+                    this.pieceColor != board.getEnPassantPawn().getPieceColor()) {
+                // the pawn that jumped stands beside this one, behind the square it passed over
+                legalMoves.add(new PawnEnPassant(board, this, captureDestination, board.getEnPassantPawn()));
             }
         }
 
@@ -123,6 +82,27 @@ public class Pawn extends Piece {
     }
 
     public Piece getPromotionPiece() {
-        return new Queen(this.piecePosition, this.pieceColor, false);
+        return getPromotionPiece(PieceType.QUEEN);
+    }
+
+    public Piece getPromotionPiece(final PieceType promotionType) {
+        switch (promotionType) {
+            case KNIGHT:
+                return new Knight(this.piecePosition, this.pieceColor, false);
+            case BISHOP:
+                return new Bishop(this.piecePosition, this.pieceColor, false);
+            case ROOK:
+                return new Rook(this.piecePosition, this.pieceColor, false);
+            default:
+                return new Queen(this.piecePosition, this.pieceColor, false);
+        }
+    }
+
+    // the queen comes first, so picking a promotion by its squares alone gives a queen
+    private static void addPromotions(final List<Move> legalMoves, final Move pawnMove) {
+        legalMoves.add(new PawnPromotion(pawnMove, PieceType.QUEEN));
+        legalMoves.add(new PawnPromotion(pawnMove, PieceType.KNIGHT));
+        legalMoves.add(new PawnPromotion(pawnMove, PieceType.ROOK));
+        legalMoves.add(new PawnPromotion(pawnMove, PieceType.BISHOP));
     }
 }
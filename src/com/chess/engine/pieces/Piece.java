@@ -1,8 +1,10 @@
 package com.chess.engine.pieces;
 
 import com.chess.engine.Color;
+import com.chess.engine.board.BitBoard;
 import com.chess.engine.board.Board;
 import com.chess.engine.board.Move;
+import com.google.common.collect.ImmutableList;
 
 import java.util.Collection;
 
@@ -54,6 +56,23 @@ public abstract class Piece {
         return this.cachedHashCode;
     }
 
+    // quiet and capturing moves to every square of the attack mask that is not taken by an own piece
+    Collection<Move> createMoves(final Board board, final long attacks) {
+        long destinations = attacks & ~board.getBitBoard().getOccupancy(BitBoard.colorIndex(this.pieceColor));
+        final ImmutableList.Builder<Move> moves = ImmutableList.builder();
+        while (destinations != 0) {
+            final int destination = Long.numberOfTrailingZeros(destinations);
+            final Piece pieceAtDestination = board.getSquare(destination).getPiece();
+            if (pieceAtDestination == null) {
+                moves.add(new Move.BigMove(board, this, destination));
+            } else {
+                moves.add(new Move.MajorCapturingMove(board, this, destination, pieceAtDestination));
+            }
+            destinations &= destinations - 1;
+        }
+        return moves.build();
+    }
+
     public int getPiecePosition() {
         return this.piecePosition;
     }
@@ -1,22 +1,14 @@
 package com.chess.engine.pieces;
 
 import com.chess.engine.Color;
+import com.chess.engine.board.BitBoard;
 import com.chess.engine.board.Board;
 import com.chess.engine.board.Move;
-import com.chess.engine.board.Square;
-import com.chess.engine.board.Utilities;
-import com.google.common.collect.ImmutableList;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
-
-import static com.chess.engine.board.Move.*;
 
 public class Rook extends Piece {
 
-    private static final int[] POSSIBLE_LEGAL_MOVES = {-8, -1, 1, 8};
-
     public Rook(final int piecePosition, final Color pieceColor) {
         super(PieceType.ROOK, piecePosition, pieceColor, true);
     }
@@ -27,49 +19,13 @@ public class Rook extends Piece {
 
     @Override
     public Collection<Move> findLegalMove(final Board board) {
-
-        int possibleDestinationPosition;
-        final List<Move> legalMoves = new ArrayList<>();
-
-        for (final int possibleDestinationOffset : POSSIBLE_LEGAL_MOVES) {
-            possibleDestinationPosition = this.piecePosition;
-
-            // same looping as with the bishop but with different offsets
-            while (Utilities.isValidSquarePosition(possibleDestinationPosition)) {
-                // break the loop if algorithm breaks
-                if (firstColumn(possibleDestinationPosition, possibleDestinationOffset) ||
-                    eightColumn(possibleDestinationPosition, possibleDestinationOffset)) {
-                    break;
-                }
-
-                possibleDestinationPosition += possibleDestinationOffset;
-
-                if (Utilities.isValidSquarePosition(possibleDestinationPosition)) {
-                    final Square possibleDestinationSquare = board.getSquare(possibleDestinationPosition);
-
-                    // if the destination square is not occupied by an enemy piece
-                    if (!possibleDestinationSquare.isSquareFilled()) {
-                        legalMoves.add(new BigMove(board, this, possibleDestinationPosition));
-                    } else {
-                        final Piece pieceAtDestination = possibleDestinationSquare.getPiece();
-                        final Color pieceColor = pieceAtDestination.getPieceColor();
-
-                        // checking if the piece is capturing an enemy piece
-                        if (this.pieceColor != pieceColor) {
-                            legalMoves.add(new MajorCapturingMove(board, this, possibleDestinationPosition,
-                                    pieceAtDestination));
-                        }
-                        break;
-                    }
-                }
-            }
-        }
-        return ImmutableList.copyOf(legalMoves);
+        // one table lookup on the occupancy instead of walking the rays square by square
+        return createMoves(board, BitBoard.rookAttacks(this.piecePosition, board.getBitBoard().getOccupancy()));
     }
 
     @Override
     public Rook movePiece(Move move) {
-        return new Rook(move.getDestinationPosition(), move.getMovedPiece().getPieceColor());
+        return new Rook(move.getDestinationPosition(), move.getMovedPiece().getPieceColor(), false);
     }
 
 
@@ -77,13 +33,4 @@ public class Rook extends Piece {
     public String toString() {
         return pieceType.toString();
     }
-
-    // check where the algorithm breaks
-    private static boolean firstColumn(final int currentPosition, final int possibleOffset) {
-        return Utilities.FIRST_COLUMN[currentPosition] && (possibleOffset == -1);
-    }
-
-    private static boolean eightColumn(final int currentPosition, final int possibleOffset) {
-        return Utilities.EIGHT_COLUMN[currentPosition] && (possibleOffset == 1);
-    }
 }
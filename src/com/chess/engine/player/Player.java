@@ -1,44 +1,32 @@
 package com.chess.engine.player;
 
 import com.chess.engine.Color;
+import com.chess.engine.board.BitBoard;
 import com.chess.engine.board.Board;
 import com.chess.engine.board.Move;
+import com.chess.engine.board.MoveGenerator;
+import com.chess.engine.board.MoveList;
 import com.chess.engine.pieces.King;
 import com.chess.engine.pieces.Piece;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Iterables;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
 
 public abstract class Player {
+    // scratch list for the generator, the moves are copied out before it is used again
+    private static final ThreadLocal<MoveList> MOVE_LIST = ThreadLocal.withInitial(MoveList::new);
+
     protected final Board board;
     protected final King playerKing;
-    protected final Collection<Move> legalMoves;
     private final boolean inCheck;
+    private Collection<Move> legalMoves;
 
-    Player(final Board board,
-           final Collection<Move> legalMoves,
-           final Collection<Move> opposingMoves) {
+    Player(final Board board) {
         this.board = board;
         this.playerKing = establishKing();
-        this.legalMoves = ImmutableList.copyOf(Iterables.concat(legalMoves,
-                          calculateKingCastling(legalMoves, opposingMoves)));
-        // does the opponent move put the current player in check
-        // passing the kings position and the opposing moves
-        // if opposing move overlaps with the current player's king position, king isCheck
-        this.inCheck = !Player.findAttackOnSquare(this.playerKing.getPiecePosition(), opposingMoves).isEmpty();
-    }
-
-    protected static Collection<Move> findAttackOnSquare(int piecePosition, Collection<Move> moves) {
-        final List<Move> attackMove = new ArrayList<>();
-        for (final Move move : moves) {
-            if (piecePosition == move.getDestinationPosition()) {
-                attackMove.add(move);
-            }
-        }
-        return ImmutableList.copyOf(attackMove);
+        // is the king attacked by the opponent, answered from the bitboards without the opponent moves
+        this.inCheck = board.getBitBoard().isSquareAttacked(this.playerKing.getPiecePosition(),
+                BitBoard.colorIndex(getColor()) ^ 1);
     }
 
     private King establishKing() {
@@ -60,14 +48,9 @@ public abstract class Player {
         return this.inCheck && !hasSafeMoves();
     }
 
+    // the legal moves never leave the king attacked, so no move has to be tried
     protected boolean hasSafeMoves() {
-        for (final Move move : this.legalMoves) {
-            final MoveTransition transition = makeMove(move);
-            if (transition.getMoveStatus().isDone()) {
-                return true;
-            }
-        }
-        return false;
+        return !getLegalMoves().isEmpty();
     }
 
     public boolean isStalemate() {
@@ -89,28 +72,38 @@ public abstract class Player {
 
     public MoveTransition makeMove(final Move move) {
         if (!isMoveLegal(move)) {
-            return new MoveTransition(this.board, move, MoveStatus.ILLEGAL_MOVE);
+            // a move the piece could make if it were not for its own king
+            final MoveStatus status = move.getMovedPiece() != null &&
+                    move.getMovedPiece().findLegalMove(this.board).contains(move) ?
+                    MoveStatus.LEAVES_PLAYER_IN_CHECK : MoveStatus.ILLEGAL_MOVE;
+            return new MoveTransition(this.board, move, status);
         }
-
-        final Board transitionBoard = move.execute();
-
-        final Collection<Move> kingAttack = Player.findAttackOnSquare(transitionBoard.currentPlayer().
-                getOpponent().getPlayerKing().getPiecePosition(), transitionBoard.currentPlayer().getLegalMoves());
-
-        if (!kingAttack.isEmpty()) {
-            return new MoveTransition(this.board, move, MoveStatus.LEAVES_PLAYER_IN_CHECK);
-        }
-        return new MoveTransition(transitionBoard, move, MoveStatus.DONE);
+        return new MoveTransition(move.execute(), move, MoveStatus.DONE);
     }
 
     private boolean isMoveLegal(Move move) {
-        return this.legalMoves.contains(move);
+        return getLegalMoves().contains(move);
     }
 
+    // generated the first time they are asked for, boards made during a search mostly never need them
     public Collection<Move> getLegalMoves() {
+        if (this.legalMoves == null) {
+            this.legalMoves = calculateLegalMoves();
+        }
         return this.legalMoves;
     }
 
+    // the generator works on encoded moves, they only become move objects here
+    private Collection<Move> calculateLegalMoves() {
+        final MoveList moveList = MOVE_LIST.get();
+        MoveGenerator.generateLegalMoves(this.board.getBitBoard(), BitBoard.colorIndex(getColor()), moveList);
+        final Move[] legalMoves = new Move[moveList.size()];
+        for (int i = 0; i < legalMoves.length; i++) {
+            legalMoves[i] = Move.MoveFactory.createMove(this.board, moveList.get(i));
+        }
+        return ImmutableList.copyOf(legalMoves);
+    }
+
     public King getPlayerKing() {
         return this.playerKing;
     }
@@ -118,6 +111,4 @@ public abstract class Player {
     public abstract Collection<Piece> getActivePieces();
     public abstract Color getColor();
     public abstract Player getOpponent();
-    protected abstract Collection<Move> calculateKingCastling(Collection<Move> playerLegals,
-                                                              Collection<Move> opponentLegals);
 }
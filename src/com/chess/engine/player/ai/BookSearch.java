@@ -0,0 +1,56 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.MoveEncoding;
+import com.chess.engine.board.SearchBoard;
+import com.chess.engine.book.OpeningBook;
+
+import java.util.Random;
+
+// plays from an opening book while the position is in it, and leaves the position to the engine it wraps once it
+// is not, a book move is returned at once as a result of depth 0
+public final class BookSearch implements SearchEngine {
+
+    private final OpeningBook book;
+    private final SearchEngine engine;
+    private final Random random;
+    private SearchListener listener;
+
+    public BookSearch(final OpeningBook book, final SearchEngine engine, final Random random) {
+        this.book = book;
+        this.engine = engine;
+        this.random = random;
+    }
+
+    public BookSearch(final OpeningBook book, final SearchEngine engine) {
+        this(book, engine, new Random());
+    }
+
+    @Override
+    public SearchResult search(final SearchBoard board, final SearchLimits limits) {
+        final int bookMove = this.book.getMove(board, this.random);
+        if (bookMove == MoveEncoding.NULL_MOVE) {
+            return this.engine.search(board, limits);
+        }
+        final SearchResult result = new SearchResult(bookMove, 0, 0, 0, 0, new int[]{bookMove});
+        if (this.listener != null) {
+            this.listener.onIteration(result);
+        }
+        return result;
+    }
+
+    @Override
+    public void stop() {
+        this.engine.stop();
+    }
+
+    @Override
+    public void prepare() {
+        this.engine.prepare();
+    }
+
+    @Override
+    public void setListener(final SearchListener listener) {
+        this.listener = listener;
+        this.engine.setListener(listener);
+    }
+}
@@ -0,0 +1,9 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.SearchBoard;
+
+// static score of a position in centipawns, from the point of view of the side to move
+public interface Evaluator {
+
+    int evaluate(SearchBoard board);
+}
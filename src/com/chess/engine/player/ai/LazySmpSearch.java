@@ -0,0 +1,144 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.SearchBoard;
+import com.chess.engine.endgame.Tablebase;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+// lazy smp, every thread searches the same root on its own copy of the board
+// the threads only talk through the shared transposition table, a helper that finishes a subtree first leaves
+// its result there for the others to cut with
+// the main thread decides, its best move is the result and the helpers are stopped when it returns
+public final class LazySmpSearch implements SearchEngine {
+
+    private final TranspositionTable transpositionTable;
+    private final Evaluator evaluator;
+    private final Search mainSearch;
+    // the nodes of every thread, so a node limit caps the whole search and not the main thread alone
+    private final LongAdder sharedNodes;
+    private Search[] helpers;
+    private ExecutorService executor;
+    private SearchListener listener;
+    private Tablebase tablebase;
+
+    public LazySmpSearch(final TranspositionTable transpositionTable, final Evaluator evaluator, final int threads) {
+        this.transpositionTable = transpositionTable;
+        this.evaluator = evaluator;
+        this.mainSearch = new Search(transpositionTable, evaluator);
+        this.sharedNodes = new LongAdder();
+        this.mainSearch.setSharedNodes(this.sharedNodes);
+        this.mainSearch.setListener(result -> {
+            if (this.listener != null) {
+                this.listener.onIteration(withTotalNodes(result));
+            }
+        });
+        setThreads(threads);
+    }
+
+    // the main thread counts as one, not to be called while a search runs
+    public void setThreads(final int threads) {
+        if (this.executor != null) {
+            this.executor.shutdownNow();
+        }
+        final int helperCount = Math.max(1, threads) - 1;
+        this.helpers = new Search[helperCount];
+        for (int i = 0; i < helperCount; i++) {
+            this.helpers[i] = new Search(this.transpositionTable, this.evaluator);
+            this.helpers[i].setTablebase(this.tablebase);
+            this.helpers[i].setSharedNodes(this.sharedNodes);
+        }
+        this.executor = helperCount > 0 ? Executors.newFixedThreadPool(helperCount, runnable -> {
+            final Thread thread = new Thread(runnable, "search helper");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    // stops the helper threads for good
+    public void shutdown() {
+        setThreads(1);
+    }
+
+    public int getThreads() {
+        return this.helpers.length + 1;
+    }
+
+    public void setTablebase(final Tablebase tablebase) {
+        this.tablebase = tablebase;
+        this.mainSearch.setTablebase(tablebase);
+        for (final Search helper : this.helpers) {
+            helper.setTablebase(tablebase);
+        }
+    }
+
+    // only the main thread searches more than one line, the helpers fill the table for all of them
+    public void setMultiPv(final int multiPv) {
+        this.mainSearch.setMultiPv(multiPv);
+    }
+
+    @Override
+    public void setListener(final SearchListener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void prepare() {
+        this.mainSearch.prepare();
+        for (final Search helper : this.helpers) {
+            helper.prepare();
+        }
+    }
+
+    @Override
+    public SearchResult search(final SearchBoard board, final SearchLimits limits) {
+        this.transpositionTable.newSearch();
+        this.sharedNodes.reset();
+        final Future<?>[] futures = new Future<?>[this.helpers.length];
+        for (int i = 0; i < this.helpers.length; i++) {
+            final Search helper = this.helpers[i];
+            final SearchBoard helperBoard = new SearchBoard(board);
+            final int helperIndex = i + 1;
+            helper.prepare();
+            futures[i] = this.executor.submit(() -> helper.iterate(helperBoard, SearchLimits.infinite(), helperIndex));
+        }
+
+        final SearchResult result = this.mainSearch.iterate(board, limits, 0);
+        for (final Search helper : this.helpers) {
+            helper.stop();
+        }
+        for (final Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (final ExecutionException e) {
+                throw new RuntimeException(e.getCause());
+            }
+        }
+        // a limit reached leaves the main thread stopped, the next search starts clear without a prepare
+        prepare();
+        return withTotalNodes(result);
+    }
+
+    @Override
+    public void stop() {
+        this.mainSearch.stop();
+        for (final Search helper : this.helpers) {
+            helper.stop();
+        }
+    }
+
+    // the main result with the nodes of every thread
+    private SearchResult withTotalNodes(final SearchResult result) {
+        long nodes = this.mainSearch.getNodes();
+        for (final Search helper : this.helpers) {
+            nodes += helper.getNodes();
+        }
+        return new SearchResult(result.getBestMove(), result.getScore(), result.getDepth(), nodes,
+                result.getElapsedMillis(), result.getPrincipalVariation(), result.getMultiPv());
+    }
+}
@@ -0,0 +1,28 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.BitBoard;
+import com.chess.engine.board.SearchBoard;
+
+import static com.chess.engine.board.BitBoard.*;
+
+// counts material with the piece values of Piece.PieceType, nothing else
+public final class MaterialEvaluator implements Evaluator {
+
+    private static final int[] PIECE_VALUES = new int[NUM_PIECE_TYPES];
+
+    static {
+        for (int pieceType = PAWN; pieceType < KING; pieceType++) {
+            PIECE_VALUES[pieceType] = BitBoard.pieceType(pieceType).getPieceValue();
+        }
+    }
+
+    @Override
+    public int evaluate(final SearchBoard board) {
+        int score = 0;
+        for (int pieceType = PAWN; pieceType < KING; pieceType++) {
+            score += PIECE_VALUES[pieceType] *
+                    (Long.bitCount(board.getPieces(WHITE, pieceType)) - Long.bitCount(board.getPieces(BLACK, pieceType)));
+        }
+        return board.getSideToMove() == WHITE ? score : -score;
+    }
+}
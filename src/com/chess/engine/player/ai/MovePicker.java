@@ -0,0 +1,225 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.BitBoard;
+import com.chess.engine.board.MoveEncoding;
+import com.chess.engine.board.MoveGenerator;
+import com.chess.engine.board.MoveList;
+import com.chess.engine.board.SearchBoard;
+
+import static com.chess.engine.board.BitBoard.*;
+
+// hands out the moves of one node best guess first, in stages
+// the hash move, then winning and equal captures by most valuable victim and least valuable attacker, the killer
+// moves, the quiet moves by history and last the captures that lose material by static exchange
+// in quiescence only the captures and promotions that do not lose material are handed out
+// the quiet moves are only generated once the captures failed to cut, most nodes that cut never get there
+// one picker per ply, reused for every node of that ply
+final class MovePicker {
+
+    private static final int STAGE_HASH_MOVE = 0;
+    private static final int STAGE_GENERATE_CAPTURES = 1;
+    private static final int STAGE_GOOD_CAPTURES = 2;
+    private static final int STAGE_FIRST_KILLER = 3;
+    private static final int STAGE_SECOND_KILLER = 4;
+    private static final int STAGE_QUIETS = 5;
+    private static final int STAGE_BAD_CAPTURES = 6;
+    private static final int STAGE_DONE = 7;
+
+    // values of Piece.PieceType by BitBoard piece type
+    static final int[] PIECE_VALUES = new int[NUM_PIECE_TYPES];
+
+    static {
+        for (int pieceType = PAWN; pieceType <= KING; pieceType++) {
+            PIECE_VALUES[pieceType] = BitBoard.pieceType(pieceType).getPieceValue();
+        }
+    }
+
+    private final MoveList captures;
+    private final int[] captureScores;
+    private final MoveList badCaptures;
+    private final MoveList quiets;
+    private final int[] quietScores;
+
+    private SearchBoard board;
+    private int hashMove;
+    private int firstKiller;
+    private int secondKiller;
+    private int[][][] history;
+    private int stage;
+    private int index;
+    private boolean isHashMoveQuiet;
+    private boolean isQuiescence;
+
+    MovePicker() {
+        this.captures = new MoveList();
+        this.captureScores = new int[MoveGenerator.MAX_MOVES];
+        this.badCaptures = new MoveList();
+        this.quiets = new MoveList();
+        this.quietScores = new int[MoveGenerator.MAX_MOVES];
+    }
+
+    void reset(final SearchBoard board, final int hashMove, final int firstKiller, final int secondKiller,
+               final int[][][] history) {
+        this.board = board;
+        this.hashMove = hashMove;
+        this.firstKiller = firstKiller;
+        this.secondKiller = secondKiller;
+        this.history = history;
+        this.stage = STAGE_HASH_MOVE;
+        this.index = 0;
+        this.isHashMoveQuiet = false;
+        this.isQuiescence = false;
+        this.badCaptures.clear();
+    }
+
+    // noisy moves only, a side in check still gets every evasion
+    void resetQuiescence(final SearchBoard board, final boolean isInCheck, final int[][][] history) {
+        reset(board, MoveEncoding.NULL_MOVE, MoveEncoding.NULL_MOVE, MoveEncoding.NULL_MOVE, history);
+        this.isQuiescence = !isInCheck;
+        this.stage = STAGE_GENERATE_CAPTURES;
+    }
+
+    // the next move to search, MoveEncoding.NULL_MOVE when there are no more
+    int next() {
+        while (true) {
+            switch (this.stage) {
+                case STAGE_HASH_MOVE:
+                    this.stage = STAGE_GENERATE_CAPTURES;
+                    if (this.hashMove != MoveEncoding.NULL_MOVE && isHashMoveLegal()) {
+                        return this.hashMove;
+                    }
+                    this.hashMove = MoveEncoding.NULL_MOVE;
+                    break;
+                case STAGE_GENERATE_CAPTURES:
+                    if (!isNoisy(this.hashMove)) {
+                        MoveGenerator.generateNoisyMoves(this.board, this.captures);
+                    }
+                    scoreCaptures();
+                    this.index = 0;
+                    this.stage = STAGE_GOOD_CAPTURES;
+                    break;
+                case STAGE_GOOD_CAPTURES:
+                    while (this.index < this.captures.size()) {
+                        final int move = pickBest(this.captures, this.captureScores, this.index++);
+                        if (move == this.hashMove) {
+                            continue;
+                        }
+                        if (!isWinningOrEqual(this.board, move)) {
+                            if (!this.isQuiescence) {
+                                this.badCaptures.add(move);
+                            }
+                            continue;
+                        }
+                        return move;
+                    }
+                    this.stage = this.isQuiescence ? STAGE_DONE : STAGE_FIRST_KILLER;
+                    break;
+                case STAGE_FIRST_KILLER:
+                    if (!this.isHashMoveQuiet) {
+                        MoveGenerator.generateQuietMoves(this.board, this.quiets);
+                    }
+                    this.stage = STAGE_SECOND_KILLER;
+                    // killers are quiet moves of a sibling, only played when they are legal here too
+                    if (isQuietCandidate(this.firstKiller)) {
+                        return this.firstKiller;
+                    }
+                    break;
+                case STAGE_SECOND_KILLER:
+                    this.stage = STAGE_QUIETS;
+                    scoreQuiets();
+                    this.index = 0;
+                    if (this.secondKiller != this.firstKiller && isQuietCandidate(this.secondKiller)) {
+                        return this.secondKiller;
+                    }
+                    break;
+                case STAGE_QUIETS:
+                    while (this.index < this.quiets.size()) {
+                        final int move = pickBest(this.quiets, this.quietScores, this.index++);
+                        if (move != this.hashMove && move != this.firstKiller && move != this.secondKiller) {
+                            return move;
+                        }
+                    }
+                    this.stage = STAGE_BAD_CAPTURES;
+                    this.index = 0;
+                    break;
+                case STAGE_BAD_CAPTURES:
+                    if (this.index < this.badCaptures.size()) {
+                        return this.badCaptures.get(this.index++);
+                    }
+                    this.stage = STAGE_DONE;
+                    break;
+                default:
+                    return MoveEncoding.NULL_MOVE;
+            }
+        }
+    }
+
+    // the table move can come from another position with the same key, it is looked up in the generated moves
+    // of its kind, which are then kept for their own stage
+    private boolean isHashMoveLegal() {
+        if (isNoisy(this.hashMove)) {
+            MoveGenerator.generateNoisyMoves(this.board, this.captures);
+            return this.captures.contains(this.hashMove);
+        }
+        MoveGenerator.generateQuietMoves(this.board, this.quiets);
+        this.isHashMoveQuiet = true;
+        return this.quiets.contains(this.hashMove);
+    }
+
+    private boolean isQuietCandidate(final int move) {
+        return move != MoveEncoding.NULL_MOVE && move != this.hashMove && this.quiets.contains(move);
+    }
+
+    private static boolean isNoisy(final int move) {
+        return move != MoveEncoding.NULL_MOVE && (MoveEncoding.isCapture(move) || MoveEncoding.isPromotion(move));
+    }
+
+    // most valuable victim first, among equal victims the least valuable attacker
+    private void scoreCaptures() {
+        for (int i = 0; i < this.captures.size(); i++) {
+            final int move = this.captures.get(i);
+            int score = MoveEncoding.isCapture(move) ?
+                    PIECE_VALUES[MoveEncoding.getCapturedPieceType(move)] * 8 - MoveEncoding.getMovedPieceType(move) :
+                    0;
+            if (MoveEncoding.isPromotion(move)) {
+                score += PIECE_VALUES[MoveEncoding.getPromotionType(move)] * 8;
+            }
+            this.captureScores[i] = score;
+        }
+    }
+
+    private void scoreQuiets() {
+        final int[][] colorHistory = this.history[this.board.getSideToMove()];
+        for (int i = 0; i < this.quiets.size(); i++) {
+            final int move = this.quiets.get(i);
+            this.quietScores[i] = colorHistory[MoveEncoding.getFrom(move)][MoveEncoding.getTo(move)];
+        }
+    }
+
+    // a capture of a piece worth at least the capturing one cannot lose, the others are left to static exchange
+    private static boolean isWinningOrEqual(final SearchBoard board, final int move) {
+        if (MoveEncoding.isCapture(move) && !MoveEncoding.isPromotion(move) &&
+                PIECE_VALUES[MoveEncoding.getCapturedPieceType(move)] >=
+                        PIECE_VALUES[MoveEncoding.getMovedPieceType(move)]) {
+            return true;
+        }
+        return StaticExchange.isAtLeast(board, move, 0);
+    }
+
+    // selection sort one step at a time, the rest is only sorted if it is asked for
+    private static int pickBest(final MoveList moves, final int[] scores, final int from) {
+        int best = from;
+        for (int i = from + 1; i < moves.size(); i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        if (best != from) {
+            moves.swap(from, best);
+            final int score = scores[from];
+            scores[from] = scores[best];
+            scores[best] = score;
+        }
+        return moves.get(from);
+    }
+}
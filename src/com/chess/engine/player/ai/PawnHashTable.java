@@ -0,0 +1,75 @@
+package com.chess.engine.player.ai;
+
+// pawn structure results by the pawn key of the position
+// pawns move rarely, so most positions of a search share their pawns with one evaluated before and the
+// pawn terms only have to be worked out again after a pawn move or capture
+// an entry is two longs, the key xor the data and the data itself, shared between threads without locks the same way
+// as the TranspositionTable, a torn entry reads as a miss
+// one entry per slot, a new pawn structure always replaces the old one
+final class PawnHashTable {
+
+    static final long NO_ENTRY = 0L;
+    static final int DEFAULT_SIZE_MB = 2;
+
+    private static final int LONGS_PER_ENTRY = 2;
+    private static final int BYTES_PER_ENTRY = LONGS_PER_ENTRY * Long.BYTES;
+
+    // data layout: bits 0-31 structure TaperedScore, 32-47 middlegame shield score, 48-53 white king square,
+    // 54-59 black king square, bit 60 always set so that real entries never pack to zero
+    private static final int SHIELD_SHIFT = 32;
+    private static final int WHITE_KING_SHIFT = 48;
+    private static final int BLACK_KING_SHIFT = 54;
+    private static final long USED = 1L << 60;
+    private static final int SQUARE_MASK = 0x3F;
+
+    private final long[] table;
+    private final int entryMask;
+
+    PawnHashTable(final int sizeInMb) {
+        final long bytes = Math.max(1, sizeInMb) * 1024L * 1024L;
+        final long entries = Long.highestOneBit(Math.max(1, bytes / BYTES_PER_ENTRY));
+        final int entryCount = (int) Math.min(entries, Integer.highestOneBit(Integer.MAX_VALUE / LONGS_PER_ENTRY));
+        this.table = new long[entryCount * LONGS_PER_ENTRY];
+        this.entryMask = entryCount - 1;
+    }
+
+    long probe(final long key) {
+        final int index = index(key);
+        final long data = this.table[index + 1];
+        // with no pawns on the board the key is zero, which an empty slot would match
+        return data != NO_ENTRY && (this.table[index] ^ data) == key ? data : NO_ENTRY;
+    }
+
+    // returns the stored data
+    long store(final long key, final int structure, final int shields, final int whiteKing, final int blackKing) {
+        final long data = (structure & 0xFFFFFFFFL) |
+                ((shields & 0xFFFFL) << SHIELD_SHIFT) |
+                ((long) whiteKing << WHITE_KING_SHIFT) |
+                ((long) blackKing << BLACK_KING_SHIFT) |
+                USED;
+        final int index = index(key);
+        this.table[index] = key ^ data;
+        this.table[index + 1] = data;
+        return data;
+    }
+
+    private int index(final long key) {
+        return ((int) key & this.entryMask) * LONGS_PER_ENTRY;
+    }
+
+    static int getStructure(final long data) {
+        return (int) data;
+    }
+
+    static int getShields(final long data) {
+        return (short) (data >>> SHIELD_SHIFT);
+    }
+
+    static int getWhiteKing(final long data) {
+        return (int) (data >>> WHITE_KING_SHIFT) & SQUARE_MASK;
+    }
+
+    static int getBlackKing(final long data) {
+        return (int) (data >>> BLACK_KING_SHIFT) & SQUARE_MASK;
+    }
+}
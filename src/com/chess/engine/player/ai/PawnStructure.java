@@ -0,0 +1,166 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.BitBoard;
+import com.chess.engine.board.SearchBoard;
+import com.chess.engine.board.Utilities;
+
+import static com.chess.engine.board.BitBoard.*;
+
+// doubled, isolated, backward and passed pawns as a TaperedScore, white minus black, and the pawn shields of both
+// kings
+// only the pawns and the kings are looked at, which is what lets PawnHashTable keep the results
+final class PawnStructure {
+
+    private static final int DOUBLED = TaperedScore.make(10, 20);
+    private static final int ISOLATED = TaperedScore.make(10, 15);
+    private static final int BACKWARD = TaperedScore.make(8, 10);
+    private static final int MISSING_SHIELD_PAWN = 20;
+    // by rank counted from the pawn's own side, a pawn never stands on the first or the last one
+    private static final int[] PASSED = {
+            0,
+            TaperedScore.make(5, 10),
+            TaperedScore.make(10, 20),
+            TaperedScore.make(15, 35),
+            TaperedScore.make(30, 60),
+            TaperedScore.make(50, 100),
+            TaperedScore.make(80, 150),
+            0
+    };
+
+    // by row, row 0 is the eighth rank, from the rank tables of Utilities
+    private static final long[] RANKS = {
+            toMask(Utilities.EIGHT_RANK),
+            toMask(Utilities.SEVENTH_RANK),
+            toMask(Utilities.SIXTH_RANK),
+            toMask(Utilities.FIFTH_RANK),
+            toMask(Utilities.FOURTH_RANK),
+            toMask(Utilities.THIRD_RANK),
+            toMask(Utilities.SECOND_RANK),
+            toMask(Utilities.FIRST_RANK)
+    };
+    static final long[] FILES = new long[Utilities.NUM_SQUARES_PER_ROW];
+    static final long[] ADJACENT_FILES = new long[Utilities.NUM_SQUARES_PER_ROW];
+    // by colour and square, the squares in front of a pawn on its own file
+    static final long[][] FORWARD = new long[2][Utilities.NUM_SQUARES];
+    // the squares in front of a pawn on its own and the adjacent files, no enemy pawn there makes it passed
+    static final long[][] PASSED_MASKS = new long[2][Utilities.NUM_SQUARES];
+    // the squares on the adjacent files level with a pawn or behind it, where its defenders come from
+    private static final long[][] SUPPORT = new long[2][Utilities.NUM_SQUARES];
+    // by colour and king square, the two ranks in front of the king on its own and the adjacent files
+    private static final long[][] SHIELDS = new long[2][Utilities.NUM_SQUARES];
+
+    static {
+        for (int file = 0; file < Utilities.NUM_SQUARES_PER_ROW; file++) {
+            // Utilities only has the outer columns, the others are shifts of the first one
+            FILES[file] = toMask(Utilities.FIRST_COLUMN) << file;
+        }
+        for (int file = 0; file < Utilities.NUM_SQUARES_PER_ROW; file++) {
+            ADJACENT_FILES[file] = (file > 0 ? FILES[file - 1] : 0L) |
+                    (file < Utilities.NUM_SQUARES_PER_ROW - 1 ? FILES[file + 1] : 0L);
+        }
+        for (int square = 0; square < Utilities.NUM_SQUARES; square++) {
+            final int file = square % Utilities.NUM_SQUARES_PER_ROW;
+            final int row = square / Utilities.NUM_SQUARES_PER_ROW;
+            // white moves towards row 0, black towards row 7
+            long whiteAhead = 0L;
+            long blackAhead = 0L;
+            for (int other = 0; other < Utilities.NUM_SQUARES_PER_ROW; other++) {
+                if (other < row) {
+                    whiteAhead |= RANKS[other];
+                } else if (other > row) {
+                    blackAhead |= RANKS[other];
+                }
+            }
+            FORWARD[WHITE][square] = whiteAhead & FILES[file];
+            FORWARD[BLACK][square] = blackAhead & FILES[file];
+            PASSED_MASKS[WHITE][square] = whiteAhead & (FILES[file] | ADJACENT_FILES[file]);
+            PASSED_MASKS[BLACK][square] = blackAhead & (FILES[file] | ADJACENT_FILES[file]);
+            SUPPORT[WHITE][square] = ~whiteAhead & ADJACENT_FILES[file];
+            SUPPORT[BLACK][square] = ~blackAhead & ADJACENT_FILES[file];
+            for (int ahead = 1; ahead <= 2; ahead++) {
+                if (row - ahead >= 0) {
+                    SHIELDS[WHITE][square] |= (FILES[file] | ADJACENT_FILES[file]) & RANKS[row - ahead];
+                }
+                if (row + ahead < Utilities.NUM_SQUARES_PER_ROW) {
+                    SHIELDS[BLACK][square] |= (FILES[file] | ADJACENT_FILES[file]) & RANKS[row + ahead];
+                }
+            }
+        }
+    }
+
+    private PawnStructure() {
+        throw new RuntimeException("Cannot be initialized. Utilities only");
+    }
+
+    private static long toMask(final boolean[] squares) {
+        long mask = 0L;
+        for (int square = 0; square < Utilities.NUM_SQUARES; square++) {
+            if (squares[square]) {
+                mask |= 1L << square;
+            }
+        }
+        return mask;
+    }
+
+    static int evaluate(final SearchBoard board) {
+        return evaluate(board, WHITE) - evaluate(board, BLACK);
+    }
+
+    private static int evaluate(final SearchBoard board, final int us) {
+        final long ours = board.getPieces(us, PAWN);
+        final long theirs = board.getPieces(us ^ 1, PAWN);
+        final long theirAttacks = BitBoard.pawnAttacks(us ^ 1, theirs);
+        int score = 0;
+        long pawns = ours;
+        while (pawns != 0) {
+            final int square = Long.numberOfTrailingZeros(pawns);
+            pawns &= pawns - 1;
+            final int file = square % Utilities.NUM_SQUARES_PER_ROW;
+            final boolean isFrontmost = (FORWARD[us][square] & ours) == 0;
+            // every pawn behind another one of its file counts once
+            if (!isFrontmost) {
+                score -= DOUBLED;
+            }
+            if ((ADJACENT_FILES[file] & ours) == 0) {
+                score -= ISOLATED;
+            } else if ((SUPPORT[us][square] & ours) == 0 &&
+                    (theirAttacks & (1L << (us == WHITE ? square - 8 : square + 8))) != 0) {
+                // no pawn can come to its side and it cannot step forward safely
+                score -= BACKWARD;
+            }
+            if (isFrontmost && (PASSED_MASKS[us][square] & theirs) == 0) {
+                score += PASSED[relativeRank(us, square)];
+            }
+        }
+        return score;
+    }
+
+    // middlegame penalty of the kings' pawn shields, white minus black
+    static int evaluateShields(final SearchBoard board) {
+        return evaluateShield(board, WHITE) - evaluateShield(board, BLACK);
+    }
+
+    // a king still on its first two ranks wants a pawn on each of the files around it
+    private static int evaluateShield(final SearchBoard board, final int us) {
+        final int king = board.getKingSquare(us);
+        if (relativeRank(us, king) > 1) {
+            return 0;
+        }
+        final long shieldPawns = board.getPieces(us, PAWN) & SHIELDS[us][king];
+        final int file = king % Utilities.NUM_SQUARES_PER_ROW;
+        int score = 0;
+        for (int shieldFile = Math.max(0, file - 1);
+             shieldFile <= Math.min(Utilities.NUM_SQUARES_PER_ROW - 1, file + 1); shieldFile++) {
+            if ((shieldPawns & FILES[shieldFile]) == 0) {
+                score -= MISSING_SHIELD_PAWN;
+            }
+        }
+        return score;
+    }
+
+    // 0 on the colour's own back rank, 7 on the promotion rank
+    static int relativeRank(final int color, final int square) {
+        final int row = square / Utilities.NUM_SQUARES_PER_ROW;
+        return color == WHITE ? Utilities.NUM_SQUARES_PER_ROW - 1 - row : row;
+    }
+}
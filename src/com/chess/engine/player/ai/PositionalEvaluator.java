@@ -0,0 +1,116 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.BitBoard;
+import com.chess.engine.board.LeaperAttacks;
+import com.chess.engine.board.PieceSquareTables;
+import com.chess.engine.board.SearchBoard;
+
+import static com.chess.engine.board.BitBoard.*;
+
+// tapered evaluation, every term has a middlegame and an endgame value that are blended by the game phase
+// material and piece squares are kept by the SearchBoard as moves are made, only the terms below are counted here:
+// mobility of the pieces, the pawn structure, the pawn shield in front of the king and the pieces attacking the
+// squares around it
+// the pawn terms are cached in a PawnHashTable, which like the transposition table is safe to share between search
+// threads, so one evaluator serves every thread
+public final class PositionalEvaluator implements Evaluator {
+
+    // bonus of the side to move
+    private static final int TEMPO = 10;
+
+    // per reachable square above or below the usual count, by piece type
+    private static final int[] MOBILITY = {
+            0,
+            TaperedScore.make(4, 4),
+            TaperedScore.make(5, 5),
+            TaperedScore.make(2, 4),
+            TaperedScore.make(1, 2),
+            0
+    };
+    private static final int[] MOBILITY_BASE = {0, 4, 7, 7, 14, 0};
+
+    // per attacked square around the enemy king, by piece type, the sum is squared so that attacks add up
+    private static final int[] KING_ATTACK_WEIGHTS = {0, 2, 2, 3, 5, 0};
+    private static final int MAX_KING_DANGER = 500;
+
+    private final PawnHashTable pawnTable;
+
+    public PositionalEvaluator() {
+        this(PawnHashTable.DEFAULT_SIZE_MB);
+    }
+
+    public PositionalEvaluator(final int pawnHashSizeInMb) {
+        this.pawnTable = new PawnHashTable(pawnHashSizeInMb);
+    }
+
+    @Override
+    public int evaluate(final SearchBoard board) {
+        final int score = TaperedScore.make(board.getMidgameScore(), board.getEndgameScore()) +
+                evaluatePawns(board) +
+                evaluatePieces(board, WHITE) - evaluatePieces(board, BLACK);
+        final int phase = Math.min(board.getPhase(), PieceSquareTables.MAX_PHASE);
+        final int tapered = (TaperedScore.midgame(score) * phase +
+                TaperedScore.endgame(score) * (PieceSquareTables.MAX_PHASE - phase)) / PieceSquareTables.MAX_PHASE;
+        return (board.getSideToMove() == WHITE ? tapered : -tapered) + TEMPO;
+    }
+
+    // pawn structure and shields from the pawn table, the shields only have to be redone when a king moved
+    private int evaluatePawns(final SearchBoard board) {
+        final long key = board.getPawnKey();
+        final int whiteKing = board.getKingSquare(WHITE);
+        final int blackKing = board.getKingSquare(BLACK);
+        long entry = this.pawnTable.probe(key);
+        if (entry == PawnHashTable.NO_ENTRY) {
+            entry = this.pawnTable.store(key, PawnStructure.evaluate(board), PawnStructure.evaluateShields(board),
+                    whiteKing, blackKing);
+        } else if (PawnHashTable.getWhiteKing(entry) != whiteKing || PawnHashTable.getBlackKing(entry) != blackKing) {
+            entry = this.pawnTable.store(key, PawnHashTable.getStructure(entry), PawnStructure.evaluateShields(board),
+                    whiteKing, blackKing);
+        }
+        return PawnHashTable.getStructure(entry) + TaperedScore.make(PawnHashTable.getShields(entry), 0);
+    }
+
+    // mobility over the squares not held by own pieces nor attacked by enemy pawns, and the attack on the
+    // enemy king, which only counts from two attackers on
+    private static int evaluatePieces(final SearchBoard board, final int us) {
+        final int them = us ^ 1;
+        final long occupancy = board.getOccupancy();
+        final long area = ~board.getOccupancy(us) & ~BitBoard.pawnAttacks(them, board.getPieces(them, PAWN));
+        final int enemyKing = board.getKingSquare(them);
+        final long kingZone = LeaperAttacks.kingAttacks(enemyKing) | 1L << enemyKing;
+        int score = 0;
+        int attackers = 0;
+        int attackWeight = 0;
+        for (int pieceType = KNIGHT; pieceType <= QUEEN; pieceType++) {
+            long pieces = board.getPieces(us, pieceType);
+            while (pieces != 0) {
+                final int square = Long.numberOfTrailingZeros(pieces);
+                pieces &= pieces - 1;
+                final long attacks = attacks(pieceType, square, occupancy);
+                score += MOBILITY[pieceType] * (Long.bitCount(attacks & area) - MOBILITY_BASE[pieceType]);
+                final long zoneAttacks = attacks & kingZone;
+                if (zoneAttacks != 0) {
+                    attackers++;
+                    attackWeight += KING_ATTACK_WEIGHTS[pieceType] * Long.bitCount(zoneAttacks);
+                }
+            }
+        }
+        if (attackers >= 2) {
+            score += TaperedScore.make(Math.min(MAX_KING_DANGER, attackWeight * attackWeight * 2), 0);
+        }
+        return score;
+    }
+
+    private static long attacks(final int pieceType, final int square, final long occupancy) {
+        switch (pieceType) {
+            case KNIGHT:
+                return LeaperAttacks.knightAttacks(square);
+            case BISHOP:
+                return BitBoard.bishopAttacks(square, occupancy);
+            case ROOK:
+                return BitBoard.rookAttacks(square, occupancy);
+            default:
+                return BitBoard.queenAttacks(square, occupancy);
+        }
+    }
+}
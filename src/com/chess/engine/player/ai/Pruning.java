@@ -0,0 +1,10 @@
+package com.chess.engine.player.ai;
+
+// the selective parts of the search, each can be switched off to measure what it buys
+public enum Pruning {
+    NULL_MOVE,
+    LATE_MOVE_REDUCTIONS,
+    REVERSE_FUTILITY,
+    FUTILITY,
+    RAZORING
+}
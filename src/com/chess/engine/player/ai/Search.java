@@ -0,0 +1,603 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.BitBoard;
+import com.chess.engine.board.MoveEncoding;
+import com.chess.engine.board.MoveGenerator;
+import com.chess.engine.board.MoveList;
+import com.chess.engine.board.SearchBoard;
+import com.chess.engine.board.Utilities;
+import com.chess.engine.endgame.Tablebase;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.chess.engine.player.ai.TranspositionTable.*;
+
+// negamax alpha-beta on the mutable search board
+// iterative deepening from depth 1, every iteration after the first few starts with a narrow aspiration window
+// around the previous score, the first move of a node gets the full window and the others a null window
+// that is only widened again when they beat alpha (principal variation search)
+// the best line is collected in a triangular table, row ply holds the line from that ply on
+public final class Search implements SearchEngine {
+
+    public static final int MAX_PLY = 128;
+    public static final int MATE = 32000;
+    public static final int INFINITY = MATE + 1;
+    // scores beyond this are mates, a mate is never further away than the search can see
+    public static final int MATE_BOUND = MATE - MAX_PLY;
+    public static final int DRAW = 0;
+
+    private static final int ASPIRATION_DEPTH = 5;
+    private static final int ASPIRATION_WINDOW = 25;
+    // the clock is read once every this many nodes plus one
+    private static final int CHECK_INTERVAL = 2047;
+    // a capture that cannot lift the static score to alpha even with this much on top is not searched in quiescence
+    private static final int DELTA_MARGIN = 200;
+    // selective search, depths are the remaining depth up to which each applies
+    private static final int NULL_MOVE_MIN_DEPTH = 3;
+    private static final int REVERSE_FUTILITY_MAX_DEPTH = 6;
+    private static final int REVERSE_FUTILITY_MARGIN = 90;
+    private static final int FUTILITY_MAX_DEPTH = 3;
+    private static final int[] FUTILITY_MARGINS = {0, 150, 300, 450};
+    private static final int RAZORING_MAX_DEPTH = 2;
+    private static final int[] RAZORING_MARGINS = {0, 300, 550};
+    private static final int REDUCTION_MIN_DEPTH = 3;
+    // the first moves of a node are never reduced, they are the likeliest to be best
+    private static final int REDUCTION_MIN_MOVE = 4;
+    // late move reductions by depth and move number, the later and deeper the more
+    private static final int[][] REDUCTIONS = initReductions();
+    // history scores stay within this bound, older results fade as new ones come in
+    private static final int MAX_HISTORY = 16384;
+    // score of a position a tablebase calls won, above any evaluation and below the mates, the evaluation is added
+    // so that the search still makes progress towards the win
+    static final int KNOWN_WIN = 10000;
+
+    private final TranspositionTable transpositionTable;
+    private final Evaluator evaluator;
+    private final MoveList rootMoves;
+    // the best moves of the lines already searched at this depth, left out of the next line
+    private final MoveList excludedRootMoves;
+    private final MovePicker[] movePickers;
+    // the quiet moves tried at each ply, they lose history when a later quiet move cuts
+    private final int[][] quietsSearched;
+    // two quiet moves per ply that cut in a sibling node
+    private final int[][] killers;
+    // butterfly history, by side to move, origin and destination square
+    private final int[][][] history;
+    private final int[][] pvTable;
+    private final int[] pvLength;
+    // plies entered by passing the turn, two null moves in a row would prove nothing
+    private final boolean[] isNullMovePly;
+    private final boolean[] enabledPruning;
+    private final SearchStatistics statistics;
+    private Tablebase tablebase;
+    private int multiPv;
+
+    private volatile boolean stopped;
+    private SearchBoard board;
+    private SearchLimits limits;
+    private SearchListener listener;
+    private long nodes;
+    // the nodes of all threads of a parallel search, null when searching alone
+    private LongAdder sharedNodes;
+    private long startTime;
+    // nanoseconds from the start, 0 when the search is not timed
+    private long timeBudget;
+
+    public Search(final TranspositionTable transpositionTable, final Evaluator evaluator) {
+        this.transpositionTable = transpositionTable;
+        this.evaluator = evaluator;
+        this.rootMoves = new MoveList();
+        this.excludedRootMoves = new MoveList();
+        this.movePickers = new MovePicker[MAX_PLY];
+        for (int ply = 0; ply < MAX_PLY; ply++) {
+            this.movePickers[ply] = new MovePicker();
+        }
+        this.quietsSearched = new int[MAX_PLY][MoveGenerator.MAX_MOVES];
+        this.killers = new int[MAX_PLY][2];
+        this.history = new int[2][Utilities.NUM_SQUARES][Utilities.NUM_SQUARES];
+        this.pvTable = new int[MAX_PLY][MAX_PLY];
+        this.pvLength = new int[MAX_PLY];
+        this.isNullMovePly = new boolean[MAX_PLY];
+        this.enabledPruning = new boolean[Pruning.values().length];
+        Arrays.fill(this.enabledPruning, true);
+        this.statistics = new SearchStatistics();
+        this.multiPv = 1;
+    }
+
+    public Search() {
+        this(new TranspositionTable(), new PositionalEvaluator());
+    }
+
+    @Override
+    public void setListener(final SearchListener listener) {
+        this.listener = listener;
+    }
+
+    public void setEnabled(final Pruning pruning, final boolean isEnabled) {
+        this.enabledPruning[pruning.ordinal()] = isEnabled;
+    }
+
+    public boolean isEnabled(final Pruning pruning) {
+        return this.enabledPruning[pruning.ordinal()];
+    }
+
+    // positions the tablebase covers are scored by it below the root, null for none
+    public void setTablebase(final Tablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    // every thread adds its nodes to the shared count when it reads the clock, the node limit is checked against
+    // the total so it caps the whole parallel search
+    void setSharedNodes(final LongAdder sharedNodes) {
+        this.sharedNodes = sharedNodes;
+    }
+
+    // the number of best lines searched at every depth, each one without the best moves of the lines before it
+    // the listener gets every line, the result is the first
+    public void setMultiPv(final int multiPv) {
+        this.multiPv = Math.max(1, multiPv);
+    }
+
+    public int getMultiPv() {
+        return this.multiPv;
+    }
+
+    // what the last search did, only to be read once it returned
+    public SearchStatistics getStatistics() {
+        return this.statistics;
+    }
+
+    @Override
+    public void stop() {
+        this.stopped = true;
+    }
+
+    @Override
+    public void prepare() {
+        this.stopped = false;
+    }
+
+    // a limit reached leaves the search stopped, the next search starts clear without a prepare
+    @Override
+    public SearchResult search(final SearchBoard board, final SearchLimits limits) {
+        this.transpositionTable.newSearch();
+        final SearchResult result = iterate(board, limits, 0);
+        prepare();
+        return result;
+    }
+
+    // iterative deepening, the helpers of a parallel search pass their index and odd helpers start one ply deeper,
+    // so the threads spread over two depths and fill the shared table with different parts of the tree
+    SearchResult iterate(final SearchBoard board, final SearchLimits limits, final int helperIndex) {
+        this.board = board;
+        this.limits = limits;
+        this.nodes = 0;
+        this.statistics.reset();
+        this.startTime = System.nanoTime();
+        this.timeBudget = limits.getMoveTime() * 1_000_000L;
+
+        // the move ordering of an earlier search says little about this one
+        for (final int[] plyKillers : this.killers) {
+            Arrays.fill(plyKillers, MoveEncoding.NULL_MOVE);
+        }
+        for (final int[][] colorHistory : this.history) {
+            for (final int[] squareHistory : colorHistory) {
+                Arrays.fill(squareHistory, 0);
+            }
+        }
+
+        // without a completed iteration the first legal move is still a move
+        final MoveList rootMoves = this.rootMoves;
+        int rootMoveCount = MoveGenerator.generateLegalMoves(board, rootMoves);
+        // in a position the tablebase covers only the moves that keep its result are searched
+        if (this.tablebase != null && Long.bitCount(board.getOccupancy()) <= this.tablebase.getMaxPieces()) {
+            rootMoveCount = this.tablebase.filterRootMoves(board, rootMoves);
+        }
+        SearchResult result = new SearchResult(rootMoveCount > 0 ? rootMoves.get(0) : MoveEncoding.NULL_MOVE,
+                0, 0, 0, 0, new int[0]);
+        if (rootMoveCount == 0) {
+            return result;
+        }
+
+        final int maxDepth = limits.getDepth() > 0 ? Math.min(limits.getDepth(), MAX_PLY - 1) : MAX_PLY - 1;
+        final int depthOffset = helperIndex & 1;
+        final int[] lineScores = new int[Math.min(this.multiPv, rootMoveCount)];
+        final SearchResult[] lines = new SearchResult[lineScores.length];
+        for (int depth = 1 + depthOffset; depth <= maxDepth; depth++) {
+            this.excludedRootMoves.clear();
+            for (int line = 0; line < lines.length && !this.stopped; line++) {
+                lineScores[line] = aspirationSearch(depth, lineScores[line]);
+                this.statistics.nodes = this.nodes;
+                lines[line] = new SearchResult(this.pvTable[0][0], lineScores[line], depth, this.nodes,
+                        elapsedMillis(), Arrays.copyOf(this.pvTable[0], this.pvLength[0]));
+                this.excludedRootMoves.add(this.pvTable[0][0]);
+            }
+            if (this.stopped) {
+                break;
+            }
+            this.statistics.completeIteration(depth, this.nodes);
+            sortLines(lines, lineScores);
+            result = lines[0];
+            if (this.listener != null) {
+                for (int line = 0; line < lines.length; line++) {
+                    this.listener.onIteration(new SearchResult(lines[line].getBestMove(), lineScores[line], depth,
+                            this.nodes, elapsedMillis(), lines[line].getPrincipalVariation(), line + 1));
+                }
+            }
+            final int score = lineScores[0];
+            // a mate found is not going to change and the next iteration would not finish in time
+            if (Math.abs(score) >= MATE_BOUND && depth >= MATE - Math.abs(score) ||
+                    this.timeBudget > 0 && System.nanoTime() - this.startTime > this.timeBudget / 2) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    // a later line can score above an earlier one once it was searched with a different window, the lines are
+    // reported best first
+    private static void sortLines(final SearchResult[] lines, final int[] lineScores) {
+        for (int i = 1; i < lines.length; i++) {
+            final SearchResult line = lines[i];
+            final int score = lineScores[i];
+            int j = i;
+            while (j > 0 && lineScores[j - 1] < score) {
+                lines[j] = lines[j - 1];
+                lineScores[j] = lineScores[j - 1];
+                j--;
+            }
+            lines[j] = line;
+            lineScores[j] = score;
+        }
+    }
+
+    // widens the window on the side that failed until the score falls inside it
+    private int aspirationSearch(final int depth, final int previousScore) {
+        int delta = ASPIRATION_WINDOW;
+        int alpha = -INFINITY;
+        int beta = INFINITY;
+        if (depth >= ASPIRATION_DEPTH) {
+            alpha = Math.max(previousScore - delta, -INFINITY);
+            beta = Math.min(previousScore + delta, INFINITY);
+        }
+        while (true) {
+            final int score = negamax(depth, 0, alpha, beta);
+            if (this.stopped) {
+                return score;
+            }
+            if (score <= alpha) {
+                alpha = Math.max(score - delta, -INFINITY);
+            } else if (score >= beta) {
+                beta = Math.min(score + delta, INFINITY);
+            } else {
+                return score;
+            }
+            delta *= 2;
+        }
+    }
+
+    private int negamax(final int depth, final int ply, int alpha, int beta) {
+        if (depth <= 0) {
+            return quiescence(ply, alpha, beta);
+        }
+        this.pvLength[ply] = ply;
+        if ((++this.nodes & CHECK_INTERVAL) == 0) {
+            checkLimits();
+        }
+        if (this.stopped) {
+            return 0;
+        }
+
+        final boolean isPvNode = beta - alpha > 1;
+        if (ply > 0) {
+            if (this.board.isRepetition() || this.board.getHalfMoveClock() >= 100) {
+                return DRAW;
+            }
+            if (ply >= MAX_PLY - 1) {
+                return this.evaluator.evaluate(this.board);
+            }
+            // no line can do better than a mate right here
+            alpha = Math.max(alpha, -MATE + ply);
+            beta = Math.min(beta, MATE - ply - 1);
+            if (alpha >= beta) {
+                return alpha;
+            }
+            // the tables know nothing of the 50 move rule, so only probe right after a capture or pawn move
+            // when a won result cannot be spoilt by the clock
+            if (this.tablebase != null && this.board.getHalfMoveClock() == 0 &&
+                    Long.bitCount(this.board.getOccupancy()) <= this.tablebase.getMaxPieces()) {
+                final int result = this.tablebase.probe(this.board);
+                if (result != Tablebase.UNKNOWN) {
+                    this.statistics.tablebaseHits++;
+                    return result == Tablebase.DRAW ? DRAW :
+                            (result == Tablebase.WIN ? KNOWN_WIN : -KNOWN_WIN) + this.evaluator.evaluate(this.board);
+                }
+            }
+        }
+
+        final long key = this.board.getZobristKey();
+        final long entry = this.transpositionTable.probe(key);
+        int hashMove = MoveEncoding.NULL_MOVE;
+        if (entry != NO_ENTRY) {
+            hashMove = getMove(entry);
+            // the principal variation is never cut from the table, so it stays complete
+            if (!isPvNode && getDepth(entry) >= depth) {
+                final int score = scoreFromTable(getScore(entry), ply);
+                final int bound = getBound(entry);
+                if (bound == EXACT || bound == LOWER_BOUND && score >= beta || bound == UPPER_BOUND && score <= alpha) {
+                    return score;
+                }
+            }
+        }
+
+        final boolean isInCheck = this.board.isInCheck();
+        final int staticScore = isInCheck ? -INFINITY : this.evaluator.evaluate(this.board);
+        if (!isPvNode && !isInCheck) {
+            // so far above beta that losing a margin per ply still fails high
+            if (isEnabled(Pruning.REVERSE_FUTILITY) && depth <= REVERSE_FUTILITY_MAX_DEPTH &&
+                    Math.abs(beta) < MATE_BOUND && staticScore - REVERSE_FUTILITY_MARGIN * depth >= beta) {
+                this.statistics.reverseFutilityCutoffs++;
+                return staticScore;
+            }
+            // so far below alpha that only a capture can help, quiescence decides
+            if (isEnabled(Pruning.RAZORING) && depth <= RAZORING_MAX_DEPTH &&
+                    staticScore + RAZORING_MARGINS[depth] <= alpha) {
+                final int score = quiescence(ply, alpha, alpha + 1);
+                if (score <= alpha) {
+                    this.statistics.razoringCutoffs++;
+                    return score;
+                }
+            }
+            // if passing the turn still fails high a real move will too, except in zugzwang, which is only
+            // likely when the side to move has nothing but pawns and the king
+            if (isEnabled(Pruning.NULL_MOVE) && depth >= NULL_MOVE_MIN_DEPTH && staticScore >= beta &&
+                    !this.isNullMovePly[ply] && hasPiecesBesidesPawns()) {
+                final int reduction = 3 + depth / 6;
+                this.statistics.nullMoveSearches++;
+                this.board.makeNullMove();
+                this.isNullMovePly[ply + 1] = true;
+                final int score = -negamax(depth - 1 - reduction, ply + 1, -beta, -beta + 1);
+                this.isNullMovePly[ply + 1] = false;
+                this.board.unmakeNullMove();
+                if (this.stopped) {
+                    return 0;
+                }
+                if (score >= beta) {
+                    this.statistics.nullMoveCutoffs++;
+                    // a mate found by passing is not a real one
+                    return score >= MATE_BOUND ? beta : score;
+                }
+            }
+        }
+        final boolean canPruneQuiets = isEnabled(Pruning.FUTILITY) && !isPvNode && !isInCheck &&
+                depth <= FUTILITY_MAX_DEPTH && staticScore + FUTILITY_MARGINS[depth] <= alpha;
+
+        final MovePicker movePicker = this.movePickers[ply];
+        movePicker.reset(this.board, hashMove, this.killers[ply][0], this.killers[ply][1], this.history);
+        final int[] quiets = this.quietsSearched[ply];
+        int quietCount = 0;
+        int moveCount = 0;
+        final int originalAlpha = alpha;
+        int bestScore = -INFINITY;
+        int bestMove = MoveEncoding.NULL_MOVE;
+        int move;
+        while ((move = movePicker.next()) != MoveEncoding.NULL_MOVE) {
+            if (ply == 0 && (!this.rootMoves.contains(move) || this.excludedRootMoves.contains(move))) {
+                continue;
+            }
+            moveCount++;
+            final boolean isQuiet = isQuiet(move);
+            this.board.makeMove(move);
+            final boolean givesCheck = this.board.isInCheck();
+            // a quiet move that does not check cannot make up the margin, the moves before it already count
+            if (canPruneQuiets && isQuiet && !givesCheck && moveCount > 1) {
+                this.board.unmakeMove();
+                this.statistics.futilityPrunedMoves++;
+                bestScore = Math.max(bestScore, staticScore + FUTILITY_MARGINS[depth]);
+                continue;
+            }
+            int score;
+            if (moveCount == 1) {
+                score = -negamax(depth - 1, ply + 1, -beta, -alpha);
+            } else {
+                // late quiet moves are searched shallower first and only again at full depth when they beat alpha
+                int reduction = 0;
+                if (isEnabled(Pruning.LATE_MOVE_REDUCTIONS) && depth >= REDUCTION_MIN_DEPTH &&
+                        moveCount >= REDUCTION_MIN_MOVE && isQuiet && !isInCheck && !givesCheck) {
+                    reduction = REDUCTIONS[Math.min(depth, MAX_PLY - 1)][Math.min(moveCount, MoveGenerator.MAX_MOVES - 1)];
+                    reduction = Math.max(0, Math.min(depth - 2, isPvNode ? reduction - 1 : reduction));
+                }
+                if (reduction > 0) {
+                    this.statistics.reducedSearches++;
+                    score = -negamax(depth - 1 - reduction, ply + 1, -alpha - 1, -alpha);
+                    if (score > alpha) {
+                        this.statistics.reducedResearches++;
+                        score = -negamax(depth - 1, ply + 1, -alpha - 1, -alpha);
+                    }
+                } else {
+                    score = -negamax(depth - 1, ply + 1, -alpha - 1, -alpha);
+                }
+                if (score > alpha && score < beta) {
+                    score = -negamax(depth - 1, ply + 1, -beta, -alpha);
+                }
+            }
+            this.board.unmakeMove();
+            if (this.stopped) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePrincipalVariation(ply, move);
+                    if (alpha >= beta) {
+                        if (isQuiet) {
+                            updateQuietHistory(ply, depth, move, quiets, quietCount);
+                        }
+                        break;
+                    }
+                }
+            }
+            if (isQuiet) {
+                quiets[quietCount++] = move;
+            }
+        }
+        if (moveCount == 0) {
+            return isInCheck ? -MATE + ply : DRAW;
+        }
+
+        // the later multi pv lines search the root without its best moves, their score is not the root's score
+        if (ply > 0 || this.excludedRootMoves.isEmpty()) {
+            final int bound = bestScore >= beta ? LOWER_BOUND : bestScore > originalAlpha ? EXACT : UPPER_BOUND;
+            this.transpositionTable.store(key, bestMove, scoreToTable(bestScore, ply), depth, bound);
+        }
+        return bestScore;
+    }
+
+    // captures and promotions until the position is quiet, so no score is taken in the middle of an exchange
+    // the side to move may stand pat on the static score unless it is in check, then every evasion is searched
+    private int quiescence(final int ply, int alpha, final int beta) {
+        this.pvLength[ply] = ply;
+        this.statistics.quiescenceNodes++;
+        if ((++this.nodes & CHECK_INTERVAL) == 0) {
+            checkLimits();
+        }
+        if (this.stopped) {
+            return 0;
+        }
+        if (ply >= MAX_PLY - 1) {
+            return this.evaluator.evaluate(this.board);
+        }
+
+        final boolean isInCheck = this.board.isInCheck();
+        int bestScore = -INFINITY;
+        int standPat = 0;
+        if (!isInCheck) {
+            standPat = this.evaluator.evaluate(this.board);
+            if (standPat >= beta) {
+                return standPat;
+            }
+            if (standPat > alpha) {
+                alpha = standPat;
+            }
+            bestScore = standPat;
+        }
+
+        // the picker leaves out captures that lose material by static exchange
+        final MovePicker movePicker = this.movePickers[ply];
+        movePicker.resetQuiescence(this.board, isInCheck, this.history);
+        int moveCount = 0;
+        int move;
+        while ((move = movePicker.next()) != MoveEncoding.NULL_MOVE) {
+            moveCount++;
+            if (!isInCheck && !MoveEncoding.isPromotion(move) &&
+                    standPat + MovePicker.PIECE_VALUES[MoveEncoding.getCapturedPieceType(move)] + DELTA_MARGIN <= alpha) {
+                continue;
+            }
+            this.board.makeMove(move);
+            final int score = -quiescence(ply + 1, -beta, -alpha);
+            this.board.unmakeMove();
+            if (this.stopped) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePrincipalVariation(ply, move);
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        if (isInCheck && moveCount == 0) {
+            return -MATE + ply;
+        }
+        return bestScore;
+    }
+
+    // the move that cut becomes the first killer of the ply and gains history, the quiet moves tried before it lose
+    private void updateQuietHistory(final int ply, final int depth, final int move, final int[] quiets,
+                                    final int quietCount) {
+        final int[] plyKillers = this.killers[ply];
+        if (plyKillers[0] != move) {
+            plyKillers[1] = plyKillers[0];
+            plyKillers[0] = move;
+        }
+        final int[][] colorHistory = this.history[this.board.getSideToMove()];
+        final int bonus = Math.min(depth * depth, MAX_HISTORY);
+        addHistory(colorHistory, move, bonus);
+        for (int i = 0; i < quietCount; i++) {
+            addHistory(colorHistory, quiets[i], -bonus);
+        }
+    }
+
+    // the bigger the score already is the less it moves towards the bound
+    private static void addHistory(final int[][] colorHistory, final int move, final int bonus) {
+        final int[] squareHistory = colorHistory[MoveEncoding.getFrom(move)];
+        final int to = MoveEncoding.getTo(move);
+        squareHistory[to] += bonus - squareHistory[to] * Math.abs(bonus) / MAX_HISTORY;
+    }
+
+    private boolean hasPiecesBesidesPawns() {
+        final int us = this.board.getSideToMove();
+        return (this.board.getPieces(us, BitBoard.KNIGHT) | this.board.getPieces(us, BitBoard.BISHOP) |
+                this.board.getPieces(us, BitBoard.ROOK) | this.board.getPieces(us, BitBoard.QUEEN)) != 0;
+    }
+
+    private static boolean isQuiet(final int move) {
+        return !MoveEncoding.isCapture(move) && !MoveEncoding.isPromotion(move);
+    }
+
+    // the move followed by the line the child found
+    private void updatePrincipalVariation(final int ply, final int move) {
+        final int[] line = this.pvTable[ply];
+        line[ply] = move;
+        final int childLength = this.pvLength[ply + 1];
+        System.arraycopy(this.pvTable[ply + 1], ply + 1, line, ply + 1, childLength - ply - 1);
+        this.pvLength[ply] = Math.max(childLength, ply + 1);
+    }
+
+    // called once every CHECK_INTERVAL + 1 nodes
+    private void checkLimits() {
+        long searchedNodes = this.nodes;
+        if (this.sharedNodes != null) {
+            this.sharedNodes.add(CHECK_INTERVAL + 1);
+            searchedNodes = this.sharedNodes.sum();
+        }
+        if (this.limits.getNodes() > 0 && searchedNodes >= this.limits.getNodes() ||
+                this.timeBudget > 0 && System.nanoTime() - this.startTime >= this.timeBudget) {
+            this.stopped = true;
+        }
+    }
+
+    private long elapsedMillis() {
+        return (System.nanoTime() - this.startTime) / 1_000_000L;
+    }
+
+    private static int[][] initReductions() {
+        final int[][] reductions = new int[MAX_PLY][MoveGenerator.MAX_MOVES];
+        for (int depth = 1; depth < MAX_PLY; depth++) {
+            for (int moveNumber = 1; moveNumber < MoveGenerator.MAX_MOVES; moveNumber++) {
+                reductions[depth][moveNumber] = (int) (0.75 + Math.log(depth) * Math.log(moveNumber) / 2.25);
+            }
+        }
+        return reductions;
+    }
+
+    // mate scores are stored as the distance from the stored position, not from the root
+    private static int scoreToTable(final int score, final int ply) {
+        return score >= MATE_BOUND ? score + ply : score <= -MATE_BOUND ? score - ply : score;
+    }
+
+    private static int scoreFromTable(final int score, final int ply) {
+        return score >= MATE_BOUND ? score - ply : score <= -MATE_BOUND ? score + ply : score;
+    }
+
+    public long getNodes() {
+        return this.nodes;
+    }
+}
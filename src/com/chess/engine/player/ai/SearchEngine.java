@@ -0,0 +1,30 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.Board;
+import com.chess.engine.board.Move;
+import com.chess.engine.board.MoveEncoding;
+import com.chess.engine.board.SearchBoard;
+
+// anything that picks a move for the side to move
+public interface SearchEngine {
+
+    // searches until a limit is reached or stop is called, the board is left as it was given
+    SearchResult search(SearchBoard board, SearchLimits limits);
+
+    // can be called from any thread, the search returns its last completed iteration
+    // a stop is only cleared by prepare or by a search returning, never by a search starting
+    void stop();
+
+    // clears the stop of the last search, called before the search is handed to another thread so a stop sent
+    // right after is not lost
+    void prepare();
+
+    void setListener(SearchListener listener);
+
+    // best move for the player to move on the gui board
+    default Move findBestMove(final Board board, final SearchLimits limits) {
+        final SearchResult result = search(new SearchBoard(board), limits);
+        return result.getBestMove() == MoveEncoding.NULL_MOVE ? Move.MoveFactory.getInvalidMove() :
+                Move.MoveFactory.createMove(board, result.getBestMove());
+    }
+}
@@ -0,0 +1,66 @@
+package com.chess.engine.player.ai;
+
+// when a search has to stop, any combination of depth, node count and time
+// a limit of zero means no limit, a search without any limit runs until it is stopped
+public final class SearchLimits {
+
+    private final int depth;
+    private final long nodes;
+    private final long moveTime;
+
+    private SearchLimits(final Builder builder) {
+        this.depth = builder.depth;
+        this.nodes = builder.nodes;
+        this.moveTime = builder.moveTime;
+    }
+
+    public static SearchLimits depth(final int depth) {
+        return new Builder().setDepth(depth).build();
+    }
+
+    public static SearchLimits moveTime(final long moveTime) {
+        return new Builder().setMoveTime(moveTime).build();
+    }
+
+    public static SearchLimits infinite() {
+        return new Builder().build();
+    }
+
+    public int getDepth() {
+        return this.depth;
+    }
+
+    public long getNodes() {
+        return this.nodes;
+    }
+
+    // milliseconds
+    public long getMoveTime() {
+        return this.moveTime;
+    }
+
+    public static class Builder {
+        int depth;
+        long nodes;
+        long moveTime;
+
+        public Builder setDepth(final int depth) {
+            this.depth = depth;
+            return this;
+        }
+
+        public Builder setNodes(final long nodes) {
+            this.nodes = nodes;
+            return this;
+        }
+
+        public Builder setMoveTime(final long moveTime) {
+            this.moveTime = moveTime;
+            return this;
+        }
+
+        public SearchLimits build() {
+            return new SearchLimits(this);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.chess.engine.player.ai;
+
+// told about every iteration the search completes, called on the searching thread
+public interface SearchListener {
+
+    void onIteration(SearchResult result);
+}
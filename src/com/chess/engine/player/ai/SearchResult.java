@@ -0,0 +1,93 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.MoveEncoding;
+
+import java.util.Arrays;
+
+// what one completed iteration of the search found
+public final class SearchResult {
+
+    private final int bestMove;
+    private final int score;
+    private final int depth;
+    private final long nodes;
+    private final long elapsedMillis;
+    private final int[] principalVariation;
+    private final int multiPv;
+
+    SearchResult(final int bestMove, final int score, final int depth, final long nodes, final long elapsedMillis,
+                 final int[] principalVariation, final int multiPv) {
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.elapsedMillis = elapsedMillis;
+        this.principalVariation = principalVariation;
+        this.multiPv = multiPv;
+    }
+
+    SearchResult(final int bestMove, final int score, final int depth, final long nodes, final long elapsedMillis,
+                 final int[] principalVariation) {
+        this(bestMove, score, depth, nodes, elapsedMillis, principalVariation, 1);
+    }
+
+    // encoded move, see MoveEncoding
+    public int getBestMove() {
+        return this.bestMove;
+    }
+
+    // centipawns from the side to move, mates are scored Search.MATE minus the plies to the mate
+    public int getScore() {
+        return this.score;
+    }
+
+    public boolean isMateScore() {
+        return Math.abs(this.score) >= Search.MATE_BOUND;
+    }
+
+    // moves to the mate, negative when the side to move gets mated
+    public int getMateIn() {
+        return this.score > 0 ? (Search.MATE - this.score + 1) / 2 : -(Search.MATE + this.score) / 2;
+    }
+
+    // the line of a multi-pv search, 1 for the best one
+    public int getMultiPv() {
+        return this.multiPv;
+    }
+
+    public int getDepth() {
+        return this.depth;
+    }
+
+    public long getNodes() {
+        return this.nodes;
+    }
+
+    public long getElapsedMillis() {
+        return this.elapsedMillis;
+    }
+
+    public long getNodesPerSecond() {
+        return this.elapsedMillis > 0 ? this.nodes * 1000 / this.elapsedMillis : this.nodes * 1000;
+    }
+
+    public int[] getPrincipalVariation() {
+        return Arrays.copyOf(this.principalVariation, this.principalVariation.length);
+    }
+
+    // the variation in long algebraic notation, moves separated by spaces
+    public String getPrincipalVariationText() {
+        final StringBuilder builder = new StringBuilder();
+        for (final int move : this.principalVariation) {
+            builder.append(builder.length() > 0 ? " " : "").append(MoveEncoding.toAlgebraic(move));
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("depth %d score %s nodes %d time %d nps %d pv %s", this.depth,
+                isMateScore() ? "mate " + getMateIn() : "cp " + this.score, this.nodes, this.elapsedMillis,
+                getNodesPerSecond(), getPrincipalVariationText());
+    }
+}
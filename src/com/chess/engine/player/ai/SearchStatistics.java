@@ -0,0 +1,99 @@
+package com.chess.engine.player.ai;
+
+// counts of what the search did, for measuring pruning against the nodes it saves
+// kept by one search thread and only read once it is done
+public final class SearchStatistics {
+
+    long nodes;
+    long quiescenceNodes;
+    long nullMoveSearches;
+    long nullMoveCutoffs;
+    long reducedSearches;
+    long reducedResearches;
+    long reverseFutilityCutoffs;
+    long futilityPrunedMoves;
+    long razoringCutoffs;
+    long tablebaseHits;
+    // nodes at the end of every completed iteration, by depth
+    private final long[] iterationNodes = new long[Search.MAX_PLY];
+    private int completedDepth;
+
+    void reset() {
+        this.nodes = 0;
+        this.quiescenceNodes = 0;
+        this.nullMoveSearches = 0;
+        this.nullMoveCutoffs = 0;
+        this.reducedSearches = 0;
+        this.reducedResearches = 0;
+        this.reverseFutilityCutoffs = 0;
+        this.futilityPrunedMoves = 0;
+        this.razoringCutoffs = 0;
+        this.tablebaseHits = 0;
+        this.completedDepth = 0;
+    }
+
+    void completeIteration(final int depth, final long totalNodes) {
+        this.iterationNodes[depth] = totalNodes;
+        this.completedDepth = depth;
+    }
+
+    // nodes of the last iteration over the nodes of the one before, the tree grows by this much per ply
+    public double getEffectiveBranchingFactor() {
+        final int depth = this.completedDepth;
+        if (depth < 3) {
+            return 0;
+        }
+        final long last = this.iterationNodes[depth] - this.iterationNodes[depth - 1];
+        final long previous = this.iterationNodes[depth - 1] - this.iterationNodes[depth - 2];
+        return previous > 0 ? (double) last / previous : 0;
+    }
+
+    public long getNodes() {
+        return this.nodes;
+    }
+
+    public long getQuiescenceNodes() {
+        return this.quiescenceNodes;
+    }
+
+    public long getNullMoveSearches() {
+        return this.nullMoveSearches;
+    }
+
+    public long getNullMoveCutoffs() {
+        return this.nullMoveCutoffs;
+    }
+
+    public long getReducedSearches() {
+        return this.reducedSearches;
+    }
+
+    public long getReducedResearches() {
+        return this.reducedResearches;
+    }
+
+    public long getReverseFutilityCutoffs() {
+        return this.reverseFutilityCutoffs;
+    }
+
+    public long getFutilityPrunedMoves() {
+        return this.futilityPrunedMoves;
+    }
+
+    public long getRazoringCutoffs() {
+        return this.razoringCutoffs;
+    }
+
+    public long getTablebaseHits() {
+        return this.tablebaseHits;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("nodes %d qnodes %d ebf %.2f null move %d/%d lmr %d/%d reverse futility %d " +
+                        "futility %d razoring %d tablebase %d", this.nodes, this.quiescenceNodes, getEffectiveBranchingFactor(),
+                this.nullMoveCutoffs, this.nullMoveSearches, this.reducedResearches, this.reducedSearches,
+                this.reverseFutilityCutoffs, this.futilityPrunedMoves, this.razoringCutoffs,
+                this.tablebaseHits);
+    }
+}
@@ -0,0 +1,80 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.BitBoard;
+import com.chess.engine.board.MoveEncoding;
+import com.chess.engine.board.SearchBoard;
+
+import static com.chess.engine.board.BitBoard.*;
+
+// static exchange evaluation, the material balance of all captures on the destination square of a move
+// both sides recapture with their least valuable attacker and either side may stop when going on loses,
+// sliders behind a piece that captured join the exchange, pins are not looked at
+final class StaticExchange {
+
+    private StaticExchange() {
+        throw new RuntimeException("Cannot be initialized. Utilities only");
+    }
+
+    // true when the side to move comes out of the exchange with at least threshold, in PieceType values
+    // instead of building the whole list of gains, swap holds what the side that just captured stands to lose
+    // if the exchange goes on, and the answer flips every time a side can capture without falling below it
+    static boolean isAtLeast(final SearchBoard board, final int move, final int threshold) {
+        final int from = MoveEncoding.getFrom(move);
+        final int to = MoveEncoding.getTo(move);
+        final int[] values = MovePicker.PIECE_VALUES;
+
+        int pieceOnSquare = MoveEncoding.getMovedPieceType(move);
+        int gain = MoveEncoding.isCapture(move) ? values[MoveEncoding.getCapturedPieceType(move)] : 0;
+        if (MoveEncoding.isPromotion(move)) {
+            pieceOnSquare = MoveEncoding.getPromotionType(move);
+            gain += values[pieceOnSquare] - values[PAWN];
+        }
+        int swap = gain - threshold;
+        if (swap < 0) {
+            return false;
+        }
+        swap = values[pieceOnSquare] - swap;
+        if (swap <= 0) {
+            return true;
+        }
+
+        long occupancy = board.getOccupancy() ^ (1L << from);
+        if (MoveEncoding.isEnPassant(move)) {
+            occupancy ^= 1L << (to + (board.getSideToMove() == WHITE ? 8 : -8));
+        }
+        final long diagonalSliders = board.getPieces(WHITE, BISHOP) | board.getPieces(BLACK, BISHOP) |
+                board.getPieces(WHITE, QUEEN) | board.getPieces(BLACK, QUEEN);
+        final long straightSliders = board.getPieces(WHITE, ROOK) | board.getPieces(BLACK, ROOK) |
+                board.getPieces(WHITE, QUEEN) | board.getPieces(BLACK, QUEEN);
+        long attackers = board.attackersTo(to, occupancy);
+        int side = board.getSideToMove();
+        boolean result = true;
+
+        while (true) {
+            side ^= 1;
+            attackers &= occupancy;
+            final long sideAttackers = attackers & board.getOccupancy(side);
+            if (sideAttackers == 0) {
+                break;
+            }
+            result = !result;
+            int attackerType = PAWN;
+            long attacker = sideAttackers & board.getPieces(side, PAWN);
+            while (attacker == 0) {
+                attacker = sideAttackers & board.getPieces(side, ++attackerType);
+            }
+            // the king only captures when nothing can take it back
+            if (attackerType == KING) {
+                return (attackers & board.getOccupancy(side ^ 1)) != 0 ? !result : result;
+            }
+            swap = values[attackerType] - swap;
+            if (swap < (result ? 1 : 0)) {
+                break;
+            }
+            occupancy ^= Long.lowestOneBit(attacker);
+            attackers |= BitBoard.bishopAttacks(to, occupancy) & diagonalSliders |
+                    BitBoard.rookAttacks(to, occupancy) & straightSliders;
+        }
+        return result;
+    }
+}
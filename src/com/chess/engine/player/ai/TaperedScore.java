@@ -0,0 +1,23 @@
+package com.chess.engine.player.ai;
+
+// a middlegame and an endgame score packed in one int, so both are summed with a single addition
+// the endgame half sits in the low 16 bits and borrows from the middlegame half when negative, unpacking
+// rounds that borrow back
+final class TaperedScore {
+
+    private TaperedScore() {
+        throw new RuntimeException("Cannot be initialized. Utilities only");
+    }
+
+    static int make(final int midgame, final int endgame) {
+        return (midgame << 16) + endgame;
+    }
+
+    static int midgame(final int score) {
+        return (score + 0x8000) >> 16;
+    }
+
+    static int endgame(final int score) {
+        return (short) score;
+    }
+}
@@ -0,0 +1,161 @@
+package com.chess.engine.player.ai;
+
+import java.util.Arrays;
+
+// fixed size hash table of search results, shared by every search thread without locks
+// an entry is two longs, the key xor the data and the data itself
+// a racing write from another thread can tear an entry, but then key ^ data no longer gives back the key
+// so a torn entry simply reads as a miss
+public final class TranspositionTable {
+
+    // bound types
+    public static final int EXACT = 1;
+    public static final int LOWER_BOUND = 2;
+    public static final int UPPER_BOUND = 3;
+
+    // returned by probe when the position is not stored, real entries never pack to zero
+    public static final long NO_ENTRY = 0L;
+
+    public static final int DEFAULT_SIZE_MB = 16;
+    public static final int MAX_DEPTH = 0xFF;
+
+    // every bucket holds a depth preferred entry followed by an always replace entry
+    private static final int LONGS_PER_ENTRY = 2;
+    private static final int LONGS_PER_BUCKET = 2 * LONGS_PER_ENTRY;
+    private static final int BYTES_PER_BUCKET = LONGS_PER_BUCKET * Long.BYTES;
+
+    // data layout: bits 0-31 move, 32-47 score, 48-55 depth, 56-57 bound, 58-63 search generation
+    private static final int SCORE_SHIFT = 32;
+    private static final int DEPTH_SHIFT = 48;
+    private static final int BOUND_SHIFT = 56;
+    private static final int GENERATION_SHIFT = 58;
+    private static final int GENERATION_MASK = 0x3F;
+
+    private long[] table;
+    private int bucketMask;
+    private int generation;
+
+    public TranspositionTable(final int sizeInMb) {
+        resize(sizeInMb);
+    }
+
+    public TranspositionTable() {
+        this(DEFAULT_SIZE_MB);
+    }
+
+    // the bucket count is rounded down to a power of two so the index is a mask of the key
+    public void resize(final int sizeInMb) {
+        final long bytes = Math.max(1, sizeInMb) * 1024L * 1024L;
+        final long buckets = Long.highestOneBit(Math.max(1, bytes / BYTES_PER_BUCKET));
+        final long maxBuckets = Integer.highestOneBit(Integer.MAX_VALUE / LONGS_PER_BUCKET);
+        final int bucketCount = (int) Math.min(buckets, maxBuckets);
+        this.table = new long[bucketCount * LONGS_PER_BUCKET];
+        this.bucketMask = bucketCount - 1;
+        this.generation = 0;
+    }
+
+    public void clear() {
+        Arrays.fill(this.table, 0L);
+        this.generation = 0;
+    }
+
+    // called once per search so entries from older searches are the first to be replaced
+    public void newSearch() {
+        this.generation = (this.generation + 1) & GENERATION_MASK;
+    }
+
+    public int getSizeInMb() {
+        return (int) ((long) this.table.length * Long.BYTES / (1024L * 1024L));
+    }
+
+    public long probe(final long key) {
+        final long[] entries = this.table;
+        final int index = bucketIndex(key);
+        for (int i = index; i < index + LONGS_PER_BUCKET; i += LONGS_PER_ENTRY) {
+            final long data = entries[i + 1];
+            if ((entries[i] ^ data) == key) {
+                return data;
+            }
+        }
+        return NO_ENTRY;
+    }
+
+    public void store(final long key, final int move, final int score, final int depth, final int bound) {
+        final long[] entries = this.table;
+        final int index = bucketIndex(key);
+        final int clampedDepth = Math.max(0, Math.min(MAX_DEPTH, depth));
+
+        // same position already stored, keep its move when the new result has none
+        for (int i = index; i < index + LONGS_PER_BUCKET; i += LONGS_PER_ENTRY) {
+            final long data = entries[i + 1];
+            if ((entries[i] ^ data) == key) {
+                final int storedMove = move != 0 ? move : getMove(data);
+                write(entries, i, key, pack(storedMove, score, clampedDepth, bound, this.generation));
+                return;
+            }
+        }
+
+        // the depth preferred slot is only given up for a deeper search or a stale entry
+        final long preferred = entries[index + 1];
+        if (preferred == NO_ENTRY || clampedDepth >= getDepth(preferred) ||
+                getGeneration(preferred) != this.generation) {
+            write(entries, index, key, pack(move, score, clampedDepth, bound, this.generation));
+        } else {
+            write(entries, index + LONGS_PER_ENTRY, key, pack(move, score, clampedDepth, bound, this.generation));
+        }
+    }
+
+    // permille of the first thousand buckets written during the current search
+    public int getHashFull() {
+        final int buckets = Math.min(1000, this.bucketMask + 1);
+        int used = 0;
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            final int index = bucket * LONGS_PER_BUCKET;
+            for (int i = index; i < index + LONGS_PER_BUCKET; i += LONGS_PER_ENTRY) {
+                final long data = this.table[i + 1];
+                if (data != NO_ENTRY && getGeneration(data) == this.generation) {
+                    used++;
+                }
+            }
+        }
+        return used * 1000 / (buckets * 2);
+    }
+
+    private int bucketIndex(final long key) {
+        return ((int) key & this.bucketMask) * LONGS_PER_BUCKET;
+    }
+
+    private static void write(final long[] entries, final int index, final long key, final long data) {
+        entries[index] = key ^ data;
+        entries[index + 1] = data;
+    }
+
+    private static long pack(final int move, final int score, final int depth, final int bound,
+                             final int generation) {
+        return (move & 0xFFFFFFFFL) |
+               ((score & 0xFFFFL) << SCORE_SHIFT) |
+               ((long) depth << DEPTH_SHIFT) |
+               ((long) bound << BOUND_SHIFT) |
+               ((long) generation << GENERATION_SHIFT);
+    }
+
+    public static int getMove(final long data) {
+        return (int) data;
+    }
+
+    public static int getScore(final long data) {
+        return (short) (data >>> SCORE_SHIFT);
+    }
+
+    public static int getDepth(final long data) {
+        return (int) (data >>> DEPTH_SHIFT) & 0xFF;
+    }
+
+    public static int getBound(final long data) {
+        return (int) (data >>> BOUND_SHIFT) & 0x3;
+    }
+
+    private static int getGeneration(final long data) {
+        return (int) (data >>> GENERATION_SHIFT) & GENERATION_MASK;
+    }
+}
@@ -0,0 +1,402 @@
+package com.chess.engine.player.ai;
+
+import com.chess.engine.board.MoveEncoding;
+import com.chess.engine.board.MoveList;
+import com.chess.engine.board.SearchBoard;
+import com.chess.engine.board.Utilities;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.chess.engine.player.ai.Search.*;
+
+// young brothers wait on a fork-join pool
+// the first move of a node is searched serially, then the remaining moves are forked as tasks that all get the
+// alpha known at that moment, a sibling that fails high cancels the others below the same split point
+// there is no transposition table, no history or killers and scores are fail-hard, so every task's result only
+// depends on its position, depth and window, and a search to a fixed depth returns the same move and score on every
+// run with any number of threads, among equal scores the move that comes first wins
+// the moves are ordered by the same picker as the main search, captures by victim and attacker and then by static
+// exchange, and the leaves are resolved by a quiescence search over the captures
+// time and node limits still work but a search cut short by them is not reproducible
+public final class YoungBrothersWaitSearch implements SearchEngine {
+
+    // below this depth a node is searched serially by the task that reached it
+    private static final int MIN_SPLIT_DEPTH = 3;
+    // nodes a task searches between two reads of the clock
+    private static final int CHECK_INTERVAL = 1023;
+    // the pickers only read history, this one stays empty so the order depends on the position alone
+    private static final int[][][] NO_HISTORY = new int[2][Utilities.NUM_SQUARES][Utilities.NUM_SQUARES];
+    // picker stacks of every pool thread, a task borrows one while it runs, a task the thread runs while it waits
+    // in a join borrows another
+    private static final ThreadLocal<ArrayDeque<MovePicker[]>> FREE_PICKERS =
+            ThreadLocal.withInitial(ArrayDeque::new);
+
+    private final Evaluator evaluator;
+    private final LongAdder nodes;
+    private ForkJoinPool pool;
+    private SearchListener listener;
+    private volatile boolean stopped;
+    private SearchLimits limits;
+    private long startTime;
+    // nanoseconds from the start, 0 when the search is not timed
+    private long timeBudget;
+
+    public YoungBrothersWaitSearch(final Evaluator evaluator, final int threads) {
+        this.evaluator = evaluator;
+        this.nodes = new LongAdder();
+        setThreads(threads);
+    }
+
+    // not to be called while a search runs
+    public void setThreads(final int threads) {
+        if (this.pool != null) {
+            this.pool.shutdownNow();
+        }
+        this.pool = new ForkJoinPool(Math.max(1, threads));
+    }
+
+    public void shutdown() {
+        this.pool.shutdownNow();
+    }
+
+    public int getThreads() {
+        return this.pool.getParallelism();
+    }
+
+    @Override
+    public void setListener(final SearchListener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void stop() {
+        this.stopped = true;
+    }
+
+    @Override
+    public void prepare() {
+        this.stopped = false;
+    }
+
+    @Override
+    public SearchResult search(final SearchBoard board, final SearchLimits limits) {
+        final SearchResult result = iterate(board, limits);
+        // a limit reached leaves the search stopped, the next search starts clear without a prepare
+        prepare();
+        return result;
+    }
+
+    private SearchResult iterate(final SearchBoard board, final SearchLimits limits) {
+        this.limits = limits;
+        this.nodes.reset();
+        this.startTime = System.nanoTime();
+        this.timeBudget = limits.getMoveTime() * 1_000_000L;
+
+        // the first iteration searches the root moves in the picker's order
+        final MoveList rootMoves = new MoveList();
+        final MovePicker rootPicker = new MovePicker();
+        rootPicker.reset(board, MoveEncoding.NULL_MOVE, MoveEncoding.NULL_MOVE, MoveEncoding.NULL_MOVE, NO_HISTORY);
+        int move;
+        while ((move = rootPicker.next()) != MoveEncoding.NULL_MOVE) {
+            rootMoves.add(move);
+        }
+        final int rootMoveCount = rootMoves.size();
+        SearchResult result = new SearchResult(rootMoveCount > 0 ? rootMoves.get(0) : MoveEncoding.NULL_MOVE,
+                0, 0, 0, 0, new int[0]);
+        if (rootMoveCount == 0) {
+            return result;
+        }
+
+        final int maxDepth = limits.getDepth() > 0 ? Math.min(limits.getDepth(), MAX_PLY - 1) : MAX_PLY - 1;
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            final RootTask root = new RootTask(board, rootMoves, depth);
+            this.pool.invoke(root);
+            if (this.stopped) {
+                break;
+            }
+            // the best move is searched first in the next iteration, the order of the others is kept
+            for (int i = root.bestIndex; i > 0; i--) {
+                rootMoves.swap(i, i - 1);
+            }
+            result = new SearchResult(rootMoves.get(0), root.bestScore, depth, this.nodes.sum(), elapsedMillis(),
+                    new int[]{rootMoves.get(0)});
+            if (this.listener != null) {
+                this.listener.onIteration(result);
+            }
+            if (Math.abs(root.bestScore) >= MATE_BOUND && depth >= MATE - Math.abs(root.bestScore) ||
+                    this.timeBudget > 0 && System.nanoTime() - this.startTime > this.timeBudget / 2) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    private long elapsedMillis() {
+        return (System.nanoTime() - this.startTime) / 1_000_000L;
+    }
+
+    // the siblings forked at one node, cancelled when one of them fails high or the node itself is cancelled
+    private static final class SplitPoint {
+        private final SplitPoint parent;
+        private volatile boolean isCutOff;
+
+        SplitPoint(final SplitPoint parent) {
+            this.parent = parent;
+        }
+
+        boolean isCancelled() {
+            for (SplitPoint splitPoint = this; splitPoint != null; splitPoint = splitPoint.parent) {
+                if (splitPoint.isCutOff) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    // the root keeps the score of every move to pick the best one by score and then by order
+    // the tasks are serializable through ForkJoinTask but never serialized
+    @SuppressWarnings("serial")
+    private final class RootTask extends RecursiveTask<Integer> {
+        private final SearchBoard board;
+        private final MoveList moves;
+        private final int depth;
+        private int bestIndex;
+        private int bestScore;
+
+        RootTask(final SearchBoard board, final MoveList moves, final int depth) {
+            this.board = board;
+            this.moves = moves;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Integer compute() {
+            final NodeTask eldest = new NodeTask(this.board, this.moves.get(0), this.depth - 1, 1,
+                    -INFINITY, INFINITY, null);
+            this.bestScore = -eldest.compute();
+            this.bestIndex = 0;
+
+            final int alpha = this.bestScore;
+            final NodeTask[] siblings = new NodeTask[this.moves.size() - 1];
+            for (int i = 1; i < this.moves.size(); i++) {
+                siblings[i - 1] = new NodeTask(this.board, this.moves.get(i), this.depth - 1, 1,
+                        -INFINITY, -alpha, null);
+            }
+            ForkJoinTask.invokeAll(siblings);
+            for (int i = 0; i < siblings.length; i++) {
+                final int score = -siblings[i].join();
+                if (score > this.bestScore) {
+                    this.bestScore = score;
+                    this.bestIndex = i + 1;
+                }
+            }
+            return this.bestScore;
+        }
+    }
+
+    // searches one move on its own copy of the board, serially until a node deep enough to split is reached
+    @SuppressWarnings("serial")
+    private final class NodeTask extends RecursiveTask<Integer> {
+        private final SearchBoard parentBoard;
+        private final int move;
+        private final int depth;
+        private final int ply;
+        private final int alpha;
+        private final int beta;
+        private final SplitPoint splitPoint;
+        private MovePicker[] movePickers;
+        private long taskNodes;
+
+        NodeTask(final SearchBoard parent, final int move, final int depth, final int ply, final int alpha,
+                 final int beta, final SplitPoint splitPoint) {
+            this.parentBoard = parent;
+            this.move = move;
+            this.depth = depth;
+            this.ply = ply;
+            this.alpha = alpha;
+            this.beta = beta;
+            this.splitPoint = splitPoint;
+        }
+
+        @Override
+        protected Integer compute() {
+            // the parent board is only read, every task makes its move on a copy
+            final SearchBoard board = new SearchBoard(this.parentBoard);
+            board.makeMove(this.move);
+            final ArrayDeque<MovePicker[]> freePickers = FREE_PICKERS.get();
+            this.movePickers = freePickers.isEmpty() ? new MovePicker[MAX_PLY] : freePickers.pop();
+            try {
+                return search(board, this.depth, this.ply, this.alpha, this.beta, this.splitPoint);
+            } finally {
+                freePickers.push(this.movePickers);
+                // most tasks end before their first check, the limits are checked once more with their nodes
+                YoungBrothersWaitSearch.this.nodes.add(this.taskNodes);
+                checkLimits();
+            }
+        }
+
+        private MovePicker movePicker(final int ply) {
+            if (this.movePickers[ply] == null) {
+                this.movePickers[ply] = new MovePicker();
+            }
+            return this.movePickers[ply];
+        }
+
+        // fail-hard negamax, the result always lies inside the window
+        private int search(final SearchBoard board, final int depth, final int ply, int alpha, final int beta,
+                           final SplitPoint splitPoint) {
+            if (isCancelled(splitPoint)) {
+                return alpha;
+            }
+            if (board.isRepetition() || board.getHalfMoveClock() >= 100) {
+                return clamp(DRAW, alpha, beta);
+            }
+            if (depth <= 0 || ply >= MAX_PLY - 1) {
+                return quiescence(board, ply, alpha, beta, splitPoint);
+            }
+
+            final MovePicker movePicker = movePicker(ply);
+            movePicker.reset(board, MoveEncoding.NULL_MOVE, MoveEncoding.NULL_MOVE, MoveEncoding.NULL_MOVE,
+                    NO_HISTORY);
+            int moveCount = 0;
+            int move;
+            while ((move = movePicker.next()) != MoveEncoding.NULL_MOVE) {
+                // the eldest brother has been searched, the others are split off when the node is deep enough
+                if (moveCount > 0 && depth >= MIN_SPLIT_DEPTH) {
+                    return split(board, movePicker, move, depth, ply, alpha, beta, splitPoint);
+                }
+                moveCount++;
+                board.makeMove(move);
+                final int score = -search(board, depth - 1, ply + 1, -beta, -alpha, splitPoint);
+                board.unmakeMove();
+                if (score >= beta) {
+                    return beta;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                }
+            }
+            if (moveCount == 0) {
+                return clamp(board.isInCheck() ? -MATE + ply : DRAW, alpha, beta);
+            }
+            return alpha;
+        }
+
+        // fail-hard like the search above it, the side to move may stand pat unless it is in check
+        private int quiescence(final SearchBoard board, final int ply, int alpha, final int beta,
+                               final SplitPoint splitPoint) {
+            if (isCancelled(splitPoint)) {
+                return alpha;
+            }
+            if (ply >= MAX_PLY - 1) {
+                return clamp(evaluator.evaluate(board), alpha, beta);
+            }
+            final boolean isInCheck = board.isInCheck();
+            if (!isInCheck) {
+                final int standPat = evaluator.evaluate(board);
+                if (standPat >= beta) {
+                    return beta;
+                }
+                if (standPat > alpha) {
+                    alpha = standPat;
+                }
+            }
+
+            // the picker leaves out captures that lose material by static exchange
+            final MovePicker movePicker = movePicker(ply);
+            movePicker.resetQuiescence(board, isInCheck, NO_HISTORY);
+            int moveCount = 0;
+            int move;
+            while ((move = movePicker.next()) != MoveEncoding.NULL_MOVE) {
+                moveCount++;
+                board.makeMove(move);
+                final int score = -quiescence(board, ply + 1, -beta, -alpha, splitPoint);
+                board.unmakeMove();
+                if (score >= beta) {
+                    return beta;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                }
+            }
+            if (isInCheck && moveCount == 0) {
+                return clamp(-MATE + ply, alpha, beta);
+            }
+            return alpha;
+        }
+
+        private boolean isCancelled(final SplitPoint splitPoint) {
+            // the nodes are handed to the shared count before every check, a node limit sees the running tasks
+            if ((++this.taskNodes & CHECK_INTERVAL) == 0) {
+                YoungBrothersWaitSearch.this.nodes.add(this.taskNodes);
+                this.taskNodes = 0;
+                checkLimits();
+            }
+            return stopped || splitPoint != null && splitPoint.isCancelled();
+        }
+
+        // the move handed out and the ones the picker still holds become tasks that share the alpha of this moment
+        private int split(final SearchBoard board, final MovePicker movePicker, final int first, final int depth,
+                          final int ply, final int alpha, final int beta, final SplitPoint parent) {
+            final MoveList moves = new MoveList();
+            for (int move = first; move != MoveEncoding.NULL_MOVE; move = movePicker.next()) {
+                moves.add(move);
+            }
+            final SplitPoint splitPoint = new SplitPoint(parent);
+            final SiblingTask[] siblings = new SiblingTask[moves.size()];
+            for (int i = 0; i < moves.size(); i++) {
+                siblings[i] = new SiblingTask(new NodeTask(board, moves.get(i), depth - 1, ply + 1,
+                        -beta, -alpha, splitPoint), beta, splitPoint);
+            }
+            ForkJoinTask.invokeAll(siblings);
+            int best = alpha;
+            for (final SiblingTask sibling : siblings) {
+                final int score = -sibling.join();
+                if (score >= beta) {
+                    return beta;
+                }
+                best = Math.max(best, score);
+            }
+            return best;
+        }
+    }
+
+    // runs a sibling and cuts off the others of its split point when it fails high
+    @SuppressWarnings("serial")
+    private static final class SiblingTask extends RecursiveTask<Integer> {
+        private final NodeTask task;
+        private final int beta;
+        private final SplitPoint splitPoint;
+
+        SiblingTask(final NodeTask task, final int beta, final SplitPoint splitPoint) {
+            this.task = task;
+            this.beta = beta;
+            this.splitPoint = splitPoint;
+        }
+
+        @Override
+        protected Integer compute() {
+            final int score = this.task.compute();
+            if (-score >= this.beta) {
+                this.splitPoint.isCutOff = true;
+            }
+            return score;
+        }
+    }
+
+    private void checkLimits() {
+        if (this.limits.getNodes() > 0 && this.nodes.sum() >= this.limits.getNodes() ||
+                this.timeBudget > 0 && System.nanoTime() - this.startTime >= this.timeBudget) {
+            this.stopped = true;
+        }
+    }
+
+    private static int clamp(final int score, final int alpha, final int beta) {
+        return Math.max(alpha, Math.min(beta, score));
+    }
+}
@@ -321,10 +321,6 @@ public class Table {
         private void highlightLegals(final Board board) {
             if (highlightLegalMoves) {
                 for (final Move move : pieceLegalMoves(board)) {
-                    MoveTransition transition = board.currentPlayer().makeMove(move);
-                    if(!transition.getMoveStatus().isDone()) {
-                        continue;
-                    }
                     if (move.getDestinationPosition() == this.squareId) {
                         try {
                             add(new JLabel(new ImageIcon(ImageIO.read(new File("art/misc/green_dot.png")))));
@@ -337,8 +333,15 @@ public class Table {
         }
 
         private Collection<Move> pieceLegalMoves(final Board board) {
+            // the player's moves are already legal, no move has to be tried on a new board
             if (humanPiece != null && humanPiece.getPieceColor() == board.currentPlayer().getColor()) {
-                return humanPiece.findLegalMove(board);
+                final List<Move> pieceMoves = new ArrayList<>();
+                for (final Move move : board.currentPlayer().getLegalMoves()) {
+                    if (move.getCurrentPosition() == humanPiece.getPiecePosition()) {
+                        pieceMoves.add(move);
+                    }
+                }
+                return pieceMoves;
             }
             return Collections.emptyList();
         }
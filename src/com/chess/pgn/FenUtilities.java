@@ -0,0 +1,331 @@
+package com.chess.pgn;
+
+import com.chess.engine.Color;
+import com.chess.engine.board.BitBoard;
+import com.chess.engine.board.Board;
+import com.chess.engine.board.SearchBoard;
+import com.chess.engine.board.Utilities;
+import com.chess.engine.pieces.*;
+
+import java.util.Arrays;
+import java.util.function.IntUnaryOperator;
+
+import static com.chess.engine.board.BitBoard.*;
+
+// Forsyth-Edwards notation, the standard one line text form of a position
+// the text is read character by character into square order and the board is built straight from that, batch jobs
+// read millions of positions from fen and epd files, an epd line is the first four fields followed by its operations
+public class FenUtilities {
+
+    public static final String STANDARD_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private static final String PIECE_CHARACTERS = "PNBRQKpnbrqk";
+    private static final int[] PIECE_INDEXES = initPieceIndexes();
+    // 64 squares, 7 separators and the longest other fields
+    private static final int MAX_FEN_LENGTH = 92;
+
+    private FenUtilities() {
+        throw new RuntimeException("Not instantiable");
+    }
+
+    public static Board createGameFromFEN(final String fenString) {
+        final Position position = parse(fenString);
+        final Piece[] pieces = new Piece[Utilities.NUM_SQUARES];
+        for (int square = 0; square < Utilities.NUM_SQUARES; square++) {
+            if (position.squares[square] != SearchBoard.NO_PIECE) {
+                pieces[square] = createPiece(position.squares[square], square, position.castlingRights);
+            }
+        }
+        final Color moveMaker = position.sideToMove == WHITE ? Color.WHITE : Color.BLACK;
+        Pawn enPassantPawn = null;
+        if (position.enPassantSquare != NO_SQUARE) {
+            // the pawn that jumped stands one square past the en passant square
+            enPassantPawn = (Pawn) pieces[position.enPassantSquare + (moveMaker.isWhite() ? 8 : -8)];
+        }
+        return Board.createBoard(pieces, moveMaker, enPassantPawn);
+    }
+
+    // the mutable board without building a Board first, keeping the move counters Board has no room for
+    public static SearchBoard createSearchBoardFromFEN(final String fenString) {
+        final Position position = parse(fenString);
+        return new SearchBoard(position.squares, position.sideToMove, position.castlingRights,
+                position.enPassantSquare, position.halfMoveClock, position.fullMoveNumber);
+    }
+
+    // reads the position into an existing board, for batch jobs that go through many positions one at a time
+    public static void setSearchBoardFromFEN(final SearchBoard board, final String fenString) {
+        final Position position = parse(fenString);
+        board.setPosition(position.squares, position.sideToMove, position.castlingRights,
+                position.enPassantSquare, position.halfMoveClock, position.fullMoveNumber);
+    }
+
+    // Board does not count moves, its counters are written as those of a new game
+    public static String createFENFromGame(final Board board) {
+        final BitBoard bitBoard = board.getBitBoard();
+        return write(bitBoard::getPieceIndexAt, bitBoard.getSideToMove(), bitBoard.getCastlingRights(),
+                bitBoard.getEnPassantSquare(), 0, 1);
+    }
+
+    public static String createFENFromGame(final SearchBoard board) {
+        return write(board::getPieceIndexAt, board.getSideToMove(), board.getCastlingRights(),
+                board.getEnPassantSquare(), board.getHalfMoveClock(), board.getFullMoveNumber());
+    }
+
+    private static Position parse(final String fen) {
+        final Position position = new Position();
+        final int length = fen.length();
+        int index = skipSpaces(fen, 0);
+
+        // the ranks from the eighth down, the files from a to h, which is the order of the squares
+        int square = 0;
+        int file = 0;
+        int whiteKings = 0;
+        int blackKings = 0;
+        for (; index < length && fen.charAt(index) != ' '; index++) {
+            final char c = fen.charAt(index);
+            if (c == '/') {
+                if (file != Utilities.NUM_SQUARES_PER_ROW || square == Utilities.NUM_SQUARES) {
+                    throw invalid("board", fen);
+                }
+                file = 0;
+            } else if (c >= '1' && c <= '8') {
+                file += c - '0';
+                square += c - '0';
+                if (file > Utilities.NUM_SQUARES_PER_ROW) {
+                    throw invalid("board", fen);
+                }
+            } else {
+                final int pieceIndex = c < PIECE_INDEXES.length ? PIECE_INDEXES[c] : SearchBoard.NO_PIECE;
+                if (pieceIndex == SearchBoard.NO_PIECE || file == Utilities.NUM_SQUARES_PER_ROW) {
+                    throw invalid("board", fen);
+                }
+                whiteKings += pieceIndex == WHITE * NUM_PIECE_TYPES + KING ? 1 : 0;
+                blackKings += pieceIndex == BLACK * NUM_PIECE_TYPES + KING ? 1 : 0;
+                position.squares[square++] = pieceIndex;
+                file++;
+            }
+        }
+        if (square != Utilities.NUM_SQUARES || file != Utilities.NUM_SQUARES_PER_ROW) {
+            throw invalid("board", fen);
+        }
+        if (whiteKings != 1 || blackKings != 1) {
+            throw invalid("kings", fen);
+        }
+
+        index = skipSpaces(fen, index);
+        if (index == length || index + 1 < length && fen.charAt(index + 1) != ' ') {
+            throw invalid("side to move", fen);
+        }
+        if (fen.charAt(index) == 'w') {
+            position.sideToMove = WHITE;
+        } else if (fen.charAt(index) == 'b') {
+            position.sideToMove = BLACK;
+        } else {
+            throw invalid("side to move", fen);
+        }
+
+        index = skipSpaces(fen, index + 1);
+        if (index == length) {
+            throw invalid("castling", fen);
+        }
+        if (fen.charAt(index) == '-') {
+            index++;
+        } else {
+            for (; index < length && fen.charAt(index) != ' '; index++) {
+                position.castlingRights |= castlingRight(fen.charAt(index), fen);
+            }
+        }
+
+        index = skipSpaces(fen, index);
+        if (index == length) {
+            throw invalid("en passant square", fen);
+        }
+        if (fen.charAt(index) == '-') {
+            index++;
+        } else {
+            position.enPassantSquare = enPassantSquare(fen, index, position);
+            index += 2;
+        }
+        if (index < length && fen.charAt(index) != ' ') {
+            throw invalid("en passant square", fen);
+        }
+
+        // the counters are optional, and an epd line has operations in their place
+        index = skipSpaces(fen, index);
+        if (index < length && isDigit(fen.charAt(index))) {
+            index = parseCounter(fen, index, position, true);
+            index = skipSpaces(fen, index);
+            if (index < length && isDigit(fen.charAt(index))) {
+                parseCounter(fen, index, position, false);
+            }
+        }
+        return position;
+    }
+
+    private static int castlingRight(final char c, final String fen) {
+        switch (c) {
+            case 'K':
+                return WHITE_SHORT_CASTLE;
+            case 'Q':
+                return WHITE_LONG_CASTLE;
+            case 'k':
+                return BLACK_SHORT_CASTLE;
+            case 'q':
+                return BLACK_LONG_CASTLE;
+            default:
+                throw invalid("castling", fen);
+        }
+    }
+
+    // the square has to be on the rank the pawn passed over, a square no pawn passed over is dropped
+    private static int enPassantSquare(final String fen, final int index, final Position position) {
+        final char fileChar = index + 1 < fen.length() ? fen.charAt(index) : ' ';
+        final char rankChar = index + 1 < fen.length() ? fen.charAt(index + 1) : ' ';
+        if (fileChar < 'a' || fileChar > 'h' || rankChar != (position.sideToMove == WHITE ? '6' : '3')) {
+            throw invalid("en passant square", fen);
+        }
+        final int square = ('8' - rankChar) * Utilities.NUM_SQUARES_PER_ROW + (fileChar - 'a');
+        final int jumpedPawn = position.sideToMove == WHITE ? BLACK * NUM_PIECE_TYPES + PAWN : PAWN;
+        final int pawnSquare = square + (position.sideToMove == WHITE ? 8 : -8);
+        return position.squares[pawnSquare] == jumpedPawn ? square : NO_SQUARE;
+    }
+
+    private static int parseCounter(final String fen, int index, final Position position,
+                                    final boolean isHalfMoveClock) {
+        int value = 0;
+        for (; index < fen.length() && fen.charAt(index) != ' '; index++) {
+            final char c = fen.charAt(index);
+            if (!isDigit(c) || value > (Integer.MAX_VALUE - 9) / 10) {
+                throw invalid("move counters", fen);
+            }
+            value = value * 10 + (c - '0');
+        }
+        if (isHalfMoveClock) {
+            position.halfMoveClock = value;
+        } else {
+            position.fullMoveNumber = Math.max(1, value);
+        }
+        return index;
+    }
+
+    private static String write(final IntUnaryOperator pieceAt, final int sideToMove, final int castlingRights,
+                                final int enPassantSquare, final int halfMoveClock, final int fullMoveNumber) {
+        final StringBuilder builder = new StringBuilder(MAX_FEN_LENGTH);
+        int empty = 0;
+        for (int square = 0; square < Utilities.NUM_SQUARES; square++) {
+            final int pieceIndex = pieceAt.applyAsInt(square);
+            if (pieceIndex == SearchBoard.NO_PIECE) {
+                empty++;
+            } else {
+                if (empty > 0) {
+                    builder.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                builder.append(PIECE_CHARACTERS.charAt(pieceIndex));
+            }
+            if ((square & 7) == 7) {
+                if (empty > 0) {
+                    builder.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                builder.append(square == Utilities.NUM_SQUARES - 1 ? ' ' : '/');
+            }
+        }
+
+        builder.append(sideToMove == WHITE ? 'w' : 'b').append(' ');
+        if (castlingRights == NO_CASTLING) {
+            builder.append('-');
+        } else {
+            if ((castlingRights & WHITE_SHORT_CASTLE) != 0) {
+                builder.append('K');
+            }
+            if ((castlingRights & WHITE_LONG_CASTLE) != 0) {
+                builder.append('Q');
+            }
+            if ((castlingRights & BLACK_SHORT_CASTLE) != 0) {
+                builder.append('k');
+            }
+            if ((castlingRights & BLACK_LONG_CASTLE) != 0) {
+                builder.append('q');
+            }
+        }
+        builder.append(' ');
+        if (enPassantSquare == NO_SQUARE) {
+            builder.append('-');
+        } else {
+            builder.append((char) ('a' + (enPassantSquare & 7))).append((char) ('8' - (enPassantSquare >>> 3)));
+        }
+        return builder.append(' ').append(halfMoveClock).append(' ').append(fullMoveNumber).toString();
+    }
+
+    private static Piece createPiece(final int pieceIndex, final int square, final int castlingRights) {
+        final Color color = pieceIndex < NUM_PIECE_TYPES ? Color.WHITE : Color.BLACK;
+        final boolean isWhite = color.isWhite();
+        switch (pieceIndex % NUM_PIECE_TYPES) {
+            case PAWN:
+                return new Pawn(square, color);
+            case KNIGHT:
+                return new Knight(square, color);
+            case BISHOP:
+                return new Bishop(square, color);
+            case ROOK:
+                // a rook keeps its first move only while its side may still castle with it
+                final boolean isUnmovedRook =
+                        (square == 63 && isWhite && (castlingRights & WHITE_SHORT_CASTLE) != 0) ||
+                        (square == 56 && isWhite && (castlingRights & WHITE_LONG_CASTLE) != 0) ||
+                        (square == 7 && !isWhite && (castlingRights & BLACK_SHORT_CASTLE) != 0) ||
+                        (square == 0 && !isWhite && (castlingRights & BLACK_LONG_CASTLE) != 0);
+                return new Rook(square, color, isUnmovedRook);
+            case QUEEN:
+                return new Queen(square, color);
+            default:
+                final boolean canShortCastle =
+                        (castlingRights & (isWhite ? WHITE_SHORT_CASTLE : BLACK_SHORT_CASTLE)) != 0;
+                final boolean canLongCastle =
+                        (castlingRights & (isWhite ? WHITE_LONG_CASTLE : BLACK_LONG_CASTLE)) != 0;
+                return new King(square, color, false, canShortCastle, canLongCastle,
+                        canShortCastle || canLongCastle);
+        }
+    }
+
+    private static int skipSpaces(final String fen, int index) {
+        while (index < fen.length() && fen.charAt(index) == ' ') {
+            index++;
+        }
+        return index;
+    }
+
+    private static boolean isDigit(final char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static IllegalArgumentException invalid(final String field, final String fen) {
+        return new IllegalArgumentException("Invalid FEN " + field + ": " + fen);
+    }
+
+    private static int[] initPieceIndexes() {
+        final int[] indexes = new int[128];
+        Arrays.fill(indexes, SearchBoard.NO_PIECE);
+        for (int pieceIndex = 0; pieceIndex < NUM_PIECES; pieceIndex++) {
+            indexes[PIECE_CHARACTERS.charAt(pieceIndex)] = pieceIndex;
+        }
+        return indexes;
+    }
+
+    // the fields of a fen, with the pieces in square order
+    private static final class Position {
+        private final int[] squares;
+        private int sideToMove;
+        private int castlingRights;
+        private int enPassantSquare;
+        private int halfMoveClock;
+        private int fullMoveNumber;
+
+        private Position() {
+            this.squares = new int[Utilities.NUM_SQUARES];
+            Arrays.fill(this.squares, SearchBoard.NO_PIECE);
+            this.enPassantSquare = NO_SQUARE;
+            this.fullMoveNumber = 1;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.chess.pgn;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+
+// the moves of one game of a pgn file in standard algebraic notation, and how it ended
+public final class PgnGame {
+
+    public static final String WHITE_WINS = "1-0";
+    public static final String BLACK_WINS = "0-1";
+    public static final String DRAW = "1/2-1/2";
+    public static final String UNKNOWN_RESULT = "*";
+
+    private final ImmutableList<String> moves;
+    private final String result;
+
+    public PgnGame(final List<String> moves, final String result) {
+        this.moves = ImmutableList.copyOf(moves);
+        this.result = result;
+    }
+
+    public ImmutableList<String> getMoves() {
+        return this.moves;
+    }
+
+    public String getResult() {
+        return this.result;
+    }
+
+    @Override
+    public String toString() {
+        return String.join(" ", this.moves) + " " + this.result;
+    }
+}
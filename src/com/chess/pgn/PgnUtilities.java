@@ -0,0 +1,195 @@
+package com.chess.pgn;
+
+import com.chess.engine.board.MoveEncoding;
+import com.chess.engine.board.MoveGenerator;
+import com.chess.engine.board.MoveList;
+import com.chess.engine.board.SearchBoard;
+import com.chess.engine.board.Utilities;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static com.chess.engine.board.BitBoard.*;
+
+// portable game notation, the standard text form of whole games
+// only the main line is read, comments, variations, annotation glyphs and move numbers are skipped
+public class PgnUtilities {
+
+    private static final int NO_PIECE_TYPE = -1;
+
+    private PgnUtilities() {
+        throw new RuntimeException("Not instantiable");
+    }
+
+    // hands every game of the reader to the consumer as soon as it is read, so a large collection is never held
+    // in memory at once
+    public static void readGames(final Reader reader, final Consumer<PgnGame> consumer) throws IOException {
+        final BufferedReader in = reader instanceof BufferedReader ? (BufferedReader) reader :
+                new BufferedReader(reader);
+        final StringBuilder moveText = new StringBuilder();
+        String result = PgnGame.UNKNOWN_RESULT;
+        String line;
+        while ((line = in.readLine()) != null) {
+            final String trimmed = line.trim();
+            if (trimmed.startsWith("[")) {
+                // the tags of the next game close a game whose move text had no result
+                if (moveText.length() > 0) {
+                    consumer.accept(new PgnGame(parseMoveText(moveText), result));
+                    moveText.setLength(0);
+                    result = PgnGame.UNKNOWN_RESULT;
+                }
+                if (trimmed.startsWith("[Result ")) {
+                    result = tagValue(trimmed);
+                }
+                continue;
+            }
+            moveText.append(line).append('\n');
+        }
+        if (moveText.toString().trim().length() > 0) {
+            consumer.accept(new PgnGame(parseMoveText(moveText), result));
+        }
+    }
+
+    private static String tagValue(final String tag) {
+        final int start = tag.indexOf('"');
+        final int end = tag.lastIndexOf('"');
+        return start >= 0 && end > start ? tag.substring(start + 1, end) : PgnGame.UNKNOWN_RESULT;
+    }
+
+    private static List<String> parseMoveText(final CharSequence moveText) {
+        final List<String> moves = new ArrayList<>();
+        final StringBuilder token = new StringBuilder();
+        int variationDepth = 0;
+        for (int i = 0; i < moveText.length(); i++) {
+            final char c = moveText.charAt(i);
+            if (c == '{') {
+                // comments do not nest
+                while (i < moveText.length() && moveText.charAt(i) != '}') {
+                    i++;
+                }
+                addToken(moves, token, variationDepth);
+            } else if (c == ';') {
+                while (i < moveText.length() && moveText.charAt(i) != '\n') {
+                    i++;
+                }
+                addToken(moves, token, variationDepth);
+            } else if (c == '(') {
+                addToken(moves, token, variationDepth);
+                variationDepth++;
+            } else if (c == ')') {
+                addToken(moves, token, variationDepth);
+                variationDepth = Math.max(0, variationDepth - 1);
+            } else if (Character.isWhitespace(c)) {
+                addToken(moves, token, variationDepth);
+            } else {
+                token.append(c);
+            }
+        }
+        addToken(moves, token, variationDepth);
+        return moves;
+    }
+
+    // keeps the token when it is a main line move, move numbers may be glued to the move as in 1.e4 or 5...Nf6
+    private static void addToken(final List<String> moves, final StringBuilder token, final int variationDepth) {
+        String move = token.toString();
+        token.setLength(0);
+        if (!move.isEmpty() && Character.isDigit(move.charAt(0)) && move.indexOf('.') >= 0) {
+            move = move.substring(move.lastIndexOf('.') + 1);
+        }
+        if (variationDepth > 0 || move.isEmpty() || move.startsWith("$") || isResult(move) ||
+                move.chars().allMatch(Character::isDigit)) {
+            return;
+        }
+        moves.add(move);
+    }
+
+    private static boolean isResult(final String token) {
+        return token.equals(PgnGame.WHITE_WINS) || token.equals(PgnGame.BLACK_WINS) ||
+                token.equals(PgnGame.DRAW) || token.equals(PgnGame.UNKNOWN_RESULT);
+    }
+
+    // the legal move of the board that the standard algebraic notation names, MoveEncoding.NULL_MOVE when there is
+    // none, check and annotation marks are ignored
+    public static int parseMove(final SearchBoard board, final String san, final MoveList moves) {
+        String text = san;
+        while (!text.isEmpty() && "+#!?".indexOf(text.charAt(text.length() - 1)) >= 0) {
+            text = text.substring(0, text.length() - 1);
+        }
+        final int moveCount = MoveGenerator.generateLegalMoves(board, moves);
+        if (text.equals("O-O") || text.equals("0-0") || text.equals("O-O-O") || text.equals("0-0-0")) {
+            final boolean isShort = text.length() == 3;
+            for (int i = 0; i < moveCount; i++) {
+                final int move = moves.get(i);
+                if (MoveEncoding.isCastle(move) &&
+                        (MoveEncoding.getTo(move) > MoveEncoding.getFrom(move)) == isShort) {
+                    return move;
+                }
+            }
+            return MoveEncoding.NULL_MOVE;
+        }
+
+        int promotionType = NO_PIECE_TYPE;
+        final int promotionIndex = text.indexOf('=');
+        if (promotionIndex >= 0 && promotionIndex + 1 < text.length()) {
+            promotionType = pieceType(text.charAt(promotionIndex + 1));
+            text = text.substring(0, promotionIndex);
+        } else if (text.length() > 2 && pieceType(text.charAt(text.length() - 1)) > PAWN) {
+            promotionType = pieceType(text.charAt(text.length() - 1));
+            text = text.substring(0, text.length() - 1);
+        }
+        if (text.length() < 2) {
+            return MoveEncoding.NULL_MOVE;
+        }
+
+        final int movedType = Character.isUpperCase(text.charAt(0)) ? pieceType(text.charAt(0)) : PAWN;
+        final String destination = text.substring(text.length() - 2);
+        if (movedType == NO_PIECE_TYPE || !Utilities.POSITION_TO_COORDINATE.containsKey(destination)) {
+            return MoveEncoding.NULL_MOVE;
+        }
+        final int to = Utilities.getCoordinateAtPosition(destination);
+        // what is left between the piece letter and the destination tells moves to the same square apart
+        final String disambiguation = text.substring(movedType == PAWN ? 0 : 1, text.length() - 2).replace("x", "");
+
+        for (int i = 0; i < moveCount; i++) {
+            final int move = moves.get(i);
+            if (MoveEncoding.getTo(move) != to || MoveEncoding.getMovedPieceType(move) != movedType ||
+                    (MoveEncoding.isPromotion(move) ? MoveEncoding.getPromotionType(move) : NO_PIECE_TYPE) !=
+                            promotionType) {
+                continue;
+            }
+            final String from = Utilities.getPositionAtCoordinate(MoveEncoding.getFrom(move));
+            boolean matches = true;
+            for (int j = 0; j < disambiguation.length(); j++) {
+                if (from.indexOf(disambiguation.charAt(j)) < 0) {
+                    matches = false;
+                }
+            }
+            if (matches) {
+                return move;
+            }
+        }
+        return MoveEncoding.NULL_MOVE;
+    }
+
+    // BitBoard piece type of an upper case piece letter
+    private static int pieceType(final char letter) {
+        switch (letter) {
+            case 'N':
+                return KNIGHT;
+            case 'B':
+                return BISHOP;
+            case 'R':
+                return ROOK;
+            case 'Q':
+                return QUEEN;
+            case 'K':
+                return KING;
+            default:
+                return NO_PIECE_TYPE;
+        }
+    }
+}
@@ -0,0 +1,430 @@
+package com.chess.uci;
+
+import com.chess.engine.board.MoveEncoding;
+import com.chess.engine.board.MoveGenerator;
+import com.chess.engine.board.MoveList;
+import com.chess.engine.board.SearchBoard;
+import com.chess.engine.endgame.SyzygyTablebases;
+import com.chess.engine.player.ai.LazySmpSearch;
+import com.chess.engine.player.ai.PositionalEvaluator;
+import com.chess.engine.player.ai.SearchLimits;
+import com.chess.engine.player.ai.SearchResult;
+import com.chess.engine.player.ai.TranspositionTable;
+import com.chess.pgn.FenUtilities;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.chess.engine.board.BitBoard.*;
+
+// the engine without the gui, speaking the universal chess interface on standard input and output
+// the commands are read on the main thread and a search runs on a thread of its own, so a stop is seen while the
+// search is going and ends it within the few milliseconds the search takes to read its stop flag
+// a search for an infinite analysis or a ponder holds its best move back until the gui sends stop or ponderhit
+public final class UciEngine {
+
+    private static final String NAME = "JChess";
+    private static final String AUTHOR = "Edward Matthew";
+
+    private static final int MAX_HASH_MB = 4096;
+    private static final int MAX_THREADS = 64;
+    private static final int MAX_MULTI_PV = 64;
+    private static final String NO_PATH = "<empty>";
+    // moves the remaining time is shared over when the gui does not say, and time kept back for the gui's overhead
+    private static final int DEFAULT_MOVES_TO_GO = 30;
+    private static final long MOVE_OVERHEAD = 50;
+    // past the 50 move rule every searched position is a draw, no older position is needed for repetitions
+    private static final int FIFTY_MOVE_PLIES = 100;
+
+    private final PrintStream out;
+    private final TranspositionTable transpositionTable;
+    private final LazySmpSearch search;
+    private final ExecutorService searchThread;
+    private final ScheduledExecutorService timer;
+    private SearchBoard position;
+    private SyzygyTablebases tablebases;
+    private Future<?> running;
+    private ScheduledFuture<?> pendingStop;
+    // the move time of a ponder search, started on ponderhit
+    private long ponderMoveTime;
+    private int multiPv;
+    private boolean isPondering;
+    private boolean isBestMoveHeld;
+
+    public UciEngine(final PrintStream out) {
+        this.out = out;
+        this.transpositionTable = new TranspositionTable();
+        this.search = new LazySmpSearch(this.transpositionTable, new PositionalEvaluator(), 1);
+        this.search.setListener(this::sendInfo);
+        this.searchThread = Executors.newSingleThreadExecutor(runnable -> newDaemonThread(runnable, "uci search"));
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> newDaemonThread(runnable, "uci timer"));
+        this.position = SearchBoard.createStandardBoard();
+        this.multiPv = 1;
+    }
+
+    public static void main(String[] args) throws IOException {
+        final UciEngine engine = new UciEngine(System.out);
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (!engine.execute(line)) {
+                break;
+            }
+        }
+        engine.quit();
+    }
+
+    private static Thread newDaemonThread(final Runnable runnable, final String name) {
+        final Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    // one line of input, false once the gui asks to quit
+    public boolean execute(final String line) {
+        final String[] tokens = line.trim().split("\\s+");
+        switch (tokens[0]) {
+            case "uci":
+                send("id name " + NAME);
+                send("id author " + AUTHOR);
+                send("option name Hash type spin default " + TranspositionTable.DEFAULT_SIZE_MB + " min 1 max " +
+                        MAX_HASH_MB);
+                send("option name Threads type spin default 1 min 1 max " + MAX_THREADS);
+                send("option name MultiPV type spin default 1 min 1 max " + MAX_MULTI_PV);
+                send("option name Ponder type check default false");
+                send("option name SyzygyPath type string default " + NO_PATH);
+                send("uciok");
+                break;
+            case "isready":
+                send("readyok");
+                break;
+            case "setoption":
+                waitForSearch();
+                setOption(tokens);
+                break;
+            case "ucinewgame":
+                stop();
+                waitForSearch();
+                this.transpositionTable.clear();
+                break;
+            case "position":
+                waitForSearch();
+                setPosition(tokens);
+                break;
+            case "go":
+                stop();
+                waitForSearch();
+                go(tokens);
+                break;
+            case "stop":
+                stop();
+                break;
+            case "ponderhit":
+                ponderHit();
+                break;
+            case "quit":
+                return false;
+            default:
+                // unknown commands are ignored, as the protocol asks
+                break;
+        }
+        return true;
+    }
+
+    private void setOption(final String[] tokens) {
+        final int nameIndex = indexOf(tokens, "name");
+        final int valueIndex = indexOf(tokens, "value");
+        if (nameIndex < 0 || valueIndex < 0) {
+            return;
+        }
+        final String name = join(tokens, nameIndex + 1, valueIndex);
+        final String value = join(tokens, valueIndex + 1, tokens.length);
+        try {
+            switch (name.toLowerCase()) {
+                case "hash":
+                    this.transpositionTable.resize(clamp(Integer.parseInt(value), 1, MAX_HASH_MB));
+                    break;
+                case "threads":
+                    this.search.setThreads(clamp(Integer.parseInt(value), 1, MAX_THREADS));
+                    break;
+                case "multipv":
+                    this.multiPv = clamp(Integer.parseInt(value), 1, MAX_MULTI_PV);
+                    this.search.setMultiPv(this.multiPv);
+                    break;
+                case "syzygypath":
+                    setTablebasePath(value);
+                    break;
+                default:
+                    break;
+            }
+        } catch (final NumberFormatException e) {
+            send("info string invalid value " + value + " for " + name);
+        }
+    }
+
+    private void setTablebasePath(final String path) {
+        try {
+            if (this.tablebases != null) {
+                this.tablebases.close();
+            }
+            this.tablebases = path.isEmpty() || path.equals(NO_PATH) ? null : SyzygyTablebases.open(Paths.get(path));
+        } catch (final IOException e) {
+            this.tablebases = null;
+            send("info string cannot read tablebases in " + path);
+        }
+        this.search.setTablebase(this.tablebases);
+        if (this.tablebases != null) {
+            send("info string found " + this.tablebases.getNames().size() + " tablebases of up to " +
+                    this.tablebases.getMaxPieces() + " pieces");
+        }
+    }
+
+    // position [startpos | fen <fen>] [moves <move>...]
+    private void setPosition(final String[] tokens) {
+        final int movesIndex = indexOf(tokens, "moves");
+        final int end = movesIndex < 0 ? tokens.length : movesIndex;
+        final SearchBoard board;
+        try {
+            if (tokens.length > 1 && tokens[1].equals("fen")) {
+                board = FenUtilities.createSearchBoardFromFEN(join(tokens, 2, end));
+            } else {
+                board = SearchBoard.createStandardBoard();
+            }
+        } catch (final RuntimeException e) {
+            send("info string invalid position " + join(tokens, 1, end));
+            return;
+        }
+        if (movesIndex >= 0) {
+            final MoveList moves = new MoveList();
+            for (int i = movesIndex + 1; i < tokens.length; i++) {
+                final int move = findMove(board, tokens[i], moves);
+                if (move == MoveEncoding.NULL_MOVE) {
+                    send("info string illegal move " + tokens[i]);
+                    break;
+                }
+                board.makeMove(move);
+                // only the moves since the last capture or pawn move can repeat, so a long game fits the board's
+                // history however many moves it has
+                if (board.getHalfMoveClock() == 0 || board.getPly() >= FIFTY_MOVE_PLIES) {
+                    board.clearHistory();
+                }
+            }
+        }
+        this.position = board;
+    }
+
+    private static int findMove(final SearchBoard board, final String text, final MoveList moves) {
+        MoveGenerator.generateLegalMoves(board, moves);
+        for (int i = 0; i < moves.size(); i++) {
+            if (MoveEncoding.toAlgebraic(moves.get(i)).equals(text)) {
+                return moves.get(i);
+            }
+        }
+        return MoveEncoding.NULL_MOVE;
+    }
+
+    // go [ponder] [infinite] [depth d] [nodes n] [movetime ms] [wtime ms] [btime ms] [winc ms] [binc ms] [movestogo m]
+    private void go(final String[] tokens) {
+        final SearchLimits.Builder limits = new SearchLimits.Builder();
+        boolean isInfinite = false;
+        boolean isPonder = false;
+        long moveTime = 0;
+        final long[] time = new long[2];
+        final long[] increment = new long[2];
+        int movesToGo = 0;
+        try {
+            for (int i = 1; i < tokens.length; i++) {
+                switch (tokens[i]) {
+                    case "infinite":
+                        isInfinite = true;
+                        break;
+                    case "ponder":
+                        isPonder = true;
+                        break;
+                    case "depth":
+                        limits.setDepth(Integer.parseInt(tokens[++i]));
+                        break;
+                    case "nodes":
+                        limits.setNodes(Long.parseLong(tokens[++i]));
+                        break;
+                    case "movetime":
+                        moveTime = Long.parseLong(tokens[++i]);
+                        break;
+                    case "wtime":
+                        time[WHITE] = Long.parseLong(tokens[++i]);
+                        break;
+                    case "btime":
+                        time[BLACK] = Long.parseLong(tokens[++i]);
+                        break;
+                    case "winc":
+                        increment[WHITE] = Long.parseLong(tokens[++i]);
+                        break;
+                    case "binc":
+                        increment[BLACK] = Long.parseLong(tokens[++i]);
+                        break;
+                    case "movestogo":
+                        movesToGo = Integer.parseInt(tokens[++i]);
+                        break;
+                    default:
+                        break;
+                }
+            }
+        } catch (final NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            send("info string invalid go command");
+            return;
+        }
+        final int sideToMove = this.position.getSideToMove();
+        if (moveTime == 0 && time[sideToMove] > 0) {
+            moveTime = allocateTime(time[sideToMove], increment[sideToMove], movesToGo);
+        }
+        // a ponder search runs without a clock until ponderhit starts it
+        if (isPonder) {
+            this.ponderMoveTime = moveTime;
+        } else if (!isInfinite) {
+            limits.setMoveTime(moveTime);
+        }
+
+        final SearchBoard board = new SearchBoard(this.position);
+        final SearchLimits searchLimits = limits.build();
+        final MoveList moves = new MoveList();
+        final int fallbackMove = MoveGenerator.generateLegalMoves(board, moves) > 0 ?
+                moves.get(0) : MoveEncoding.NULL_MOVE;
+        synchronized (this) {
+            this.isPondering = isPonder;
+            this.isBestMoveHeld = isPonder || isInfinite;
+        }
+        // the stop flags are cleared here on the command thread, a stop read right after go reaches the search
+        this.search.prepare();
+        this.running = this.searchThread.submit(() -> runSearch(board, searchLimits, fallbackMove));
+    }
+
+    // a share of the time left with most of the increment, never more than the time left less the gui's overhead
+    static long allocateTime(final long time, final long increment, final int movesToGo) {
+        final long allocated = time / (movesToGo > 0 ? movesToGo : DEFAULT_MOVES_TO_GO) + increment * 3 / 4;
+        return Math.max(1, Math.min(allocated, time - MOVE_OVERHEAD));
+    }
+
+    // the gui waits for a best move whatever happens, a failed search still answers with a legal move
+    private void runSearch(final SearchBoard board, final SearchLimits limits, final int fallbackMove) {
+        SearchResult result = null;
+        try {
+            result = this.search.search(board, limits);
+        } catch (final RuntimeException e) {
+            send("info string search failed " + e);
+        }
+        synchronized (this) {
+            while (this.isBestMoveHeld) {
+                try {
+                    wait();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            if (this.pendingStop != null) {
+                this.pendingStop.cancel(false);
+                this.pendingStop = null;
+            }
+        }
+        final int[] line = result != null ? result.getPrincipalVariation() : new int[0];
+        final int bestMove = result != null ? result.getBestMove() : fallbackMove;
+        send("bestmove " + (bestMove == MoveEncoding.NULL_MOVE ? "0000" : MoveEncoding.toAlgebraic(bestMove)) +
+                (line.length > 1 && line[0] == bestMove ? " ponder " + MoveEncoding.toAlgebraic(line[1]) : ""));
+    }
+
+    private void stop() {
+        this.search.stop();
+        synchronized (this) {
+            this.isPondering = false;
+            this.isBestMoveHeld = false;
+            notifyAll();
+        }
+    }
+
+    // the opponent played the expected move, the ponder search goes on as a normal one from now on
+    private void ponderHit() {
+        synchronized (this) {
+            if (!this.isPondering) {
+                return;
+            }
+            this.isPondering = false;
+            this.isBestMoveHeld = false;
+            notifyAll();
+            if (this.ponderMoveTime > 0) {
+                this.pendingStop = this.timer.schedule(this.search::stop, this.ponderMoveTime, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void waitForSearch() {
+        if (this.running == null) {
+            return;
+        }
+        try {
+            this.running.get();
+        } catch (final Exception e) {
+            send("info string search failed " + e);
+        }
+        this.running = null;
+    }
+
+    public void quit() {
+        stop();
+        waitForSearch();
+        this.search.shutdown();
+        this.searchThread.shutdownNow();
+        this.timer.shutdownNow();
+    }
+
+    private void sendInfo(final SearchResult result) {
+        final StringBuilder builder = new StringBuilder("info depth ").append(result.getDepth());
+        if (this.multiPv > 1) {
+            builder.append(" multipv ").append(result.getMultiPv());
+        }
+        builder.append(result.isMateScore() ? " score mate " + result.getMateIn() : " score cp " + result.getScore())
+                .append(" nodes ").append(result.getNodes())
+                .append(" nps ").append(result.getNodesPerSecond())
+                .append(" hashfull ").append(this.transpositionTable.getHashFull())
+                .append(" time ").append(result.getElapsedMillis())
+                .append(" pv ").append(result.getPrincipalVariationText());
+        send(builder.toString());
+    }
+
+    private void send(final String line) {
+        synchronized (this.out) {
+            this.out.println(line);
+            this.out.flush();
+        }
+    }
+
+    private static int indexOf(final String[] tokens, final String token) {
+        for (int i = 0; i < tokens.length; i++) {
+            if (tokens[i].equals(token)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String join(final String[] tokens, final int from, final int to) {
+        final StringBuilder builder = new StringBuilder();
+        for (int i = from; i < to; i++) {
+            builder.append(i > from ? " " : "").append(tokens[i]);
+        }
+        return builder.toString();
+    }
+
+    private static int clamp(final int value, final int min, final int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}